@@ -0,0 +1,312 @@
+package net.frc5183.librobot.hardware;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Applies device configuration (such as ramp rates, inversion and current limits of
+ * {@link net.frc5183.librobot.hardware.motor.Motor}s and {@link net.frc5183.librobot.hardware.encoder.Encoder}s)
+ * on a background thread, so that slow or dropped configuration frames never stall the robot loop.
+ * <p>
+ * Each setting is submitted under a device and a key. A setting which is still waiting is replaced by a newer one with
+ * the same device and key, so changing a value every loop only writes the latest value. Settings are applied in order,
+ * retried a few times when the write fails or a verification read disagrees, and reported to the driver station when
+ * they still fail. {@link #getApplied(Object)} returns a future which completes once every setting submitted to a
+ * device so far has been applied.
+ */
+public class ConfigQueue implements AutoCloseable {
+    /**
+     * The default number of attempts per setting.
+     */
+    public static final int DEFAULT_ATTEMPTS = 3;
+
+    /**
+     * The default time in seconds between attempts.
+     */
+    public static final double DEFAULT_RETRY_DELAY = 0.02;
+
+    /**
+     * The number of attempts per setting.
+     */
+    private final int attempts;
+
+    /**
+     * The time in milliseconds between attempts.
+     */
+    private final long retryDelayMillis;
+
+    /**
+     * The settings waiting to be applied, in submission order.
+     */
+    @NotNull
+    private final Map<Key, Setting> pending = new LinkedHashMap<>();
+
+    /**
+     * The state of every device with outstanding settings.
+     */
+    @NotNull
+    private final Map<Object, DeviceState> states = new IdentityHashMap<>();
+
+    /**
+     * The thread applying settings.
+     */
+    @NotNull
+    private final Thread thread;
+
+    /**
+     * Whether the queue has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Creates a new {@link ConfigQueue} with {@link #DEFAULT_ATTEMPTS} attempts {@link #DEFAULT_RETRY_DELAY} apart.
+     */
+    public ConfigQueue() {
+        this(DEFAULT_ATTEMPTS, DEFAULT_RETRY_DELAY);
+    }
+
+    /**
+     * Creates a new {@link ConfigQueue}.
+     * @param attempts The number of attempts per setting.
+     * @param retryDelaySeconds The time in seconds between attempts.
+     * @throws IllegalArgumentException If attempts is not positive or the delay is negative.
+     */
+    public ConfigQueue(int attempts, double retryDelaySeconds) {
+        if (attempts <= 0) throw new IllegalArgumentException("Attempts must be greater than 0.");
+        if (!(retryDelaySeconds >= 0)) throw new IllegalArgumentException("Retry delay must not be negative.");
+
+        this.attempts = attempts;
+        this.retryDelayMillis = (long) (retryDelaySeconds * 1e3);
+        this.thread = new Thread(this::run, "librobot-config");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Submits a setting.
+     * @param device The device the setting belongs to.
+     * @param key The name of the setting, settings with the same device and key replace each other while waiting.
+     * @param apply Writes the setting, returning whether the device accepted it.
+     * @param verify Reads the setting back, returning whether it matches, or null to trust the write.
+     * @return A future which completes when this setting, or a newer one replacing it, has been applied,
+     * or completes exceptionally when it fails.
+     * @throws IllegalStateException If the queue has been closed.
+     */
+    public @NotNull CompletableFuture<Void> submit(@NotNull Object device, @NotNull String key,
+                                                   @NotNull BooleanSupplier apply, @Nullable BooleanSupplier verify) {
+        synchronized (pending) {
+            if (closed) throw new IllegalStateException("Config queue has been closed.");
+
+            Key id = new Key(device, key);
+            Setting setting = new Setting(id, apply, verify);
+            Setting replaced = pending.remove(id);
+
+            if (replaced == null) {
+                state(device).outstanding++;
+            } else {
+                setting.future.whenComplete((result, error) -> {
+                    if (error == null) replaced.future.complete(null);
+                    else replaced.future.completeExceptionally(error);
+                });
+            }
+
+            pending.put(id, setting);
+            pending.notifyAll();
+            return setting.future;
+        }
+    }
+
+    /**
+     * Returns a future which completes once every setting submitted to a device so far has been applied,
+     * or completes exceptionally naming the settings which failed.
+     * @param device The device.
+     * @return The future, already complete if the device has no outstanding settings.
+     */
+    public @NotNull CompletableFuture<Void> getApplied(@NotNull Object device) {
+        synchronized (pending) {
+            DeviceState state = states.get(device);
+            return state == null ? CompletableFuture.completedFuture(null) : state.applied;
+        }
+    }
+
+    /**
+     * @return the number of settings waiting to be applied
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Stops the queue. Waiting settings are abandoned and their futures completed exceptionally.
+     */
+    @Override
+    public void close() {
+        synchronized (pending) {
+            closed = true;
+            for (Setting setting : pending.values()) {
+                setting.future.completeExceptionally(new IllegalStateException("Config queue was closed."));
+            }
+            pending.clear();
+            for (DeviceState state : states.values()) {
+                state.applied.completeExceptionally(new IllegalStateException("Config queue was closed."));
+            }
+            states.clear();
+            pending.notifyAll();
+        }
+        thread.interrupt();
+    }
+
+    /**
+     * Applies settings until the queue is closed.
+     */
+    private void run() {
+        while (true) {
+            Setting setting;
+            synchronized (pending) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        pending.wait();
+                    } catch (InterruptedException e) {
+                        if (closed) return;
+                    }
+                }
+                if (closed) return;
+
+                Iterator<Setting> iterator = pending.values().iterator();
+                setting = iterator.next();
+                iterator.remove();
+            }
+
+            boolean applied = apply(setting);
+            if (applied) setting.future.complete(null);
+            else {
+                DriverStation.reportWarning("Failed to apply " + setting.key + " after " + attempts + " attempts.", false);
+                setting.future.completeExceptionally(new IllegalStateException("Failed to apply " + setting.key + "."));
+            }
+            finished(setting, applied);
+        }
+    }
+
+    /**
+     * Writes and verifies a setting, retrying up to the number of attempts.
+     * @param setting The setting.
+     * @return Whether the setting was applied.
+     */
+    private boolean apply(Setting setting) {
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            if (attempt > 0 && retryDelayMillis > 0) {
+                try {
+                    Thread.sleep(retryDelayMillis);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            }
+
+            try {
+                if (setting.apply.getAsBoolean() && (setting.verify == null || setting.verify.getAsBoolean())) return true;
+            } catch (RuntimeException e) {
+                DriverStation.reportWarning("Applying " + setting.key + " threw " + e + ".", false);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records that a setting finished and completes its device's future once nothing is outstanding.
+     * @param setting The setting.
+     * @param applied Whether the setting was applied.
+     */
+    private void finished(Setting setting, boolean applied) {
+        CompletableFuture<Void> future;
+        List<String> failures;
+
+        synchronized (pending) {
+            DeviceState state = states.get(setting.key.device);
+            if (state == null) return;
+            if (!applied) state.failures.add(setting.key.name);
+            if (--state.outstanding > 0) return;
+
+            states.remove(setting.key.device);
+            future = state.applied;
+            failures = state.failures;
+        }
+
+        if (failures.isEmpty()) future.complete(null);
+        else future.completeExceptionally(new IllegalStateException("Failed to apply " + String.join(", ", failures) + "."));
+    }
+
+    /**
+     * Returns the state of a device, creating it if needed. Must hold the pending lock.
+     * @param device The device.
+     * @return The state of the device.
+     */
+    private DeviceState state(Object device) {
+        return states.computeIfAbsent(device, d -> new DeviceState());
+    }
+
+    /**
+     * The outstanding settings of one device.
+     */
+    private static final class DeviceState {
+        private final CompletableFuture<Void> applied = new CompletableFuture<>();
+        private final List<String> failures = new ArrayList<>();
+        private int outstanding;
+    }
+
+    /**
+     * A device and setting name, compared by device identity.
+     */
+    private static final class Key {
+        private final Object device;
+        private final String name;
+
+        Key(Object device, String name) {
+            this.device = device;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && other.device == device && other.name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(device), name);
+        }
+
+        @Override
+        public String toString() {
+            return name + " of " + device.getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * A setting waiting to be applied.
+     */
+    private static final class Setting {
+        private final Key key;
+        private final BooleanSupplier apply;
+        private final BooleanSupplier verify;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Setting(Key key, BooleanSupplier apply, BooleanSupplier verify) {
+            this.key = key;
+            this.apply = apply;
+            this.verify = verify;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package net.frc5183.librobot.hardware;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * A device which is being constructed and configured in the background by a {@link DeviceRegistry}.
+ * {@link #get()} blocks until the device is ready, so the wait only happens when the device is first used.
+ * The timeout is measured once from registration: a device which is not ready by then is marked as failed,
+ * and every later {@link #get()} fails at once instead of blocking again.
+ * @param <T> The type of the device.
+ */
+public final class DeviceHandle<T> implements Supplier<T> {
+    /**
+     * The name of the device.
+     */
+    @NotNull
+    private final String name;
+
+    /**
+     * The future completed with the device once it is constructed and configured.
+     */
+    @NotNull
+    private final CompletableFuture<T> future;
+
+    /**
+     * The time in nanoseconds the device was given to initialize.
+     */
+    private final long timeoutNanos;
+
+    /**
+     * The {@link System#nanoTime()} by which the device must be ready.
+     */
+    private final long deadlineNanos;
+
+    /**
+     * The device, once it is ready.
+     */
+    private volatile T device;
+
+    /**
+     * The time in nanoseconds the device took to construct and configure, or -1 if it has not finished.
+     */
+    private volatile long initNanos = -1;
+
+    /**
+     * Creates a new {@link DeviceHandle}.
+     * @param name The name of the device.
+     * @param timeoutNanos The time in nanoseconds from now the device is given to initialize.
+     */
+    DeviceHandle(@NotNull String name, long timeoutNanos) {
+        this.name = name;
+        this.future = new CompletableFuture<>();
+        this.timeoutNanos = timeoutNanos;
+        this.deadlineNanos = System.nanoTime() + timeoutNanos;
+    }
+
+    /**
+     * Returns the device, waiting for it to be constructed and configured if necessary.
+     * @return The device.
+     * @throws IllegalStateException If the device failed to initialize or did not initialize within the timeout.
+     */
+    @Override
+    public T get() {
+        T ready = device;
+        if (ready != null) return ready;
+
+        try {
+            ready = future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            device = ready;
+            return ready;
+        } catch (TimeoutException e) {
+            expire();
+            throw new IllegalStateException("Device \"" + name + "\" did not initialize within "
+                    + timeoutNanos / 1e9 + " seconds.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Device \"" + name + "\" failed to initialize.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for device \"" + name + "\".", e);
+        }
+    }
+
+    /**
+     * Returns the name of the device.
+     * @return The name of the device.
+     */
+    public @NotNull String getName() {
+        return name;
+    }
+
+    /**
+     * Returns whether the device has been constructed and configured successfully.
+     * @return Whether the device is ready.
+     */
+    public boolean isReady() {
+        checkDeadline();
+        return future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    /**
+     * Returns whether the device failed to construct or configure, or did not within the timeout.
+     * @return Whether the device failed.
+     */
+    public boolean isFailed() {
+        checkDeadline();
+        return future.isCompletedExceptionally();
+    }
+
+    /**
+     * Returns the time the device took to construct and configure.
+     * @return The time in seconds the device took to initialize, or {@link Double#NaN} if it has not finished.
+     */
+    public double getInitTimeSeconds() {
+        long nanos = initNanos;
+        return nanos < 0 ? Double.NaN : nanos / 1e9;
+    }
+
+    /**
+     * Returns the future completed with the device once it is ready.
+     * @return The future of the device.
+     */
+    @NotNull CompletableFuture<T> future() {
+        return future;
+    }
+
+    /**
+     * Marks the device as failed if it is still initializing past its deadline.
+     */
+    private void checkDeadline() {
+        if (!future.isDone() && System.nanoTime() - deadlineNanos >= 0) expire();
+    }
+
+    /**
+     * Marks the device as failed because it did not initialize within the timeout.
+     * If it finishes later, the device is discarded.
+     */
+    private void expire() {
+        if (initNanos < 0) initNanos = timeoutNanos;
+        future.completeExceptionally(new TimeoutException("Device \"" + name + "\" did not initialize within "
+                + timeoutNanos / 1e9 + " seconds."));
+    }
+
+    /**
+     * Records how long the device took to initialize.
+     * @param nanos The time in nanoseconds the device took to initialize.
+     */
+    void setInitNanos(long nanos) {
+        this.initNanos = nanos;
+    }
+}
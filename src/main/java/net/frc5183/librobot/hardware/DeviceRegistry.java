@@ -0,0 +1,199 @@
+package net.frc5183.librobot.hardware;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Constructs and configures devices (such as {@link net.frc5183.librobot.hardware.motor.Motor}s and
+ * {@link net.frc5183.librobot.hardware.encoder.Encoder}s) in parallel on a fixed number of background threads.
+ * <p>
+ * Devices are declared up front with {@link #register(String, Supplier, Consumer)}, which starts their
+ * initialization immediately and returns a {@link DeviceHandle}. Robot code only blocks when it first calls
+ * {@link DeviceHandle#get()}, and only for that device, so a slow or missing device does not hold up the others.
+ * <pre>
+ * DeviceRegistry devices = new DeviceRegistry();
+ * DeviceHandle&lt;SparkMaxMotor&gt; left = devices.register("left", () -&gt; new SparkMaxMotor(1, MotorType.kBrushless), motor -&gt; motor.setRamp(0.2));
+ * DeviceHandle&lt;Encoder&gt; arm = devices.register("arm", () -&gt; new TalonFXEncoder(new TalonFX(5)));
+ * devices.awaitAll();
+ * </pre>
+ */
+public class DeviceRegistry implements AutoCloseable {
+    /**
+     * The default number of threads used to initialize devices.
+     */
+    public static final int DEFAULT_THREADS = 4;
+
+    /**
+     * The default time in seconds to wait for a device.
+     */
+    public static final double DEFAULT_TIMEOUT = 2.0;
+
+    /**
+     * The threads initializing the devices.
+     */
+    @NotNull
+    private final ExecutorService executor;
+
+    /**
+     * The longest time in nanoseconds to wait for a device.
+     */
+    private final long timeoutNanos;
+
+    /**
+     * Every registered device.
+     */
+    @NotNull
+    private final List<DeviceHandle<?>> devices = new ArrayList<>();
+
+    /**
+     * Creates a new {@link DeviceRegistry} with {@link #DEFAULT_THREADS} threads and a {@link #DEFAULT_TIMEOUT} timeout.
+     */
+    public DeviceRegistry() {
+        this(DEFAULT_THREADS, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Creates a new {@link DeviceRegistry}.
+     * @param threads The number of threads used to initialize devices.
+     * @param timeoutSeconds The longest time in seconds to wait for a device.
+     * @throws IllegalArgumentException If threads or timeoutSeconds is not positive.
+     */
+    public DeviceRegistry(int threads, double timeoutSeconds) {
+        if (threads <= 0) throw new IllegalArgumentException("Threads must be greater than 0.");
+        if (timeoutSeconds <= 0) throw new IllegalArgumentException("Timeout must be greater than 0.");
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "librobot-device-init-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timeoutNanos = (long) (timeoutSeconds * 1e9);
+    }
+
+    /**
+     * Registers a device and starts constructing it in the background.
+     * @param name The name of the device, used in reports.
+     * @param factory Constructs the device.
+     * @param <T> The type of the device.
+     * @return The handle of the device.
+     */
+    public <T> @NotNull DeviceHandle<T> register(@NotNull String name, @NotNull Supplier<T> factory) {
+        return register(name, factory, device -> {});
+    }
+
+    /**
+     * Registers a device and starts constructing and configuring it in the background.
+     * @param name The name of the device, used in reports.
+     * @param factory Constructs the device.
+     * @param configurator Configures the device once it is constructed.
+     * @param <T> The type of the device.
+     * @return The handle of the device.
+     */
+    public <T> @NotNull DeviceHandle<T> register(@NotNull String name, @NotNull Supplier<T> factory, @NotNull Consumer<? super T> configurator) {
+        DeviceHandle<T> handle = new DeviceHandle<>(name, timeoutNanos);
+        synchronized (devices) {
+            devices.add(handle);
+        }
+
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                T device = factory.get();
+                configurator.accept(device);
+                handle.setInitNanos(System.nanoTime() - start);
+                handle.future().complete(device);
+            } catch (Throwable e) { // NOPMD - vendor constructors can throw errors such as UnsatisfiedLinkError
+                handle.setInitNanos(System.nanoTime() - start);
+                handle.future().completeExceptionally(e);
+            }
+        });
+
+        return handle;
+    }
+
+    /**
+     * Waits for every registered device, but no longer than the timeout in total,
+     * and reports any device that failed or is still initializing to the driver station.
+     * @return Whether every device is ready.
+     */
+    public boolean awaitAll() {
+        long deadline = System.nanoTime() + timeoutNanos;
+        boolean ready = true;
+
+        for (DeviceHandle<?> handle : getDevices()) {
+            try {
+                handle.future().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (Exception e) { // NOPMD - failures are reported below
+                // Reported below.
+            }
+
+            if (handle.isFailed()) {
+                ready = false;
+                DriverStation.reportError("Device \"" + handle.getName() + "\" failed to initialize after "
+                        + formatMillis(handle.getInitTimeSeconds()) + ".", false);
+            } else if (!handle.isReady()) {
+                ready = false;
+                DriverStation.reportWarning("Device \"" + handle.getName() + "\" is still initializing.", false);
+            }
+        }
+
+        return ready;
+    }
+
+    /**
+     * Returns a summary of how long each device took to initialize, one device per line.
+     * @return A summary of how long each device took to initialize.
+     */
+    public @NotNull String getInitTimeSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (DeviceHandle<?> handle : getDevices()) {
+            summary.append(handle.getName()).append(": ");
+            if (handle.isFailed()) summary.append("failed after ").append(formatMillis(handle.getInitTimeSeconds()));
+            else if (handle.isReady()) summary.append(formatMillis(handle.getInitTimeSeconds()));
+            else summary.append("initializing");
+            summary.append('\n');
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Returns every registered device.
+     * @return An unmodifiable copy of every registered device.
+     */
+    public @NotNull List<DeviceHandle<?>> getDevices() {
+        synchronized (devices) {
+            return Collections.unmodifiableList(new ArrayList<>(devices));
+        }
+    }
+
+    /**
+     * Stops the initialization threads once the registered devices have finished.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Formats a time in seconds as milliseconds.
+     * @param seconds The time in seconds.
+     * @return The time formatted as milliseconds.
+     */
+    private static String formatMillis(double seconds) {
+        return String.format("%.1f ms", seconds * 1e3);
+    }
+}
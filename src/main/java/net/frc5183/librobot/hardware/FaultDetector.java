@@ -0,0 +1,542 @@
+package net.frc5183.librobot.hardware;
+
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import net.frc5183.librobot.hardware.encoder.Encoder;
+import net.frc5183.librobot.hardware.motor.BatteryVoltage;
+import net.frc5183.librobot.hardware.motor.Motor;
+import net.frc5183.librobot.hardware.motor.MotorOutputStage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Detects stalled, disconnected and faulty {@link Motor}s and {@link Encoder}s.
+ * <p>
+ * Devices are registered as channels, a motor with an optional encoder or an encoder alone. {@link #update()} must be
+ * called once per loop and reads each device once, checking every channel with a few primitive comparisons:
+ * <ul>
+ *     <li>{@link Fault#STALE}: the age of the device's last signal exceeds a limit.</li>
+ *     <li>{@link Fault#STALL}: the motor is commanded above an output but the encoder moves slower than a velocity.</li>
+ *     <li>{@link Fault#POSITION_JUMP}: the encoder's position changed more than a limit between two loops.</li>
+ *     <li>{@link Fault#OVER_CURRENT}: the motor draws more than a current limit.</li>
+ * </ul>
+ * A fault is raised once its condition has held for the rise time (position jumps are raised immediately),
+ * and cleared once the condition has been gone for the fall time. Each channel's faults are published as a bit mask
+ * under "name/faults" when they change, and raising a fault reports a warning to the driver station.
+ * <p>
+ * A motor buffered in a {@link MotorOutputStage} can be derated or stopped while it has a fault, by lowering its
+ * derate factor in the stage. The derate factor is multiplied with the scale set by a
+ * {@link net.frc5183.librobot.hardware.motor.PowerBudget}, so both apply in either order. Buffered motors are checked
+ * for stalls against their requested output rather than the output written, so a stopped motor which is still
+ * commanded keeps its stall fault instead of cycling between stopped and full output.
+ */
+public class FaultDetector {
+    /**
+     * A fault detected by a {@link FaultDetector}.
+     */
+    public enum Fault {
+        /**
+         * The device's signal has not been updated recently, usually because it is disconnected.
+         */
+        STALE,
+        /**
+         * The motor is commanded but not moving.
+         */
+        STALL,
+        /**
+         * The encoder's position jumped, usually because it rebooted or glitched.
+         */
+        POSITION_JUMP,
+        /**
+         * The motor draws more current than its limit.
+         */
+        OVER_CURRENT;
+
+        /**
+         * @return the bit of this fault in a fault mask
+         */
+        public int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    /**
+     * What a {@link FaultDetector} does to a motor while its channel has a fault.
+     */
+    public enum Action {
+        /**
+         * Only report the fault.
+         */
+        NONE,
+        /**
+         * Derate the motor's output by the channel's derate scale.
+         */
+        DERATE,
+        /**
+         * Derate the motor's output to zero.
+         */
+        STOP
+    }
+
+    /**
+     * The number of faults.
+     */
+    private static final int FAULTS = Fault.values().length;
+
+    /**
+     * The table the faults are published under.
+     */
+    @NotNull
+    private final NetworkTable table;
+
+    /**
+     * Supplies the current time in seconds.
+     */
+    @NotNull
+    private final DoubleSupplier clock;
+
+    /**
+     * How long in seconds a condition must hold before its fault is raised.
+     */
+    private double riseTime = 0.25;
+
+    /**
+     * How long in seconds a condition must be gone before its fault is cleared.
+     */
+    private double fallTime = 1.0;
+
+    /**
+     * The number of registered channels.
+     */
+    private int count;
+
+    /**
+     * The names of the channels.
+     */
+    private String[] names = new String[0];
+
+    /**
+     * The motor of each channel, or null.
+     */
+    private Motor[] motors = new Motor[0];
+
+    /**
+     * The encoder of each channel, or null.
+     */
+    private Encoder[] encoders = new Encoder[0];
+
+    /**
+     * Supplies the age of each channel's signal in seconds, or null if staleness is not checked.
+     */
+    private DoubleSupplier[] ages = new DoubleSupplier[0];
+
+    /**
+     * The largest signal age in seconds of each channel.
+     */
+    private double[] maxAges = new double[0];
+
+    /**
+     * The output above which each channel's motor must move.
+     */
+    private double[] stallOutputs = new double[0];
+
+    /**
+     * The velocity in rotations per second below which each channel's commanded motor is stalled.
+     */
+    private double[] stallVelocities = new double[0];
+
+    /**
+     * The largest position change in rotations of each channel's encoder between two loops.
+     */
+    private double[] maxJumps = new double[0];
+
+    /**
+     * The current limit in amps of each channel's motor.
+     */
+    private double[] currentLimits = new double[0];
+
+    /**
+     * What to do to each channel's motor while it has a fault.
+     */
+    private Action[] actions = new Action[0];
+
+    /**
+     * The scale each channel's motor is derated to.
+     */
+    private double[] derateScales = new double[0];
+
+    /**
+     * Whether each channel's action is lowering its motor's derate factor.
+     */
+    private boolean[] acting = new boolean[0];
+
+    /**
+     * The position of each channel's encoder at the last update, or NaN.
+     */
+    private double[] lastPositions = new double[0];
+
+    /**
+     * The time each channel's faults started to differ from their conditions, indexed by channel * FAULTS + fault, or NaN.
+     */
+    private double[] changingSince = new double[0];
+
+    /**
+     * The active faults of each channel as a bit mask.
+     */
+    private int[] faults = new int[0];
+
+    /**
+     * The publishers of each channel's fault mask.
+     */
+    private IntegerPublisher[] publishers = new IntegerPublisher[0];
+
+    /**
+     * Creates a new {@link FaultDetector} which publishes under the given table and uses the FPGA timestamp.
+     * @param table The table to publish the faults under.
+     */
+    public FaultDetector(@NotNull NetworkTable table) {
+        this(table, Timer::getFPGATimestamp);
+    }
+
+    /**
+     * Creates a new {@link FaultDetector} which publishes under the given table of the default instance.
+     * @param tableName The name of the table to publish the faults under.
+     */
+    public FaultDetector(@NotNull String tableName) {
+        this(NetworkTableInstance.getDefault().getTable(tableName));
+    }
+
+    /**
+     * Creates a new {@link FaultDetector}.
+     * @param table The table to publish the faults under.
+     * @param clock Supplies the current time in seconds.
+     */
+    public FaultDetector(@NotNull NetworkTable table, @NotNull DoubleSupplier clock) {
+        this.table = table;
+        this.clock = clock;
+    }
+
+    /**
+     * Registers a motor and the encoder measuring it.
+     * Stalls are checked with an output of 0.2 and a velocity of 0.05 rotations per second, other checks are off.
+     * @param name The name to publish the channel's faults under.
+     * @param motor The motor.
+     * @param encoder The encoder measuring the motor, or null to only check the motor.
+     * @return The channel of the motor.
+     */
+    public int register(@NotNull String name, @NotNull Motor motor, @Nullable Encoder encoder) {
+        return add(name, motor, encoder);
+    }
+
+    /**
+     * Registers an encoder. All checks are off until configured.
+     * @param name The name to publish the channel's faults under.
+     * @param encoder The encoder.
+     * @return The channel of the encoder.
+     */
+    public int register(@NotNull String name, @NotNull Encoder encoder) {
+        return add(name, null, encoder);
+    }
+
+    /**
+     * Checks every channel once, raising, clearing and acting on faults.
+     * Call once per loop.
+     */
+    public void update() {
+        double now = clock.getAsDouble();
+
+        for (int c = 0; c < count; c++) {
+            Motor motor = motors[c];
+            Encoder encoder = encoders[c];
+
+            boolean stale = ages[c] != null && ages[c].getAsDouble() > maxAges[c];
+            boolean stall = false;
+            boolean jump = false;
+            boolean overCurrent = false;
+
+            if (encoder != null) {
+                double position = encoder.getUnitsRotations();
+                jump = Math.abs(position - lastPositions[c]) > maxJumps[c];
+                lastPositions[c] = position;
+
+                if (motor != null && stallOutputs[c] <= 1) {
+                    stall = Math.abs(commandedOutput(motor)) > stallOutputs[c]
+                            && Math.abs(encoder.getVelocityRotationsPerSecond()) < stallVelocities[c];
+                }
+            }
+
+            if (motor != null && currentLimits[c] < Double.POSITIVE_INFINITY) {
+                overCurrent = motor.getOutputCurrent() > currentLimits[c];
+            }
+
+            int before = faults[c];
+            debounce(c, Fault.STALE, stale, now);
+            debounce(c, Fault.STALL, stall, now);
+            debounce(c, Fault.POSITION_JUMP, jump, now);
+            debounce(c, Fault.OVER_CURRENT, overCurrent, now);
+
+            if (faults[c] != before) changed(c, before);
+            act(c);
+        }
+    }
+
+    /**
+     * Sets how long conditions must hold before their faults are raised and be gone before they are cleared.
+     * @param riseTime The time in seconds before a fault is raised.
+     * @param fallTime The time in seconds before a fault is cleared.
+     * @throws IllegalArgumentException If either time is negative.
+     */
+    public void setDebounce(double riseTime, double fallTime) {
+        if (!(riseTime >= 0) || !(fallTime >= 0)) throw new IllegalArgumentException("Debounce times must not be negative.");
+        this.riseTime = riseTime;
+        this.fallTime = fallTime;
+    }
+
+    /**
+     * Checks whether a channel's signal is stale.
+     * @param channel The channel.
+     * @param age Supplies the age of the device's last signal in seconds, for example a Phoenix status signal's
+     *            {@code getTimestamp().getLatency()}, or null to stop checking.
+     * @param maxAge The largest age in seconds before the signal is stale.
+     */
+    public void setStaleCheck(int channel, @Nullable DoubleSupplier age, double maxAge) {
+        ages[channel] = age;
+        maxAges[channel] = maxAge;
+    }
+
+    /**
+     * Sets when a channel's motor counts as stalled.
+     * @param channel The channel.
+     * @param output The output magnitude above which the motor must move, above 1 to stop checking.
+     * @param velocity The velocity magnitude in rotations per second below which the motor is not moving.
+     */
+    public void setStallCheck(int channel, double output, double velocity) {
+        stallOutputs[channel] = output;
+        stallVelocities[channel] = velocity;
+    }
+
+    /**
+     * Sets how far a channel's encoder may move between two loops.
+     * Note that resetting the encoder is also seen as a jump.
+     * @param channel The channel.
+     * @param maxJump The largest position change in rotations, infinity to stop checking.
+     */
+    public void setJumpCheck(int channel, double maxJump) {
+        maxJumps[channel] = maxJump;
+    }
+
+    /**
+     * Sets the current limit of a channel's motor.
+     * @param channel The channel.
+     * @param amps The current limit in amps, infinity to stop checking.
+     */
+    public void setCurrentCheck(int channel, double amps) {
+        currentLimits[channel] = amps;
+    }
+
+    /**
+     * Sets what to do to a channel's motor while the channel has a fault.
+     * @param channel The channel.
+     * @param action The action.
+     * @param derateScale The scale the motor's output is derated to by {@link Action#DERATE}.
+     * @throws IllegalArgumentException If the action is not {@link Action#NONE} and the channel has no motor
+     * buffered in an output stage, or the derate scale is not between 0 and 1.
+     */
+    public void setAction(int channel, @NotNull Action action, double derateScale) {
+        if (action != Action.NONE && (motors[channel] == null || motors[channel].getOutputStage() == null)) {
+            throw new IllegalArgumentException("Motor must be buffered in an output stage to be derated or stopped.");
+        }
+        if (!(derateScale >= 0 && derateScale <= 1)) throw new IllegalArgumentException("Derate scale must be between 0 and 1.");
+
+        actions[channel] = action;
+        derateScales[channel] = derateScale;
+    }
+
+    /**
+     * @param channel the channel
+     * @return the active faults of the channel as a bit mask of {@link Fault#bit()}s
+     */
+    public int getFaults(int channel) {
+        return faults[channel];
+    }
+
+    /**
+     * @param channel the channel
+     * @param fault the fault
+     * @return whether the channel has the fault
+     */
+    public boolean hasFault(int channel, @NotNull Fault fault) {
+        return (faults[channel] & fault.bit()) != 0;
+    }
+
+    /**
+     * @return whether any channel has a fault
+     */
+    public boolean hasAnyFault() {
+        for (int c = 0; c < count; c++) {
+            if (faults[c] != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Clears every fault of a channel, for example after resetting its encoder.
+     * @param channel the channel
+     */
+    public void clearFaults(int channel) {
+        int before = faults[channel];
+        faults[channel] = 0;
+        lastPositions[channel] = Double.NaN;
+        Arrays.fill(changingSince, channel * FAULTS, (channel + 1) * FAULTS, Double.NaN);
+        if (before != 0) changed(channel, before);
+        act(channel);
+    }
+
+    /**
+     * @return the number of registered channels
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Adds a channel with the default checks.
+     * @param name The name of the channel.
+     * @param motor The motor, or null.
+     * @param encoder The encoder, or null.
+     * @return The channel.
+     */
+    private int add(String name, Motor motor, Encoder encoder) {
+        int c = count;
+        if (c == names.length) grow(Math.max(8, c * 2));
+
+        names[c] = name;
+        motors[c] = motor;
+        encoders[c] = encoder;
+        ages[c] = null;
+        maxAges[c] = Double.POSITIVE_INFINITY;
+        stallOutputs[c] = motor != null ? 0.2 : Double.POSITIVE_INFINITY;
+        stallVelocities[c] = 0.05;
+        maxJumps[c] = Double.POSITIVE_INFINITY;
+        currentLimits[c] = Double.POSITIVE_INFINITY;
+        actions[c] = Action.NONE;
+        derateScales[c] = 0.5;
+        acting[c] = false;
+        lastPositions[c] = Double.NaN;
+        Arrays.fill(changingSince, c * FAULTS, (c + 1) * FAULTS, Double.NaN);
+        faults[c] = 0;
+
+        publishers[c] = table.getIntegerTopic(name + "/faults").publish();
+        publishers[c].set(0);
+        count++;
+        return c;
+    }
+
+    /**
+     * Raises or clears one fault of a channel once its condition has differed from it long enough.
+     * @param channel The channel.
+     * @param fault The fault.
+     * @param condition Whether the fault's condition holds this loop.
+     * @param now The current time in seconds.
+     */
+    private void debounce(int channel, Fault fault, boolean condition, double now) {
+        int index = channel * FAULTS + fault.ordinal();
+        boolean active = (faults[channel] & fault.bit()) != 0;
+
+        if (condition == active) {
+            changingSince[index] = Double.NaN;
+            return;
+        }
+
+        if (Double.isNaN(changingSince[index])) changingSince[index] = now;
+        double wait = condition ? (fault == Fault.POSITION_JUMP ? 0 : riseTime) : fallTime;
+
+        if (now - changingSince[index] >= wait) {
+            faults[channel] ^= fault.bit();
+            changingSince[index] = Double.NaN;
+        }
+    }
+
+    /**
+     * Publishes a channel's changed faults and warns about newly raised ones.
+     * @param channel The channel.
+     * @param before The faults before the change.
+     */
+    private void changed(int channel, int before) {
+        publishers[channel].set(faults[channel]);
+
+        int raised = faults[channel] & ~before;
+        if (raised == 0) return;
+        for (Fault fault : Fault.values()) {
+            if ((raised & fault.bit()) != 0) {
+                DriverStation.reportWarning(names[channel] + " has fault " + fault + ".", false);
+            }
+        }
+    }
+
+    /**
+     * Returns the output a motor is commanded to, before any scale or derate of its output stage.
+     * @param motor The motor.
+     * @return The commanded speed, with requested voltages taken as a fraction of the battery voltage,
+     * or the output written if the motor is driven outside its stage.
+     */
+    private static double commandedOutput(Motor motor) {
+        MotorOutputStage stage = motor.getOutputStage();
+        if (stage == null) return motor.get();
+
+        int slot = motor.getOutputSlot();
+        double requested = stage.getRequested(slot);
+        if (Double.isNaN(requested)) return motor.get();
+        return stage.isRequestedVoltage(slot) ? requested / BatteryVoltage.getDefault().get() : requested;
+    }
+
+    /**
+     * Applies a channel's action to its motor's output stage derate factor.
+     * @param channel The channel.
+     */
+    private void act(int channel) {
+        Action action = actions[channel];
+        if (action == Action.NONE && !acting[channel]) return;
+
+        Motor motor = motors[channel];
+        MotorOutputStage stage = motor.getOutputStage();
+        int slot = motor.getOutputSlot();
+
+        if (faults[channel] != 0 && action != Action.NONE) {
+            stage.setDerate(slot, action == Action.STOP ? 0 : derateScales[channel]);
+            acting[channel] = true;
+        } else if (acting[channel]) {
+            stage.setDerate(slot, 1);
+            acting[channel] = false;
+        }
+    }
+
+    /**
+     * Grows the channel arrays to the given capacity.
+     * @param capacity The new capacity.
+     */
+    private void grow(int capacity) {
+        names = Arrays.copyOf(names, capacity);
+        motors = Arrays.copyOf(motors, capacity);
+        encoders = Arrays.copyOf(encoders, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        maxAges = Arrays.copyOf(maxAges, capacity);
+        stallOutputs = Arrays.copyOf(stallOutputs, capacity);
+        stallVelocities = Arrays.copyOf(stallVelocities, capacity);
+        maxJumps = Arrays.copyOf(maxJumps, capacity);
+        currentLimits = Arrays.copyOf(currentLimits, capacity);
+        actions = Arrays.copyOf(actions, capacity);
+        derateScales = Arrays.copyOf(derateScales, capacity);
+        acting = Arrays.copyOf(acting, capacity);
+        lastPositions = Arrays.copyOf(lastPositions, capacity);
+        changingSince = Arrays.copyOf(changingSince, capacity * FAULTS);
+        faults = Arrays.copyOf(faults, capacity);
+        publishers = Arrays.copyOf(publishers, capacity);
+    }
+}
@@ -0,0 +1,80 @@
+package net.frc5183.librobot.hardware.encoder;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A {@link FilteredEncoder} which smooths velocity with an exponential moving average.
+ * The weight of each sample is derived from the time since the previous sample and the time constant,
+ * so the smoothing stays the same if the loop period varies.
+ */
+public class EmaFilteredEncoder extends FilteredEncoder {
+    /**
+     * The time constant of the filter in seconds.
+     */
+    private final double timeConstant;
+
+    /**
+     * Whether the filter has taken its first sample.
+     */
+    private boolean initialized;
+
+    /**
+     * The current average.
+     */
+    private double average;
+
+    /**
+     * Creates a new {@link EmaFilteredEncoder}.
+     * @param encoder The encoder to filter.
+     * @param timeConstant The time constant of the filter in seconds, larger values smooth more.
+     * @param source Where velocity samples are taken from.
+     * @throws IllegalArgumentException If the time constant is negative.
+     */
+    public EmaFilteredEncoder(@NotNull Encoder encoder, double timeConstant, @NotNull VelocitySource source) {
+        super(encoder, source);
+        if (timeConstant < 0) throw new IllegalArgumentException("Time constant cannot be negative.");
+        this.timeConstant = timeConstant;
+    }
+
+    /**
+     * Creates a new {@link EmaFilteredEncoder} with the given clock.
+     * @param encoder The encoder to filter.
+     * @param timeConstant The time constant of the filter in seconds, larger values smooth more.
+     * @param source Where velocity samples are taken from.
+     * @param clock Supplies the timestamp of each sample in seconds.
+     * @throws IllegalArgumentException If the time constant is negative.
+     */
+    public EmaFilteredEncoder(@NotNull Encoder encoder, double timeConstant, @NotNull VelocitySource source, @NotNull DoubleSupplier clock) {
+        super(encoder, source, clock);
+        if (timeConstant < 0) throw new IllegalArgumentException("Time constant cannot be negative.");
+        this.timeConstant = timeConstant;
+    }
+
+    @Override
+    protected double filter(double sample, double dt) {
+        if (!initialized || timeConstant == 0) {
+            initialized = true;
+            average = sample;
+            return average;
+        }
+
+        double alpha = 1 - Math.exp(-dt / timeConstant);
+        average += alpha * (sample - average);
+        return average;
+    }
+
+    @Override
+    protected void resetFilter() {
+        initialized = false;
+        average = 0;
+    }
+
+    /**
+     * @return the time constant of the filter in seconds
+     */
+    public double getTimeConstant() {
+        return timeConstant;
+    }
+}
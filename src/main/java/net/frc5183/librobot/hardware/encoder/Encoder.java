@@ -1,14 +1,18 @@
 package net.frc5183.librobot.hardware.encoder;
 
+import net.frc5183.librobot.hardware.ConfigQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
- * An abstract class that represents a one-axis gyroscope.
+ * An abstract class that represents a one-axis encoder.
  */
 // todo
 public abstract class Encoder {
     /**
-     * Returns the current position of the encoder in radians
-     * @return the current position of the encoder in radians
+     * Returns the current position of the encoder in rotations
+     * @return the current position of the encoder in rotations
      */
     public abstract double getUnitsRotations();
 
@@ -22,4 +26,16 @@ public abstract class Encoder {
      * Resets the encoder's value to zero.
      */
     public abstract void reset();
+
+    /**
+     * Resets the encoder's value to zero on the config queue's thread instead of the caller's.
+     * @param queue The config queue.
+     * @return a future which completes once the encoder has been reset
+     */
+    public @NotNull CompletableFuture<Void> resetAsync(@NotNull ConfigQueue queue) {
+        return queue.submit(this, "reset", () -> {
+            reset();
+            return true;
+        }, null);
+    }
 }
\ No newline at end of file
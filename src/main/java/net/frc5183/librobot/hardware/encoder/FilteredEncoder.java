@@ -0,0 +1,176 @@
+package net.frc5183.librobot.hardware.encoder;
+
+import edu.wpi.first.wpilibj.Timer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * An {@link Encoder} decorator which filters the velocity of another encoder.
+ * <p>
+ * {@link #update()} takes one velocity sample and runs it through the filter, and must be called once per loop
+ * (for example from the owning subsystem's periodic method). {@link #getVelocityRotationsPerSecond()} then returns
+ * the filtered value without reading the hardware, so it can be called any number of times per loop.
+ * Position reads and resets are passed through unchanged.
+ * <p>
+ * Filters keep their state in fixed-size primitive fields and arrays, so sampling never allocates.
+ * Non-finite readings, such as a NaN from a disconnected device, are dropped before they reach the filter,
+ * and the last filtered velocity is held until a finite sample arrives.
+ */
+public abstract class FilteredEncoder extends Encoder {
+    /**
+     * Where a {@link FilteredEncoder} takes its velocity samples from.
+     */
+    public enum VelocitySource {
+        /**
+         * The velocity reported by the encoder.
+         */
+        ENCODER,
+        /**
+         * The change in position since the last sample divided by the time between the samples.
+         * Avoids the averaging and delay of some controllers' velocity measurement, such as the Spark Max's.
+         */
+        POSITION_DELTA
+    }
+
+    /**
+     * The encoder being filtered.
+     */
+    @NotNull
+    private final Encoder encoder;
+
+    /**
+     * Where velocity samples are taken from.
+     */
+    @NotNull
+    private final VelocitySource source;
+
+    /**
+     * Supplies the timestamp of each sample in seconds.
+     */
+    @NotNull
+    private final DoubleSupplier clock;
+
+    /**
+     * The position at the last sample, in rotations.
+     */
+    private double lastPosition;
+
+    /**
+     * The timestamp of the last sample, or NaN if no sample has been taken.
+     */
+    private double lastTime = Double.NaN;
+
+    /**
+     * The last unfiltered velocity sample.
+     */
+    private double rawVelocity;
+
+    /**
+     * The filtered velocity.
+     */
+    private double velocity;
+
+    /**
+     * Creates a new {@link FilteredEncoder} which timestamps samples with the FPGA timestamp.
+     * @param encoder The encoder to filter.
+     * @param source Where velocity samples are taken from.
+     */
+    protected FilteredEncoder(@NotNull Encoder encoder, @NotNull VelocitySource source) {
+        this(encoder, source, Timer::getFPGATimestamp);
+    }
+
+    /**
+     * Creates a new {@link FilteredEncoder}.
+     * @param encoder The encoder to filter.
+     * @param source Where velocity samples are taken from.
+     * @param clock Supplies the timestamp of each sample in seconds.
+     */
+    protected FilteredEncoder(@NotNull Encoder encoder, @NotNull VelocitySource source, @NotNull DoubleSupplier clock) {
+        this.encoder = encoder;
+        this.source = source;
+        this.clock = clock;
+    }
+
+    /**
+     * Takes one velocity sample and runs it through the filter. Call once per loop.
+     */
+    public void update() {
+        double now = clock.getAsDouble();
+        double dt = Double.isNaN(lastTime) ? 0 : now - lastTime;
+
+        double sample;
+        if (source == VelocitySource.POSITION_DELTA) {
+            double position = encoder.getUnitsRotations();
+            if (!Double.isFinite(position)) return;
+            boolean first = Double.isNaN(lastTime);
+            double previous = lastPosition;
+            lastPosition = position;
+            lastTime = now;
+
+            // The first sample only sets the starting position, and a repeated timestamp has no new information.
+            if (first || dt <= 0) return;
+            sample = (position - previous) / dt;
+        } else {
+            lastTime = now;
+            sample = encoder.getVelocityRotationsPerSecond();
+        }
+        if (!Double.isFinite(sample)) return;
+
+        rawVelocity = sample;
+        velocity = filter(sample, dt);
+    }
+
+    @Override
+    public double getUnitsRotations() {
+        return encoder.getUnitsRotations();
+    }
+
+    /**
+     * Returns the filtered velocity as of the last {@link #update()}.
+     * @return the filtered velocity in rotations per second
+     */
+    @Override
+    public double getVelocityRotationsPerSecond() {
+        return velocity;
+    }
+
+    /**
+     * @return the last unfiltered velocity sample in rotations per second
+     */
+    public double getRawVelocityRotationsPerSecond() {
+        return rawVelocity;
+    }
+
+    /**
+     * Resets the encoder's value to zero and clears the filter.
+     */
+    @Override
+    public void reset() {
+        encoder.reset();
+        lastTime = Double.NaN;
+        rawVelocity = 0;
+        velocity = 0;
+        resetFilter();
+    }
+
+    /**
+     * @return the encoder being filtered
+     */
+    public @NotNull Encoder getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * Runs one sample through the filter.
+     * @param sample The unfiltered velocity in rotations per second.
+     * @param dt The time in seconds since the previous sample, 0 for the first sample.
+     * @return The filtered velocity in rotations per second.
+     */
+    protected abstract double filter(double sample, double dt);
+
+    /**
+     * Clears the filter's state.
+     */
+    protected abstract void resetFilter();
+}
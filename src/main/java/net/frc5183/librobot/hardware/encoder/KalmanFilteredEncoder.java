@@ -0,0 +1,111 @@
+package net.frc5183.librobot.hardware.encoder;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A {@link FilteredEncoder} which estimates velocity with a one-dimensional Kalman filter.
+ * The velocity is modelled as a random walk whose variance grows by the process noise every second,
+ * and each sample is a measurement with the given measurement noise. Unlike a fixed average,
+ * the filter trusts new samples more after the velocity has had time to change.
+ */
+public class KalmanFilteredEncoder extends FilteredEncoder {
+    /**
+     * The variance added to the estimate per second, in (rotations per second)^2 per second.
+     */
+    private final double processNoise;
+
+    /**
+     * The variance of each sample, in (rotations per second)^2.
+     */
+    private final double measurementNoise;
+
+    /**
+     * Whether the filter has taken its first sample.
+     */
+    private boolean initialized;
+
+    /**
+     * The current estimate.
+     */
+    private double estimate;
+
+    /**
+     * The variance of the current estimate.
+     */
+    private double variance;
+
+    /**
+     * Creates a new {@link KalmanFilteredEncoder}.
+     * @param encoder The encoder to filter.
+     * @param processNoise The variance added to the estimate per second, in (rotations per second)^2 per second.
+     * @param measurementNoise The variance of each sample, in (rotations per second)^2.
+     * @param source Where velocity samples are taken from.
+     * @throws IllegalArgumentException If the process noise is negative or the measurement noise is not positive.
+     */
+    public KalmanFilteredEncoder(@NotNull Encoder encoder, double processNoise, double measurementNoise, @NotNull VelocitySource source) {
+        super(encoder, source);
+        checkNoise(processNoise, measurementNoise);
+        this.processNoise = processNoise;
+        this.measurementNoise = measurementNoise;
+    }
+
+    /**
+     * Creates a new {@link KalmanFilteredEncoder} with the given clock.
+     * @param encoder The encoder to filter.
+     * @param processNoise The variance added to the estimate per second, in (rotations per second)^2 per second.
+     * @param measurementNoise The variance of each sample, in (rotations per second)^2.
+     * @param source Where velocity samples are taken from.
+     * @param clock Supplies the timestamp of each sample in seconds.
+     * @throws IllegalArgumentException If the process noise is negative or the measurement noise is not positive.
+     */
+    public KalmanFilteredEncoder(@NotNull Encoder encoder, double processNoise, double measurementNoise, @NotNull VelocitySource source, @NotNull DoubleSupplier clock) {
+        super(encoder, source, clock);
+        checkNoise(processNoise, measurementNoise);
+        this.processNoise = processNoise;
+        this.measurementNoise = measurementNoise;
+    }
+
+    @Override
+    protected double filter(double sample, double dt) {
+        if (!initialized) {
+            initialized = true;
+            estimate = sample;
+            variance = measurementNoise;
+            return estimate;
+        }
+
+        // Predict, then correct.
+        variance += processNoise * dt;
+        double gain = variance / (variance + measurementNoise);
+        estimate += gain * (sample - estimate);
+        variance *= 1 - gain;
+        return estimate;
+    }
+
+    @Override
+    protected void resetFilter() {
+        initialized = false;
+        estimate = 0;
+        variance = 0;
+    }
+
+    /**
+     * @return the variance of the current estimate in (rotations per second)^2
+     */
+    public double getVariance() {
+        return variance;
+    }
+
+    /**
+     * Checks the noise parameters.
+     * @param processNoise The process noise.
+     * @param measurementNoise The measurement noise.
+     * @throws IllegalArgumentException If the process noise is negative or the measurement noise is not positive.
+     */
+    private static void checkNoise(double processNoise, double measurementNoise) {
+        if (processNoise < 0) throw new IllegalArgumentException("Process noise cannot be negative.");
+        if (measurementNoise <= 0) throw new IllegalArgumentException("Measurement noise must be greater than 0.");
+    }
+}
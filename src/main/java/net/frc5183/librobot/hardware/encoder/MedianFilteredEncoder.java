@@ -0,0 +1,104 @@
+package net.frc5183.librobot.hardware.encoder;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A {@link FilteredEncoder} which takes the median of the last few velocity samples, rejecting spikes.
+ * The window is kept both in arrival order and in sorted order in two fixed arrays, so each sample costs
+ * one pass over the window and no allocation.
+ */
+public class MedianFilteredEncoder extends FilteredEncoder {
+    /**
+     * The samples in the window, in arrival order.
+     */
+    @NotNull
+    private final double[] samples;
+
+    /**
+     * The samples in the window, sorted.
+     */
+    @NotNull
+    private final double[] sorted;
+
+    /**
+     * The index in {@link #samples} the next sample is written to.
+     */
+    private int next;
+
+    /**
+     * The number of samples in the window.
+     */
+    private int count;
+
+    /**
+     * Creates a new {@link MedianFilteredEncoder}.
+     * @param encoder The encoder to filter.
+     * @param window The number of samples to take the median of.
+     * @param source Where velocity samples are taken from.
+     * @throws IllegalArgumentException If the window is less than 1.
+     */
+    public MedianFilteredEncoder(@NotNull Encoder encoder, int window, @NotNull VelocitySource source) {
+        super(encoder, source);
+        if (window < 1) throw new IllegalArgumentException("Window must be at least 1.");
+        this.samples = new double[window];
+        this.sorted = new double[window];
+    }
+
+    /**
+     * Creates a new {@link MedianFilteredEncoder} with the given clock.
+     * @param encoder The encoder to filter.
+     * @param window The number of samples to take the median of.
+     * @param source Where velocity samples are taken from.
+     * @param clock Supplies the timestamp of each sample in seconds.
+     * @throws IllegalArgumentException If the window is less than 1.
+     */
+    public MedianFilteredEncoder(@NotNull Encoder encoder, int window, @NotNull VelocitySource source, @NotNull DoubleSupplier clock) {
+        super(encoder, source, clock);
+        if (window < 1) throw new IllegalArgumentException("Window must be at least 1.");
+        this.samples = new double[window];
+        this.sorted = new double[window];
+    }
+
+    @Override
+    protected double filter(double sample, double dt) {
+        int size = count;
+        if (count == samples.length) {
+            // Remove the oldest sample from the sorted window.
+            double oldest = samples[next];
+            int index = 0;
+            while (index < size - 1 && sorted[index] != oldest) index++;
+            System.arraycopy(sorted, index + 1, sorted, index, size - index - 1);
+            size--;
+        } else {
+            count++;
+        }
+
+        samples[next] = sample;
+        next = (next + 1) % samples.length;
+
+        int index = size;
+        while (index > 0 && sorted[index - 1] > sample) {
+            sorted[index] = sorted[index - 1];
+            index--;
+        }
+        sorted[index] = sample;
+
+        int middle = count / 2;
+        return count % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    @Override
+    protected void resetFilter() {
+        next = 0;
+        count = 0;
+    }
+
+    /**
+     * @return the number of samples the median is taken of
+     */
+    public int getWindow() {
+        return samples.length;
+    }
+}
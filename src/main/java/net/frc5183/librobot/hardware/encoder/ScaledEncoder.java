@@ -0,0 +1,165 @@
+package net.frc5183.librobot.hardware.encoder;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An {@link Encoder} decorator which converts the rotations of another encoder into units of the mechanism it measures.
+ * <p>
+ * The gear ratio and wheel diameter are folded into one multiplier per unit when the encoder is created,
+ * so every conversion is a single multiplication of the underlying reading.
+ * {@link #getUnitsRotations()} and {@link #getVelocityRotationsPerSecond()} return rotations of the mechanism
+ * (after the gearing), not of the underlying encoder.
+ */
+public class ScaledEncoder extends Encoder {
+    /**
+     * The encoder being converted.
+     */
+    @NotNull
+    private final Encoder encoder;
+
+    /**
+     * The encoder rotations per mechanism rotation.
+     */
+    private final double gearRatio;
+
+    /**
+     * The diameter of the wheel in meters, or NaN if the mechanism has no wheel.
+     */
+    private final double wheelDiameter;
+
+    /**
+     * Mechanism rotations per encoder rotation.
+     */
+    private final double rotationsFactor;
+
+    /**
+     * Meters travelled per encoder rotation.
+     */
+    private final double metersFactor;
+
+    /**
+     * Mechanism radians per encoder rotation.
+     */
+    private final double radiansFactor;
+
+    /**
+     * Mechanism degrees per encoder rotation.
+     */
+    private final double degreesFactor;
+
+    /**
+     * Creates a new {@link ScaledEncoder} for a mechanism without a wheel, such as an arm.
+     * Distances in meters are NaN.
+     * @param encoder The encoder to convert.
+     * @param gearRatio The encoder rotations per mechanism rotation, for example 8.45 for an 8.45:1 reduction.
+     * @throws IllegalArgumentException If the gear ratio is not positive.
+     */
+    public ScaledEncoder(@NotNull Encoder encoder, double gearRatio) {
+        this(encoder, gearRatio, Double.NaN);
+    }
+
+    /**
+     * Creates a new {@link ScaledEncoder} for a wheel.
+     * @param encoder The encoder to convert.
+     * @param gearRatio The encoder rotations per wheel rotation, for example 8.45 for an 8.45:1 reduction.
+     * @param wheelDiameter The diameter of the wheel in meters, or NaN if the mechanism has no wheel.
+     * @throws IllegalArgumentException If the gear ratio or wheel diameter is not positive.
+     */
+    public ScaledEncoder(@NotNull Encoder encoder, double gearRatio, double wheelDiameter) {
+        if (!(gearRatio > 0)) throw new IllegalArgumentException("Gear ratio must be greater than 0.");
+        if (wheelDiameter <= 0) throw new IllegalArgumentException("Wheel diameter must be greater than 0.");
+
+        this.encoder = encoder;
+        this.gearRatio = gearRatio;
+        this.wheelDiameter = wheelDiameter;
+
+        rotationsFactor = 1 / gearRatio;
+        metersFactor = Math.PI * wheelDiameter / gearRatio;
+        radiansFactor = 2 * Math.PI / gearRatio;
+        degreesFactor = 360 / gearRatio;
+    }
+
+    /**
+     * @return the position of the mechanism in rotations
+     */
+    @Override
+    public double getUnitsRotations() {
+        return encoder.getUnitsRotations() * rotationsFactor;
+    }
+
+    /**
+     * @return the velocity of the mechanism in rotations per second
+     */
+    @Override
+    public double getVelocityRotationsPerSecond() {
+        return encoder.getVelocityRotationsPerSecond() * rotationsFactor;
+    }
+
+    /**
+     * @return the distance travelled by the wheel in meters, or NaN if the mechanism has no wheel
+     */
+    public double getPositionMeters() {
+        return encoder.getUnitsRotations() * metersFactor;
+    }
+
+    /**
+     * @return the position of the mechanism in radians
+     */
+    public double getPositionRadians() {
+        return encoder.getUnitsRotations() * radiansFactor;
+    }
+
+    /**
+     * @return the position of the mechanism in degrees
+     */
+    public double getPositionDegrees() {
+        return encoder.getUnitsRotations() * degreesFactor;
+    }
+
+    /**
+     * @return the speed of the wheel in meters per second, or NaN if the mechanism has no wheel
+     */
+    public double getVelocityMetersPerSecond() {
+        return encoder.getVelocityRotationsPerSecond() * metersFactor;
+    }
+
+    /**
+     * @return the velocity of the mechanism in radians per second
+     */
+    public double getVelocityRadiansPerSecond() {
+        return encoder.getVelocityRotationsPerSecond() * radiansFactor;
+    }
+
+    /**
+     * @return the velocity of the mechanism in degrees per second
+     */
+    public double getVelocityDegreesPerSecond() {
+        return encoder.getVelocityRotationsPerSecond() * degreesFactor;
+    }
+
+    @Override
+    public void reset() {
+        encoder.reset();
+    }
+
+    /**
+     * @return the encoder being converted
+     */
+    public @NotNull Encoder getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * @return the encoder rotations per mechanism rotation
+     */
+    public double getGearRatio() {
+        return gearRatio;
+    }
+
+    /**
+     * @return the diameter of the wheel in meters, or NaN if the mechanism has no wheel
+     */
+    public double getWheelDiameter() {
+        return wheelDiameter;
+    }
+}
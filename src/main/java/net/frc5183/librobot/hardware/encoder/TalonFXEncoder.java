@@ -45,7 +45,7 @@ public class TalonFXEncoder extends Encoder {
 
 
     public double getVelocityDegrees() {
-        return getVelocityRotationsPerMinute()*360;
+        return getVelocityRotationsPerSecond()*360;
     }
 
     @Override
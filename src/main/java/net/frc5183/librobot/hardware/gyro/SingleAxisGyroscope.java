@@ -1,6 +1,45 @@
 package net.frc5183.librobot.hardware.gyro;
 
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+
 public abstract class SingleAxisGyroscope {
+    /**
+     * The continuous angle at the last sample in degrees.
+     */
+    private double continuousAngle;
+
+    /**
+     * The wrapped angle at the last sample in degrees, or NaN before the first sample.
+     */
+    private double lastAngle = Double.NaN;
+
+    /**
+     * The rate at the last sample in degrees per second.
+     */
+    private double rate;
+
+    /**
+     * The timestamp of the last sample in seconds.
+     */
+    private double timestamp = Double.NaN;
+
+    /**
+     * Integrates the rate between samples, or null if integration is off.
+     */
+    private Notifier integrator;
+
+    /**
+     * The degrees integrated since the last sample.
+     */
+    private double integrated;
+
+    /**
+     * The timestamp of the last integration step in seconds.
+     */
+    private double integratedTime;
+
     /**
      * @return the angle in degrees
      */
@@ -36,6 +75,100 @@ public abstract class SingleAxisGyroscope {
      */
     public abstract Axis getAxis();
 
+    /**
+     * Reads the rate directly from the device, which is usually measured and updated faster than the angle.
+     * Override to support the device's rate, the default is NaN.
+     * @return the rate in degrees per second, or NaN if the device does not report it
+     */
+    protected double readRate() {
+        return Double.NaN;
+    }
+
+    /**
+     * Override to use the device's own timestamp, the default is the FPGA timestamp when it is read.
+     * @return the time the device measured its current angle in seconds, on the FPGA timebase
+     */
+    protected double readTimestamp() {
+        return Timer.getFPGATimestamp();
+    }
+
+    /**
+     * Reads the gyroscope once, updating the continuous angle, rate and timestamp.
+     * Call once per loop, often enough that the angle never changes by 180 degrees between samples.
+     */
+    public synchronized void update() {
+        double angle = getAngle();
+        double time = readTimestamp();
+
+        if (Double.isNaN(lastAngle)) {
+            continuousAngle = angle;
+        } else {
+            double delta = Math.IEEEremainder(angle - lastAngle, 360);
+            double deviceRate = readRate();
+            rate = Double.isNaN(deviceRate) ? (time > timestamp ? delta / (time - timestamp) : rate) : deviceRate;
+            continuousAngle += delta;
+        }
+
+        lastAngle = angle;
+        timestamp = time;
+        integrated = 0;
+        integratedTime = time;
+    }
+
+    /**
+     * Returns the angle without wrapping, so turning past 180 degrees keeps counting up instead of jumping to -180.
+     * When integration is on, this includes the rate integrated since the last sample.
+     * @return the continuous angle in degrees
+     */
+    public synchronized double getContinuousAngle() {
+        return continuousAngle + integrated;
+    }
+
+    /**
+     * @return the rate at the last sample in degrees per second, from the device if it reports it
+     */
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    /**
+     * @return the timestamp of the last sample in seconds, NaN before the first sample
+     */
+    public synchronized double getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Starts integrating the device's rate between samples, so the continuous angle keeps up with fast turns
+     * between main loop ticks. Each sample re-anchors the angle to the device's.
+     * @param period The time in seconds between integration steps, for example 0.005.
+     * @throws IllegalStateException If the device does not report its rate.
+     */
+    public synchronized void enableIntegration(double period) {
+        if (Double.isNaN(readRate())) throw new IllegalStateException(getClass().getSimpleName() + " does not report its rate.");
+        if (integrator == null) integrator = new Notifier(this::integrate);
+        integratedTime = Timer.getFPGATimestamp();
+        integrator.startPeriodic(period);
+    }
+
+    /**
+     * Stops integrating the rate between samples.
+     */
+    public synchronized void disableIntegration() {
+        if (integrator != null) integrator.stop();
+        integrated = 0;
+    }
+
+    /**
+     * Adds the rate since the last step to the integrated angle, called from the integrator's thread.
+     */
+    private synchronized void integrate() {
+        double now = Timer.getFPGATimestamp();
+        double deviceRate = readRate();
+        if (!Double.isNaN(deviceRate) && !Double.isNaN(timestamp)) integrated += deviceRate * (now - integratedTime);
+        integratedTime = now;
+    }
+
     /**
      * The axis of the gyroscope
      */
@@ -0,0 +1,70 @@
+package net.frc5183.librobot.hardware.motor;
+
+import edu.wpi.first.wpilibj.RobotController;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Caches the battery voltage once per loop, so every {@link Motor} compensating for battery sag on the RIO
+ * (see {@link Motor#enableVoltageCompensation(double)}) and every {@link PowerBudget} share one read instead of each
+ * reading it on every write.
+ * <p>
+ * Call {@link #update()} once per loop, before any motor outputs are written:
+ * <pre>
+ * public void robotPeriodic() {
+ *     BatteryVoltage.getDefault().update();
+ *     CommandScheduler.getInstance().run();
+ *     outputs.flush();
+ * }
+ * </pre>
+ * Until the first update, every call to {@link #get()} reads the battery directly.
+ */
+public class BatteryVoltage {
+    /**
+     * The instance used by motors unless given another.
+     */
+    private static final BatteryVoltage DEFAULT = new BatteryVoltage(RobotController::getBatteryVoltage);
+
+    /**
+     * Supplies the battery voltage.
+     */
+    @NotNull
+    private final DoubleSupplier supplier;
+
+    /**
+     * The battery voltage read by the last update, NaN before the first update.
+     */
+    private double voltage = Double.NaN;
+
+    /**
+     * Creates a new {@link BatteryVoltage}.
+     * @param supplier Supplies the battery voltage, for example a {@code BatterySim} in simulation.
+     */
+    public BatteryVoltage(@NotNull DoubleSupplier supplier) {
+        this.supplier = supplier;
+    }
+
+    /**
+     * @return the instance reading the robot's battery, used by motors unless given another
+     */
+    public static @NotNull BatteryVoltage getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Reads the battery voltage. Call once per loop, before any motor outputs are written.
+     * @return the battery voltage read
+     */
+    public double update() {
+        voltage = supplier.getAsDouble();
+        return voltage;
+    }
+
+    /**
+     * @return the battery voltage read by the last update, or read now before the first update
+     */
+    public double get() {
+        return Double.isNaN(voltage) ? supplier.getAsDouble() : voltage;
+    }
+}
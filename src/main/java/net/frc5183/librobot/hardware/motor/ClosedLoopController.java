@@ -0,0 +1,303 @@
+package net.frc5183.librobot.hardware.motor;
+
+import edu.wpi.first.wpilibj.Timer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Drives an {@link EncodedMotor} to a position or velocity.
+ * Positions are in rotations of the encoder and velocities in rotations per second.
+ * <p>
+ * Implementations run the loop on the motor controller when it can, and otherwise on the RIO.
+ * {@link #update()} must be called once per loop in either case; it runs the RIO loop and steps the motion profile,
+ * and does nothing for an onboard position or velocity loop. Setpoints and gains are only sent to the hardware when they change.
+ * If the motor is driven outside the controller, call {@link #invalidate()} so the next setpoint is sent even if it is unchanged.
+ */
+public abstract class ClosedLoopController {
+    /**
+     * The control mode of a {@link ClosedLoopController}.
+     */
+    public enum Mode {
+        /**
+         * The controller is not driving the motor.
+         */
+        DISABLED,
+        /**
+         * The controller holds a position.
+         */
+        POSITION,
+        /**
+         * The controller holds a velocity.
+         */
+        VELOCITY,
+        /**
+         * The controller moves to a position along a trapezoidal motion profile.
+         */
+        PROFILED_POSITION
+    }
+
+    /**
+     * The current gains.
+     */
+    @NotNull
+    private ClosedLoopGains gains = new ClosedLoopGains(0, 0, 0);
+
+    /**
+     * The current control mode.
+     */
+    @NotNull
+    private Mode mode = Mode.DISABLED;
+
+    /**
+     * The current setpoint, or the goal of the motion profile.
+     */
+    private double setpoint;
+
+    /**
+     * The maximum velocity of the motion profile in rotations per second.
+     */
+    private double maxVelocity = Double.NaN;
+
+    /**
+     * The maximum acceleration of the motion profile in rotations per second squared.
+     */
+    private double maxAcceleration = Double.NaN;
+
+    /**
+     * The position of the motion profile.
+     */
+    private double profilePosition;
+
+    /**
+     * The velocity of the motion profile.
+     */
+    private double profileVelocity;
+
+    /**
+     * The acceleration of the motion profile during the last step.
+     */
+    private double profileAcceleration;
+
+    /**
+     * The timestamp of the last profile step, or NaN if the profile has not been stepped.
+     */
+    private double lastProfileTime = Double.NaN;
+
+    /**
+     * Whether the motor has been driven outside the controller since the last setpoint was applied.
+     */
+    private boolean invalid;
+
+    /**
+     * Sets the gains of the controller.
+     * @param gains The new gains.
+     */
+    public void setGains(@NotNull ClosedLoopGains gains) {
+        if (gains.equals(this.gains)) return;
+        this.gains = gains;
+        applyGains(gains);
+    }
+
+    /**
+     * @return the gains of the controller
+     */
+    public @NotNull ClosedLoopGains getGains() {
+        return gains;
+    }
+
+    /**
+     * Sets the constraints of the motion profile used by {@link #setProfiledPosition(double)}.
+     * @param maxVelocity The maximum velocity in rotations per second.
+     * @param maxAcceleration The maximum acceleration in rotations per second squared.
+     * @throws IllegalArgumentException If either constraint is not positive.
+     */
+    public void setConstraints(double maxVelocity, double maxAcceleration) {
+        if (!(maxVelocity > 0) || !(maxAcceleration > 0)) throw new IllegalArgumentException("Constraints must be greater than 0.");
+        this.maxVelocity = maxVelocity;
+        this.maxAcceleration = maxAcceleration;
+    }
+
+    /**
+     * Holds the given position.
+     * @param rotations The position in rotations.
+     */
+    public void setPosition(double rotations) {
+        setSetpoint(Mode.POSITION, rotations);
+    }
+
+    /**
+     * Holds the given velocity.
+     * @param rotationsPerSecond The velocity in rotations per second.
+     */
+    public void setVelocity(double rotationsPerSecond) {
+        setSetpoint(Mode.VELOCITY, rotationsPerSecond);
+    }
+
+    /**
+     * Moves to the given position along a trapezoidal motion profile, starting from the current position and velocity.
+     * @param rotations The goal position in rotations.
+     * @throws IllegalStateException If the constraints have not been set.
+     */
+    public void setProfiledPosition(double rotations) {
+        if (Double.isNaN(maxVelocity)) throw new IllegalStateException("Constraints must be set before using a profiled position.");
+
+        if (mode != Mode.PROFILED_POSITION) {
+            profilePosition = getMeasuredPosition();
+            profileVelocity = getMeasuredVelocity();
+            profileAcceleration = 0;
+            lastProfileTime = Double.NaN;
+        }
+        setSetpoint(Mode.PROFILED_POSITION, rotations);
+    }
+
+    /**
+     * Stops driving the motor.
+     */
+    public void disable() {
+        mode = Mode.DISABLED;
+        stopOutput();
+    }
+
+    /**
+     * Forgets what was last sent to the hardware, so the next setpoint is sent even if it is unchanged.
+     * Call whenever the motor is driven outside the controller, for example by {@link Motor#set(double)} or {@link Motor#stopMotor()}.
+     */
+    public void invalidate() {
+        invalid = true;
+        invalidateOutput();
+    }
+
+    /**
+     * @return the current control mode
+     */
+    public @NotNull Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the current setpoint, or the goal of the motion profile
+     */
+    public double getSetpoint() {
+        return setpoint;
+    }
+
+    /**
+     * @return whether the motion profile has reached its goal
+     */
+    public boolean isProfileFinished() {
+        return profilePosition == setpoint && profileVelocity == 0;
+    }
+
+    /**
+     * Runs one iteration of the controller. Call once per loop.
+     */
+    public abstract void update();
+
+    /**
+     * @return whether the position and velocity loops run on the motor controller
+     */
+    public abstract boolean isOnboard();
+
+    /**
+     * Sends the gains to the hardware, if the loop runs on it.
+     * @param gains The new gains.
+     */
+    protected abstract void applyGains(@NotNull ClosedLoopGains gains);
+
+    /**
+     * Called when the setpoint or mode changes.
+     * @param mode The new mode.
+     * @param setpoint The new setpoint, or the goal of the motion profile.
+     */
+    protected abstract void applySetpoint(@NotNull Mode mode, double setpoint);
+
+    /**
+     * Stops the motor output.
+     */
+    protected abstract void stopOutput();
+
+    /**
+     * Called by {@link #invalidate()} to forget anything cached about what was last sent to the hardware.
+     * The default caches nothing.
+     */
+    protected void invalidateOutput() {
+        // Nothing is cached.
+    }
+
+    /**
+     * @return the measured position in rotations
+     */
+    protected abstract double getMeasuredPosition();
+
+    /**
+     * @return the measured velocity in rotations per second
+     */
+    protected abstract double getMeasuredVelocity();
+
+    /**
+     * Advances the motion profile towards its goal to the current time.
+     */
+    protected void stepProfile() {
+        double now = Timer.getFPGATimestamp();
+        double dt = Double.isNaN(lastProfileTime) ? 0.02 : now - lastProfileTime;
+        lastProfileTime = now;
+        if (dt <= 0) return;
+
+        double distance = setpoint - profilePosition;
+        double velocity = profileVelocity;
+        double stopping = velocity * velocity / (2 * maxAcceleration);
+
+        double next;
+        if (Math.signum(velocity) == Math.signum(distance) && Math.abs(distance) <= stopping) {
+            // Close enough that we must brake to stop on the goal.
+            next = velocity - Math.signum(velocity) * maxAcceleration * dt;
+            if (Math.signum(next) != Math.signum(velocity)) next = 0;
+        } else {
+            next = velocity + Math.signum(distance) * maxAcceleration * dt;
+        }
+        next = Math.max(-maxVelocity, Math.min(maxVelocity, next));
+
+        double position = profilePosition + (velocity + next) / 2 * dt;
+        if (Math.signum(setpoint - position) != Math.signum(distance) || distance == 0) {
+            position = setpoint;
+            next = 0;
+        }
+
+        profileAcceleration = (next - velocity) / dt;
+        profilePosition = position;
+        profileVelocity = next;
+    }
+
+    /**
+     * @return the position of the motion profile in rotations
+     */
+    protected double getProfilePosition() {
+        return profilePosition;
+    }
+
+    /**
+     * @return the velocity of the motion profile in rotations per second
+     */
+    protected double getProfileVelocity() {
+        return profileVelocity;
+    }
+
+    /**
+     * @return the acceleration of the motion profile during the last step in rotations per second squared
+     */
+    protected double getProfileAcceleration() {
+        return profileAcceleration;
+    }
+
+    /**
+     * Changes the mode and setpoint, notifying the implementation only if either changed or the controller was invalidated.
+     * @param mode The new mode.
+     * @param setpoint The new setpoint.
+     */
+    private void setSetpoint(Mode mode, double setpoint) {
+        if (!invalid && mode == this.mode && setpoint == this.setpoint) return;
+        invalid = false;
+        this.mode = mode;
+        this.setpoint = setpoint;
+        applySetpoint(mode, setpoint);
+    }
+}
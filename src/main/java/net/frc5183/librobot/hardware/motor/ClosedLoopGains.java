@@ -0,0 +1,154 @@
+package net.frc5183.librobot.hardware.motor;
+
+/**
+ * The gains of a {@link ClosedLoopController}.
+ * Positions are in rotations, velocities in rotations per second and outputs in volts,
+ * so for example kP is volts per rotation of error in position mode and volts per rotation per second in velocity mode.
+ */
+public final class ClosedLoopGains {
+    /**
+     * The proportional gain.
+     */
+    private final double kP;
+
+    /**
+     * The integral gain, per second.
+     */
+    private final double kI;
+
+    /**
+     * The derivative gain, in seconds.
+     */
+    private final double kD;
+
+    /**
+     * The static friction feedforward in volts.
+     */
+    private final double kS;
+
+    /**
+     * The velocity feedforward in volts per rotation per second.
+     */
+    private final double kV;
+
+    /**
+     * The acceleration feedforward in volts per rotation per second squared.
+     */
+    private final double kA;
+
+    /**
+     * The gravity feedforward in volts.
+     */
+    private final double kG;
+
+    /**
+     * Creates new {@link ClosedLoopGains} with only feedback gains.
+     * @param kP The proportional gain.
+     * @param kI The integral gain, per second.
+     * @param kD The derivative gain, in seconds.
+     */
+    public ClosedLoopGains(double kP, double kI, double kD) {
+        this(kP, kI, kD, 0, 0, 0, 0);
+    }
+
+    /**
+     * Creates new {@link ClosedLoopGains} with feedback and feedforward gains.
+     * @param kP The proportional gain.
+     * @param kI The integral gain, per second.
+     * @param kD The derivative gain, in seconds.
+     * @param kS The static friction feedforward in volts.
+     * @param kV The velocity feedforward in volts per rotation per second.
+     * @param kA The acceleration feedforward in volts per rotation per second squared.
+     * @param kG The gravity feedforward in volts.
+     */
+    public ClosedLoopGains(double kP, double kI, double kD, double kS, double kV, double kA, double kG) {
+        this.kP = kP;
+        this.kI = kI;
+        this.kD = kD;
+        this.kS = kS;
+        this.kV = kV;
+        this.kA = kA;
+        this.kG = kG;
+    }
+
+    /**
+     * Returns the feedforward voltage for the given velocity and acceleration.
+     * @param velocity The velocity in rotations per second.
+     * @param acceleration The acceleration in rotations per second squared.
+     * @return The feedforward voltage.
+     */
+    public double feedforward(double velocity, double acceleration) {
+        return kS * Math.signum(velocity) + kV * velocity + kA * acceleration + kG;
+    }
+
+    /**
+     * @return the proportional gain
+     */
+    public double getP() {
+        return kP;
+    }
+
+    /**
+     * @return the integral gain, per second
+     */
+    public double getI() {
+        return kI;
+    }
+
+    /**
+     * @return the derivative gain, in seconds
+     */
+    public double getD() {
+        return kD;
+    }
+
+    /**
+     * @return the static friction feedforward in volts
+     */
+    public double getS() {
+        return kS;
+    }
+
+    /**
+     * @return the velocity feedforward in volts per rotation per second
+     */
+    public double getV() {
+        return kV;
+    }
+
+    /**
+     * @return the acceleration feedforward in volts per rotation per second squared
+     */
+    public double getA() {
+        return kA;
+    }
+
+    /**
+     * @return the gravity feedforward in volts
+     */
+    public double getG() {
+        return kG;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ClosedLoopGains)) return false;
+
+        ClosedLoopGains gains = (ClosedLoopGains) o;
+        return kP == gains.kP && kI == gains.kI && kD == gains.kD
+                && kS == gains.kS && kV == gains.kV && kA == gains.kA && kG == gains.kG;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Double.hashCode(kP);
+        hash = 31 * hash + Double.hashCode(kI);
+        hash = 31 * hash + Double.hashCode(kD);
+        hash = 31 * hash + Double.hashCode(kS);
+        hash = 31 * hash + Double.hashCode(kV);
+        hash = 31 * hash + Double.hashCode(kA);
+        hash = 31 * hash + Double.hashCode(kG);
+        return hash;
+    }
+}
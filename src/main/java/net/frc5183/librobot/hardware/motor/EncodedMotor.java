@@ -4,4 +4,12 @@ import net.frc5183.librobot.hardware.encoder.Encoder;
 
 public interface EncodedMotor {
     Encoder getEncoder();
+
+    /**
+     * Returns the closed-loop controller driving this motor to a position or velocity, the same controller each call.
+     * Subclasses of {@link Motor} inherit {@link Motor#getClosedLoopController()}, which runs the loop on the RIO.
+     * @return the closed-loop controller driving this motor to a position or velocity,
+     * onboard the motor controller where supported
+     */
+    ClosedLoopController getClosedLoopController();
 }
@@ -1,11 +1,49 @@
 package net.frc5183.librobot.hardware.motor;
 
 import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+import net.frc5183.librobot.hardware.ConfigQueue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * An abstract classes used for building compatible wrapper classes around hardware motors
  */
 public abstract class Motor implements MotorController {
+    /**
+     * The output stage buffering this motor's outputs, or null if outputs are written immediately.
+     */
+    @Nullable
+    private MotorOutputStage outputStage;
+
+    /**
+     * The slot of this motor in its output stage.
+     */
+    private int outputSlot;
+
+    /**
+     * The closed-loop controller created by {@link #getClosedLoopController()}, or null if none has been created.
+     */
+    @Nullable
+    private ClosedLoopController closedLoopController;
+
+    /**
+     * The nominal voltage outputs are compensated to, or NaN if compensation is off.
+     */
+    private double compensationVoltage = Double.NaN;
+
+    /**
+     * Whether compensation is done by scaling on the RIO rather than by the device.
+     */
+    private boolean compensatedOnRio;
+
+    /**
+     * The battery voltage used to compensate on the RIO.
+     */
+    @NotNull
+    private BatteryVoltage batteryVoltage = BatteryVoltage.getDefault();
+
     /**
      * @param speed The speed to set. Value should be between -1.0 and 1.0.
      */
@@ -37,9 +75,208 @@ public abstract class Motor implements MotorController {
      */
     public abstract boolean getInverted();
 
+    /**
+     * Sets the inversion state on the config queue's thread instead of the caller's, verifying it with {@link #getInverted()}.
+     * @param queue The config queue.
+     * @param inverted The state of inversion true is inverted.
+     * @return a future which completes once the inversion state has been applied
+     */
+    public @NotNull CompletableFuture<Void> setInvertedAsync(@NotNull ConfigQueue queue, boolean inverted) {
+        return queue.submit(this, "inverted", () -> {
+            setInverted(inverted);
+            return true;
+        }, () -> getInverted() == inverted);
+    }
+
+    /**
+     * Returns a {@link RioClosedLoopController} driving this motor with its own encoder, created on the first call and
+     * returned on every later call. This implements {@link EncodedMotor#getClosedLoopController()} for motors which
+     * have no onboard controller, motors which do override it.
+     * @return the closed-loop controller driving this motor to a position or velocity
+     * @throws UnsupportedOperationException if this motor is not an {@link EncodedMotor}
+     */
+    public ClosedLoopController getClosedLoopController() {
+        if (closedLoopController == null) {
+            if (!(this instanceof EncodedMotor encoded)) {
+                throw new UnsupportedOperationException(getClass().getSimpleName() + " has no encoder to close the loop with.");
+            }
+            closedLoopController = new RioClosedLoopController(this, encoded.getEncoder());
+        }
+        return closedLoopController;
+    }
+
+    /**
+     * Makes {@link #set(double)} a fraction of the nominal voltage rather than of the battery voltage, so the same
+     * speed gives the same output as the battery sags. Uses the device's own voltage compensation where it has one,
+     * and otherwise scales each speed on the RIO by the battery voltage cached in {@link BatteryVoltage}.
+     * @param nominalVoltage The voltage a speed of 1.0 is compensated to, for example 12.
+     * @throws IllegalArgumentException If the nominal voltage is not positive.
+     */
+    public final void enableVoltageCompensation(double nominalVoltage) {
+        if (!(nominalVoltage > 0)) throw new IllegalArgumentException("Nominal voltage must be greater than 0.");
+        compensatedOnRio = !enableDeviceCompensation(nominalVoltage);
+        compensationVoltage = nominalVoltage;
+    }
+
+    /**
+     * Makes {@link #set(double)} a fraction of the battery voltage again.
+     */
+    public final void disableVoltageCompensation() {
+        if (!Double.isNaN(compensationVoltage) && !compensatedOnRio) disableDeviceCompensation();
+        compensationVoltage = Double.NaN;
+        compensatedOnRio = false;
+    }
+
+    /**
+     * @return the nominal voltage outputs are compensated to, or NaN if compensation is off
+     */
+    public final double getVoltageCompensation() {
+        return compensationVoltage;
+    }
+
+    /**
+     * @return whether outputs are compensated by scaling on the RIO rather than by the device
+     */
+    public final boolean isCompensatedOnRio() {
+        return compensatedOnRio;
+    }
+
+    /**
+     * Sets where the battery voltage used to compensate on the RIO is read from. Defaults to {@link BatteryVoltage#getDefault()}.
+     * @param batteryVoltage The battery voltage.
+     */
+    public void setBatteryVoltage(@NotNull BatteryVoltage batteryVoltage) {
+        this.batteryVoltage = batteryVoltage;
+    }
+
+    /**
+     * Turns on the device's own voltage compensation. Override if the device has one, the default has none.
+     * @param nominalVoltage The voltage a speed of 1.0 is compensated to.
+     * @return whether the device compensates, if false speeds are scaled on the RIO
+     */
+    protected boolean enableDeviceCompensation(double nominalVoltage) {
+        return false;
+    }
+
+    /**
+     * Turns off the device's own voltage compensation. Override along with {@link #enableDeviceCompensation(double)}.
+     */
+    protected void disableDeviceCompensation() {
+        // There is no device compensation to turn off.
+    }
+
+    /**
+     * Scales a speed for the cached battery voltage if this motor compensates on the RIO.
+     * Implementations must pass every speed through this before writing it to the hardware.
+     * @param speed The speed to compensate. Value should be between -1.0 and 1.0.
+     * @return the speed to write, between -1.0 and 1.0
+     */
+    protected final double compensate(double speed) {
+        if (!compensatedOnRio) return speed;
+        double voltage = batteryVoltage.get();
+        if (!(voltage > 0)) return speed;
+        return Math.max(-1, Math.min(1, speed * compensationVoltage / voltage));
+    }
+
     /**
      * Used to retrieve the original hardware motor class when necessary
      * @return the true hardware motor
      */
     public abstract MotorController getRawMotor();
+
+    /**
+     * @return the current drawn by the motor in amps, or NaN if this motor cannot measure it
+     */
+    public double getOutputCurrent() {
+        return Double.NaN;
+    }
+
+    /**
+     * @return the output stage buffering this motor's outputs, or null if outputs are written immediately
+     */
+    public @Nullable MotorOutputStage getOutputStage() {
+        return outputStage;
+    }
+
+    /**
+     * Implementations which return true must override {@link #writeSpeed(double)} and {@link #writeVoltage(double)}
+     * and route {@link #set(double)} and {@link #setVoltage(double)} through {@link #bufferSpeed(double)} and
+     * {@link #bufferVoltage(double)}.
+     * @return whether this motor can be registered with a {@link MotorOutputStage}
+     */
+    protected boolean supportsOutputStage() {
+        return false;
+    }
+
+    /**
+     * Records a speed in the output stage, if this motor has one.
+     * @param speed The speed to record.
+     * @return whether the speed was buffered, if false it should be written immediately
+     */
+    protected final boolean bufferSpeed(double speed) {
+        if (outputStage == null) return false;
+        outputStage.request(outputSlot, speed, false);
+        return true;
+    }
+
+    /**
+     * Records a voltage in the output stage, if this motor has one.
+     * @param outputVolts The voltage to record.
+     * @return whether the voltage was buffered, if false it should be written immediately
+     */
+    protected final boolean bufferVoltage(double outputVolts) {
+        if (outputStage == null) return false;
+        outputStage.request(outputSlot, outputVolts, true);
+        return true;
+    }
+
+    /**
+     * Tells the output stage, if this motor has one, that the motor was stopped outside of it.
+     */
+    protected final void bufferStop() {
+        if (outputStage != null) outputStage.stopped(outputSlot);
+    }
+
+    /**
+     * Tells the output stage, if this motor has one, that the motor was driven outside of it,
+     * so its next request is written even if unchanged.
+     */
+    protected final void bufferInvalidate() {
+        if (outputStage != null) outputStage.invalidate(outputSlot);
+    }
+
+    /**
+     * Writes a speed to the hardware immediately. Called by the output stage when it flushes.
+     * @param speed The speed to write. Value should be between -1.0 and 1.0.
+     * @throws UnsupportedOperationException if this motor does not support output stages
+     */
+    protected void writeSpeed(double speed) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support output stages.");
+    }
+
+    /**
+     * Writes a voltage to the hardware immediately. Called by the output stage when it flushes.
+     * @param outputVolts The voltage to write.
+     * @throws UnsupportedOperationException if this motor does not support output stages
+     */
+    protected void writeVoltage(double outputVolts) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support output stages.");
+    }
+
+    /**
+     * @return the slot of this motor in its output stage, only meaningful if {@link #getOutputStage()} is not null
+     */
+    public final int getOutputSlot() {
+        return outputSlot;
+    }
+
+    /**
+     * Attaches this motor to an output stage.
+     * @param stage The output stage.
+     * @param slot The slot of this motor in the output stage.
+     */
+    final void attachOutputStage(@NotNull MotorOutputStage stage, int slot) {
+        this.outputStage = stage;
+        this.outputSlot = slot;
+    }
 }
@@ -5,6 +5,8 @@ import edu.wpi.first.wpilibj.motorcontrol.MotorController;
 /**
  * A class used to virtually combine two motors.
  * Useful for motors which share a gearbox such as on a tank or WCD drivetrain
+ * When registered with a {@link MotorOutputStage} the group is buffered as one output,
+ * so its members should not be registered themselves.
  */
 public class MotorGroup extends Motor {
     public final Motor motor1;
@@ -17,14 +19,12 @@ public class MotorGroup extends Motor {
 
     @Override
     public void set(double speed) {
-        motor1.set(speed);
-        motor2.set(speed);
+        if (!bufferSpeed(speed)) writeSpeed(speed);
     }
 
     @Override
     public void setVoltage(double outputVolts) {
-        motor1.setVoltage(outputVolts);
-        motor2.setVoltage(outputVolts);
+        if (!bufferVoltage(outputVolts)) writeVoltage(outputVolts);
     }
 
     @Override
@@ -38,6 +38,14 @@ public class MotorGroup extends Motor {
         return motor1.get();
     }
 
+    /**
+     * @return the combined current drawn by both motors in amps, or NaN if either cannot measure it
+     */
+    @Override
+    public double getOutputCurrent() {
+        return motor1.getOutputCurrent() + motor2.getOutputCurrent();
+    }
+
     @Override
     public void setSafety(boolean on) {
         motor1.setSafety(on);
@@ -59,12 +67,14 @@ public class MotorGroup extends Motor {
     public void disable() {
         motor1.disable();
         motor2.disable();
+        bufferStop();
     }
 
     @Override
     public void stopMotor() {
         motor1.stopMotor();
         motor2.stopMotor();
+        bufferStop();
     }
 
     /**
@@ -75,4 +85,39 @@ public class MotorGroup extends Motor {
     public MotorController getRawMotor() {
         throw new RuntimeException("Cannot Retrieve Single MotorController from MotorGroup. Use MotorGroup.motor1 and MotorGroup.motor2 instead.");
     }
+
+    /**
+     * Compensates each member, on its device where it can, instead of the group.
+     * @param nominalVoltage The voltage a speed of 1.0 is compensated to.
+     * @return true, as the members compensate
+     */
+    @Override
+    protected boolean enableDeviceCompensation(double nominalVoltage) {
+        motor1.enableVoltageCompensation(nominalVoltage);
+        motor2.enableVoltageCompensation(nominalVoltage);
+        return true;
+    }
+
+    @Override
+    protected void disableDeviceCompensation() {
+        motor1.disableVoltageCompensation();
+        motor2.disableVoltageCompensation();
+    }
+
+    @Override
+    protected boolean supportsOutputStage() {
+        return motor1.getOutputStage() == null && motor2.getOutputStage() == null;
+    }
+
+    @Override
+    protected void writeSpeed(double speed) {
+        motor1.set(speed);
+        motor2.set(speed);
+    }
+
+    @Override
+    protected void writeVoltage(double outputVolts) {
+        motor1.setVoltage(outputVolts);
+        motor2.setVoltage(outputVolts);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,234 @@
+package net.frc5183.librobot.hardware.motor;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A double-buffered output stage for {@link Motor}s.
+ * <p>
+ * Motors registered with a stage only record their requested speed or voltage when {@link Motor#set(double)} or
+ * {@link Motor#setVoltage(double)} is called. {@link #flush()} then writes every output that changed since the last
+ * flush in one pass, so a motor written several times in one cycle only sends its final value, and every motor is
+ * written at the same point in the loop. Call {@link #flush()} once per loop, after the command scheduler has run:
+ * <pre>
+ * public void robotPeriodic() {
+ *     CommandScheduler.getInstance().run();
+ *     outputs.flush();
+ * }
+ * </pre>
+ * Each output can also be scaled (see {@link #setScale(int, double)}), for example by a {@link PowerBudget}, and
+ * derated (see {@link #setDerate(int, double)}), for example by a {@link net.frc5183.librobot.hardware.FaultDetector}.
+ * The two factors are owned separately and multiplied when the output is written.
+ * Until a flush, {@link Motor#get()} still reports the last value written to the hardware.
+ * {@link Motor#stopMotor()} and {@link Motor#disable()} still take effect immediately.
+ * Whenever a motor is driven outside the stage, for example by its own closed-loop controller or after a device reset,
+ * its slot must be invalidated (see {@link #invalidate(int)}) so the next request is written even if unchanged.
+ */
+public class MotorOutputStage {
+    /**
+     * The registered motors.
+     */
+    @NotNull
+    private Motor[] motors = new Motor[0];
+
+    /**
+     * The last requested output of each motor, NaN if nothing has been requested.
+     */
+    @NotNull
+    private double[] requested = new double[0];
+
+    /**
+     * Whether the last requested output of each motor is a voltage rather than a speed.
+     */
+    @NotNull
+    private boolean[] requestedVoltage = new boolean[0];
+
+    /**
+     * The scale applied to each requested output when it is written.
+     */
+    @NotNull
+    private double[] scale = new double[0];
+
+    /**
+     * The derate factor applied to each requested output when it is written, on top of its scale.
+     */
+    @NotNull
+    private double[] derate = new double[0];
+
+    /**
+     * The last output written to each motor, as compensated for the battery for speeds compensated on the RIO,
+     * NaN if nothing has been written.
+     */
+    @NotNull
+    private double[] written = new double[0];
+
+    /**
+     * Whether the last output written to each motor is a voltage rather than a speed.
+     */
+    @NotNull
+    private boolean[] writtenVoltage = new boolean[0];
+
+    /**
+     * The number of registered motors.
+     */
+    private int count;
+
+    /**
+     * Registers a motor with this stage. From now on its outputs are only written by {@link #flush()}.
+     * @param motor The motor to register.
+     * @return The slot of the motor in this stage.
+     * @throws IllegalArgumentException If the motor is already registered with a stage or does not support output stages.
+     */
+    public int register(@NotNull Motor motor) {
+        if (motor.getOutputStage() != null) throw new IllegalArgumentException("Motor is already registered with an output stage.");
+        if (!motor.supportsOutputStage()) throw new IllegalArgumentException(motor.getClass().getSimpleName() + " does not support output stages.");
+
+        int slot = count;
+        if (slot == motors.length) grow(Math.max(8, slot * 2));
+
+        motors[slot] = motor;
+        requested[slot] = Double.NaN;
+        scale[slot] = 1;
+        derate[slot] = 1;
+        written[slot] = Double.NaN;
+        motor.attachOutputStage(this, slot);
+        count++;
+        return slot;
+    }
+
+    /**
+     * Writes every output which changed since the last flush to its motor. A speed compensated on the RIO
+     * (see {@link Motor#isCompensatedOnRio()}) counts as changed when the battery voltage has, so a held request is
+     * rewritten as the battery sags.
+     * @return The number of outputs written.
+     */
+    public int flush() {
+        int writes = 0;
+
+        for (int i = 0; i < count; i++) {
+            double value = requested[i] * scale[i] * derate[i];
+            boolean voltage = requestedVoltage[i];
+            double output = voltage ? value : motors[i].compensate(value);
+            if (Double.isNaN(output) || (output == written[i] && voltage == writtenVoltage[i])) continue;
+
+            if (voltage) motors[i].writeVoltage(value);
+            else motors[i].writeSpeed(value);
+
+            written[i] = output;
+            writtenVoltage[i] = voltage;
+            writes++;
+        }
+
+        return writes;
+    }
+
+    /**
+     * Forgets the outputs last requested of and written to the motor in the given slot. Flushes leave the motor alone
+     * until it is requested again, and then write the request even if it equals the last output written.
+     * Call when the motor has been driven outside this stage.
+     * @param slot The slot of the motor.
+     */
+    public void invalidate(int slot) {
+        requested[slot] = Double.NaN;
+        written[slot] = Double.NaN;
+    }
+
+    /**
+     * Returns the last requested output of the motor in the given slot.
+     * @param slot The slot of the motor.
+     * @return The last requested speed or voltage, NaN if nothing has been requested.
+     */
+    public double getRequested(int slot) {
+        return requested[slot];
+    }
+
+    /**
+     * Returns whether the last requested output of the motor in the given slot is a voltage rather than a speed.
+     * @param slot The slot of the motor.
+     * @return Whether the last requested output is a voltage.
+     */
+    public boolean isRequestedVoltage(int slot) {
+        return requestedVoltage[slot];
+    }
+
+    /**
+     * Sets the scale applied to the output of the motor in the given slot when it is written.
+     * @param slot The slot of the motor.
+     * @param scale The scale, 1 to write outputs unchanged.
+     */
+    public void setScale(int slot, double scale) {
+        this.scale[slot] = scale;
+    }
+
+    /**
+     * Returns the scale applied to the output of the motor in the given slot when it is written.
+     * @param slot The slot of the motor.
+     * @return The scale.
+     */
+    public double getScale(int slot) {
+        return scale[slot];
+    }
+
+    /**
+     * Sets the derate factor applied to the output of the motor in the given slot when it is written,
+     * multiplied with its scale.
+     * @param slot The slot of the motor.
+     * @param derate The derate factor, 1 to write outputs unchanged.
+     */
+    public void setDerate(int slot, double derate) {
+        this.derate[slot] = derate;
+    }
+
+    /**
+     * Returns the derate factor applied to the output of the motor in the given slot when it is written.
+     * @param slot The slot of the motor.
+     * @return The derate factor.
+     */
+    public double getDerate(int slot) {
+        return derate[slot];
+    }
+
+    /**
+     * Returns the number of registered motors.
+     * @return The number of registered motors.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Records a requested output.
+     * @param slot The slot of the motor.
+     * @param value The requested speed or voltage.
+     * @param voltage Whether the value is a voltage.
+     */
+    void request(int slot, double value, boolean voltage) {
+        requested[slot] = value;
+        requestedVoltage[slot] = voltage;
+    }
+
+    /**
+     * Records that a motor was stopped outside of this stage.
+     * @param slot The slot of the motor.
+     */
+    void stopped(int slot) {
+        invalidate(slot);
+        requested[slot] = 0;
+        requestedVoltage[slot] = false;
+    }
+
+    /**
+     * Grows the slot arrays to the given capacity.
+     * @param capacity The new capacity.
+     */
+    private void grow(int capacity) {
+        motors = Arrays.copyOf(motors, capacity);
+        requested = Arrays.copyOf(requested, capacity);
+        requestedVoltage = Arrays.copyOf(requestedVoltage, capacity);
+        scale = Arrays.copyOf(scale, capacity);
+        derate = Arrays.copyOf(derate, capacity);
+        written = Arrays.copyOf(written, capacity);
+        writtenVoltage = Arrays.copyOf(writtenVoltage, capacity);
+    }
+}
@@ -0,0 +1,284 @@
+package net.frc5183.librobot.hardware.motor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Keeps the total current drawn by a set of {@link Motor}s under a budget by scaling their outputs by priority.
+ * <p>
+ * Every motor is registered with a priority, higher numbers being more important, and is buffered in a
+ * {@link MotorOutputStage}. Once per loop, before the stage is flushed, {@link #update()} reads the battery voltage
+ * and every motor's current once, estimates how much current each motor would draw unscaled, and hands the budget out
+ * from the highest priority down: a priority level which fits is left unscaled, the level where the budget runs out
+ * is scaled to fit, and every level below it is scaled to zero. As the battery sags below the derate voltage, the
+ * budget shrinks linearly until it reaches zero at the brownout voltage.
+ * <p>
+ * The battery voltage and motor currents can be supplied directly, for example from a
+ * {@code BatterySim} and motor simulations, to run the budget headless.
+ */
+public class PowerBudget {
+    /**
+     * The smallest scale a motor's current is divided by when estimating its unscaled demand.
+     */
+    private static final double MIN_ESTIMATE_SCALE = 0.05;
+
+    /**
+     * The output stage the motors are buffered in.
+     */
+    @NotNull
+    private final MotorOutputStage stage;
+
+    /**
+     * The total current in amps the motors may draw with a healthy battery.
+     */
+    private double budget;
+
+    /**
+     * The battery voltage below which the budget starts to shrink.
+     */
+    private double derateVoltage = 9.0;
+
+    /**
+     * The battery voltage at which the budget reaches zero.
+     */
+    private double brownoutVoltage = 6.8;
+
+    /**
+     * Supplies the battery voltage, by default the once per loop read shared with voltage compensation.
+     */
+    @NotNull
+    private DoubleSupplier batteryVoltage = BatteryVoltage.getDefault()::get;
+
+    /**
+     * The registered motors, sorted by priority from highest to lowest.
+     */
+    @NotNull
+    private Motor[] motors = new Motor[0];
+
+    /**
+     * The priority of each motor.
+     */
+    @NotNull
+    private int[] priorities = new int[0];
+
+    /**
+     * Supplies the current of each motor, or null to use {@link Motor#getOutputCurrent()}.
+     */
+    @NotNull
+    private DoubleSupplier[] currents = new DoubleSupplier[0];
+
+    /**
+     * The estimated unscaled current demand of each motor.
+     */
+    @NotNull
+    private double[] demands = new double[0];
+
+    /**
+     * The number of registered motors.
+     */
+    private int count;
+
+    /**
+     * The battery voltage read by the last update.
+     */
+    private double lastVoltage = Double.NaN;
+
+    /**
+     * The total current read by the last update.
+     */
+    private double lastCurrent;
+
+    /**
+     * The current budget allowed by the last update.
+     */
+    private double lastAllowed = Double.NaN;
+
+    /**
+     * Creates a new {@link PowerBudget}.
+     * @param stage The output stage the motors are, or will be, buffered in.
+     * @param budget The total current in amps the motors may draw with a healthy battery.
+     * @throws IllegalArgumentException If the budget is not positive.
+     */
+    public PowerBudget(@NotNull MotorOutputStage stage, double budget) {
+        setBudget(budget);
+        this.stage = stage;
+    }
+
+    /**
+     * Registers a motor which reports its own current.
+     * @param motor The motor to register.
+     * @param priority The priority of the motor, higher numbers are scaled back last.
+     * @throws IllegalArgumentException If the motor is buffered in a different output stage or does not support output stages.
+     */
+    public void register(@NotNull Motor motor, int priority) {
+        register(motor, priority, null);
+    }
+
+    /**
+     * Registers a motor with the given current source.
+     * The motor is registered with the output stage if it is not already.
+     * @param motor The motor to register.
+     * @param priority The priority of the motor, higher numbers are scaled back last.
+     * @param current Supplies the current drawn by the motor in amps, or null to use {@link Motor#getOutputCurrent()}.
+     * @throws IllegalArgumentException If the motor is buffered in a different output stage or does not support output stages.
+     */
+    public void register(@NotNull Motor motor, int priority, @Nullable DoubleSupplier current) {
+        if (motor.getOutputStage() == null) stage.register(motor);
+        else if (motor.getOutputStage() != stage) throw new IllegalArgumentException("Motor is buffered in a different output stage.");
+
+        if (count == motors.length) {
+            int capacity = Math.max(8, count * 2);
+            motors = Arrays.copyOf(motors, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            currents = Arrays.copyOf(currents, capacity);
+            demands = Arrays.copyOf(demands, capacity);
+        }
+
+        int index = count;
+        while (index > 0 && priorities[index - 1] < priority) {
+            motors[index] = motors[index - 1];
+            priorities[index] = priorities[index - 1];
+            currents[index] = currents[index - 1];
+            demands[index] = demands[index - 1];
+            index--;
+        }
+
+        motors[index] = motor;
+        priorities[index] = priority;
+        currents[index] = current;
+        demands[index] = 0;
+        count++;
+    }
+
+    /**
+     * Reads the battery voltage and motor currents and rescales every motor's output to fit the budget.
+     * Call once per loop, before the output stage is flushed.
+     */
+    public void update() {
+        double voltage = batteryVoltage.getAsDouble();
+        double allowed = budget;
+        if (voltage < derateVoltage) {
+            allowed *= Math.max(0, (voltage - brownoutVoltage) / (derateVoltage - brownoutVoltage));
+        }
+
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            double current = currents[i] == null ? motors[i].getOutputCurrent() : currents[i].getAsDouble();
+            if (Double.isNaN(current)) current = 0;
+            current = Math.abs(current);
+            total += current;
+
+            // The measured current reflects last loop's scale and derate, undo them to estimate what the motor wants.
+            // A motor scaled close to zero keeps its previous estimate, otherwise it would look idle and be let back in at full.
+            int slot = motors[i].getOutputSlot();
+            double scale = stage.getScale(slot) * stage.getDerate(slot);
+            if (scale >= MIN_ESTIMATE_SCALE) demands[i] = current / scale;
+        }
+
+        double remaining = allowed;
+        int start = 0;
+        while (start < count) {
+            int end = start;
+            double demand = 0;
+            while (end < count && priorities[end] == priorities[start]) {
+                demand += demands[end];
+                end++;
+            }
+
+            double scale;
+            if (demand <= remaining) {
+                scale = 1;
+                remaining -= demand;
+            } else {
+                scale = remaining / demand;
+                remaining = 0;
+            }
+
+            for (int i = start; i < end; i++) {
+                stage.setScale(motors[i].getOutputSlot(), scale);
+            }
+            start = end;
+        }
+
+        lastVoltage = voltage;
+        lastCurrent = total;
+        lastAllowed = allowed;
+    }
+
+    /**
+     * Returns the scale applied to the given motor by the last update.
+     * @param motor The motor.
+     * @return The scale applied to the motor's output.
+     * @throws IllegalArgumentException If the motor is not buffered in this budget's output stage.
+     */
+    public double getScale(@NotNull Motor motor) {
+        if (motor.getOutputStage() != stage) throw new IllegalArgumentException("Motor is not buffered in this budget's output stage.");
+        return stage.getScale(motor.getOutputSlot());
+    }
+
+    /**
+     * Returns the battery voltage read by the last update.
+     * @return The battery voltage read by the last update, NaN before the first update.
+     */
+    public double getBatteryVoltage() {
+        return lastVoltage;
+    }
+
+    /**
+     * Returns the total current read by the last update.
+     * @return The total current in amps read by the last update.
+     */
+    public double getTotalCurrent() {
+        return lastCurrent;
+    }
+
+    /**
+     * Returns the current budget allowed by the last update, after derating for battery voltage.
+     * @return The current in amps allowed by the last update, NaN before the first update.
+     */
+    public double getAllowedCurrent() {
+        return lastAllowed;
+    }
+
+    /**
+     * Returns the total current the motors may draw with a healthy battery.
+     * @return The budget in amps.
+     */
+    public double getBudget() {
+        return budget;
+    }
+
+    /**
+     * Sets the total current the motors may draw with a healthy battery.
+     * @param budget The budget in amps.
+     * @throws IllegalArgumentException If the budget is not positive.
+     */
+    public final void setBudget(double budget) {
+        if (budget <= 0) throw new IllegalArgumentException("Budget must be greater than 0.");
+        this.budget = budget;
+    }
+
+    /**
+     * Sets the battery voltages between which the budget shrinks.
+     * @param derateVoltage The battery voltage below which the budget starts to shrink. Defaults to 9.0.
+     * @param brownoutVoltage The battery voltage at which the budget reaches zero. Defaults to 6.8.
+     * @throws IllegalArgumentException If the brownout voltage is not less than the derate voltage.
+     */
+    public void setDerateVoltages(double derateVoltage, double brownoutVoltage) {
+        if (brownoutVoltage >= derateVoltage) throw new IllegalArgumentException("Brownout voltage must be less than derate voltage.");
+        this.derateVoltage = derateVoltage;
+        this.brownoutVoltage = brownoutVoltage;
+    }
+
+    /**
+     * Sets where the battery voltage is read from, for example a {@code BatterySim} in simulation.
+     * Defaults to {@link BatteryVoltage#getDefault()}, so the budget and voltage compensation act on the same read.
+     * @param batteryVoltage Supplies the battery voltage.
+     */
+    public void setBatteryVoltageSupplier(@NotNull DoubleSupplier batteryVoltage) {
+        this.batteryVoltage = batteryVoltage;
+    }
+}
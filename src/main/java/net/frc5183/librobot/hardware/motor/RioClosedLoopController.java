@@ -0,0 +1,155 @@
+package net.frc5183.librobot.hardware.motor;
+
+import edu.wpi.first.wpilibj.Timer;
+import net.frc5183.librobot.hardware.encoder.Encoder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link ClosedLoopController} which runs its loop on the RIO, for motors without an onboard controller.
+ * Each {@link #update()} reads the encoder, computes PID plus feedforward with primitive state only and
+ * writes the result with {@link Motor#setVoltage(double)}.
+ */
+public class RioClosedLoopController extends ClosedLoopController {
+    /**
+     * The motor to drive.
+     */
+    @NotNull
+    private final Motor motor;
+
+    /**
+     * The encoder measuring the motor.
+     */
+    @NotNull
+    private final Encoder encoder;
+
+    /**
+     * The largest voltage the controller will output.
+     */
+    private double maxVoltage = 12;
+
+    /**
+     * The accumulated integral of the error.
+     */
+    private double integral;
+
+    /**
+     * The error of the last update, or NaN if the loop was just started.
+     */
+    private double lastError = Double.NaN;
+
+    /**
+     * The timestamp of the last update, or NaN if the loop was just started.
+     */
+    private double lastTime = Double.NaN;
+
+    /**
+     * The mode of the last setpoint applied, so the integral is only reset when the mode changes.
+     */
+    @NotNull
+    private Mode lastMode = Mode.DISABLED;
+
+    /**
+     * Creates a new {@link RioClosedLoopController}.
+     * @param motor The motor to drive.
+     * @param encoder The encoder measuring the motor.
+     */
+    public RioClosedLoopController(@NotNull Motor motor, @NotNull Encoder encoder) {
+        this.motor = motor;
+        this.encoder = encoder;
+    }
+
+    @Override
+    public void update() {
+        Mode mode = getMode();
+        if (mode == Mode.DISABLED) return;
+
+        double now = Timer.getFPGATimestamp();
+        double dt = Double.isNaN(lastTime) ? 0.02 : now - lastTime;
+        lastTime = now;
+
+        ClosedLoopGains gains = getGains();
+        double error;
+        double feedforward;
+        switch (mode) {
+            case VELOCITY:
+                error = getSetpoint() - encoder.getVelocityRotationsPerSecond();
+                feedforward = gains.feedforward(getSetpoint(), 0);
+                break;
+            case PROFILED_POSITION:
+                stepProfile();
+                error = getProfilePosition() - encoder.getUnitsRotations();
+                feedforward = gains.feedforward(getProfileVelocity(), getProfileAcceleration());
+                break;
+            default:
+                error = getSetpoint() - encoder.getUnitsRotations();
+                feedforward = gains.getG();
+                break;
+        }
+
+        double derivative = Double.isNaN(lastError) || dt <= 0 ? 0 : (error - lastError) / dt;
+        lastError = error;
+        if (gains.getI() != 0) integral += error * dt;
+
+        double output = gains.getP() * error + gains.getI() * integral + gains.getD() * derivative + feedforward;
+        motor.setVoltage(Math.max(-maxVoltage, Math.min(maxVoltage, output)));
+    }
+
+    @Override
+    public boolean isOnboard() {
+        return false;
+    }
+
+    /**
+     * Sets the largest voltage the controller will output.
+     * @param maxVoltage The largest voltage, defaults to 12.
+     * @throws IllegalArgumentException If the voltage is not positive.
+     */
+    public void setMaxVoltage(double maxVoltage) {
+        if (maxVoltage <= 0) throw new IllegalArgumentException("Max voltage must be greater than 0.");
+        this.maxVoltage = maxVoltage;
+    }
+
+    @Override
+    protected void applyGains(@NotNull ClosedLoopGains gains) {
+        integral = 0;
+    }
+
+    @Override
+    protected void applySetpoint(@NotNull Mode mode, double setpoint) {
+        // Setpoints driven by a joystick or profile change every loop, so only a new mode starts a new integral.
+        if (mode != lastMode) integral = 0;
+        lastMode = mode;
+        lastError = Double.NaN;
+    }
+
+    @Override
+    protected void stopOutput() {
+        motor.stopMotor();
+        lastTime = Double.NaN;
+        lastMode = Mode.DISABLED;
+        integral = 0;
+    }
+
+    @Override
+    protected void invalidateOutput() {
+        reset();
+    }
+
+    /**
+     * Clears the accumulated integral and the previous error, for example after the mechanism was moved by hand.
+     */
+    public void reset() {
+        integral = 0;
+        lastError = Double.NaN;
+    }
+
+    @Override
+    protected double getMeasuredPosition() {
+        return encoder.getUnitsRotations();
+    }
+
+    @Override
+    protected double getMeasuredVelocity() {
+        return encoder.getVelocityRotationsPerSecond();
+    }
+}
@@ -0,0 +1,186 @@
+package net.frc5183.librobot.hardware.motor;
+
+import com.revrobotics.CANSparkBase.ControlType;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.SparkPIDController;
+import com.revrobotics.SparkPIDController.ArbFFUnits;
+import net.frc5183.librobot.hardware.encoder.Encoder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link ClosedLoopController} which runs its loop on the Spark Max's onboard 1 kHz PID controller.
+ * <p>
+ * Position loops use PID slot 0 and velocity loops use slot 1. The feedforward is computed on the RIO from the
+ * setpoint and sent as an arbitrary feedforward voltage with it. Profiled positions step the motion profile on the RIO
+ * in {@link #update()} and send each profile position as an onboard position setpoint.
+ * <p>
+ * Gains are converted from librobot units (volts, rotations and seconds) to the Spark Max's units
+ * (duty cycle, rotations or RPM, and 1 ms loop iterations) assuming a 12 volt output range
+ * and the encoder's default conversion factors.
+ */
+public class SparkMaxClosedLoopController extends ClosedLoopController {
+    /**
+     * The voltage corresponding to full duty cycle when converting gains.
+     */
+    private static final double NOMINAL_VOLTAGE = 12;
+
+    /**
+     * The period of the Spark Max's onboard loop in seconds.
+     */
+    private static final double ONBOARD_PERIOD = 0.001;
+
+    /**
+     * The PID slot used for position loops.
+     */
+    private static final int POSITION_SLOT = 0;
+
+    /**
+     * The PID slot used for velocity loops.
+     */
+    private static final int VELOCITY_SLOT = 1;
+
+    /**
+     * The Spark Max to drive.
+     */
+    @NotNull
+    private final CANSparkMax motor;
+
+    /**
+     * The Spark Max's PID controller.
+     */
+    @NotNull
+    private final SparkPIDController pid;
+
+    /**
+     * The encoder the Spark Max's PID controller uses.
+     */
+    @NotNull
+    private final Encoder encoder;
+
+    /**
+     * The wrapper owning the Spark Max, told when a reference is sent outside its output stage, or null.
+     */
+    Motor owner;
+
+    /**
+     * The control type of the last reference sent, or null if none has been sent since the motor was last stopped or driven outside this controller.
+     */
+    private ControlType lastType;
+
+    /**
+     * The value of the last reference sent.
+     */
+    private double lastValue;
+
+    /**
+     * The feedforward of the last reference sent.
+     */
+    private double lastFeedforward;
+
+    /**
+     * Creates a new {@link SparkMaxClosedLoopController}.
+     * @param motor The Spark Max to drive.
+     * @param encoder The encoder the Spark Max's PID controller uses.
+     */
+    public SparkMaxClosedLoopController(@NotNull CANSparkMax motor, @NotNull Encoder encoder) {
+        this.motor = motor;
+        this.pid = motor.getPIDController();
+        this.encoder = encoder;
+    }
+
+    @Override
+    public void update() {
+        if (getMode() != Mode.PROFILED_POSITION) return;
+
+        stepProfile();
+        send(ControlType.kPosition, POSITION_SLOT, getProfilePosition(),
+                getGains().feedforward(getProfileVelocity(), getProfileAcceleration()));
+    }
+
+    @Override
+    public boolean isOnboard() {
+        return true;
+    }
+
+    @Override
+    protected void applyGains(@NotNull ClosedLoopGains gains) {
+        // Position error is in rotations, velocity error is in RPM.
+        applySlot(POSITION_SLOT, gains, 1);
+        applySlot(VELOCITY_SLOT, gains, 60);
+
+        // Resend the setpoint so the feedforward uses the new gains.
+        if (lastType != null) {
+            lastType = null;
+            applySetpoint(getMode(), getSetpoint());
+        }
+    }
+
+    @Override
+    protected void applySetpoint(@NotNull Mode mode, double setpoint) {
+        ClosedLoopGains gains = getGains();
+        switch (mode) {
+            case POSITION:
+                send(ControlType.kPosition, POSITION_SLOT, setpoint, gains.getG());
+                break;
+            case VELOCITY:
+                send(ControlType.kVelocity, VELOCITY_SLOT, setpoint * 60, gains.feedforward(setpoint, 0));
+                break;
+            default:
+                // Profiled positions are sent by update().
+                break;
+        }
+    }
+
+    @Override
+    protected void stopOutput() {
+        motor.stopMotor();
+        if (owner != null) owner.bufferStop();
+        lastType = null;
+    }
+
+    @Override
+    protected void invalidateOutput() {
+        lastType = null;
+    }
+
+    @Override
+    protected double getMeasuredPosition() {
+        return encoder.getUnitsRotations();
+    }
+
+    @Override
+    protected double getMeasuredVelocity() {
+        return encoder.getVelocityRotationsPerSecond();
+    }
+
+    /**
+     * Sends a reference to the Spark Max if it differs from the last one sent.
+     * @param type The control type.
+     * @param slot The PID slot.
+     * @param value The reference in the Spark Max's units.
+     * @param feedforward The arbitrary feedforward in volts.
+     */
+    private void send(ControlType type, int slot, double value, double feedforward) {
+        if (type == lastType && value == lastValue && feedforward == lastFeedforward) return;
+
+        pid.setReference(value, type, slot, feedforward, ArbFFUnits.kVoltage);
+        if (owner != null) owner.bufferInvalidate();
+        lastType = type;
+        lastValue = value;
+        lastFeedforward = feedforward;
+    }
+
+    /**
+     * Sends the feedback gains to one PID slot.
+     * @param slot The PID slot.
+     * @param gains The gains in librobot units.
+     * @param unitsPerRotation The number of Spark Max error units per librobot unit of error.
+     */
+    private void applySlot(int slot, ClosedLoopGains gains, double unitsPerRotation) {
+        double scale = 1 / (NOMINAL_VOLTAGE * unitsPerRotation);
+        pid.setP(gains.getP() * scale, slot);
+        pid.setI(gains.getI() * scale * ONBOARD_PERIOD, slot);
+        pid.setD(gains.getD() * scale / ONBOARD_PERIOD, slot);
+        pid.setFF(0, slot);
+    }
+}
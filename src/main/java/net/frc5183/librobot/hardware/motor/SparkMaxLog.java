@@ -0,0 +1,132 @@
+package net.frc5183.librobot.hardware.motor;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import org.jetbrains.annotations.NotNull;
+import org.littletonrobotics.urcl.URCL;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Logs every status frame of registered {@link SparkMaxMotor}s with URCL, alongside librobot's own commands,
+ * in one timeline.
+ * <p>
+ * URCL captures the raw CAN status frames of every REV device in the background and writes them to the
+ * {@link DataLogManager} log under {@code URCL/}, named by the aliases given at registration, without polling from the
+ * main loop. Frames arrive at their configured periodic frame rates, so lower the status frame periods of the motors
+ * to log at a finer resolution. The frames include the encoder position and velocity, so they are not read again
+ * here. This class writes to the same log under {@code librobot/<name>/} the duty cycle or voltage each time it is
+ * written to the motor. Every entry is stamped with the FPGA time, so the frames and librobot's commands line up in
+ * AdvantageScope.
+ */
+public class SparkMaxLog {
+    /**
+     * The log the entries are written to.
+     */
+    @NotNull
+    private final DataLog log;
+
+    /**
+     * The names of the motors by CAN ID, handed to URCL as aliases.
+     */
+    @NotNull
+    private final Map<Integer, String> aliases = new HashMap<>();
+
+    /**
+     * The duty cycle entry of each motor.
+     */
+    @NotNull
+    private DoubleLogEntry[] speeds = new DoubleLogEntry[0];
+
+    /**
+     * The voltage entry of each motor.
+     */
+    @NotNull
+    private DoubleLogEntry[] voltages = new DoubleLogEntry[0];
+
+    /**
+     * The number of registered motors.
+     */
+    private int count;
+
+    /**
+     * Whether URCL has been started.
+     */
+    private boolean started;
+
+    /**
+     * Creates a new {@link SparkMaxLog} writing to the {@link DataLogManager} log, which is where URCL writes too.
+     */
+    public SparkMaxLog() {
+        this.log = DataLogManager.getLog();
+    }
+
+    /**
+     * Registers a motor, naming its frames and entries.
+     * @param name The name of the motor in the log.
+     * @param motor The motor to log.
+     * @throws IllegalStateException If URCL has already been started, since its aliases are fixed at start.
+     * @throws IllegalArgumentException If the motor is already logged, or another motor has the same name or CAN ID.
+     */
+    public void register(@NotNull String name, @NotNull SparkMaxMotor motor) {
+        if (started) throw new IllegalStateException("Motors must be registered before the log is started.");
+        if (motor.getLog() != null) throw new IllegalArgumentException("Motor is already logged.");
+        if (aliases.containsValue(name)) throw new IllegalArgumentException("A motor named " + name + " is already logged.");
+
+        int id = motor.getTrueRawMotor().getDeviceId();
+        if (aliases.containsKey(id)) throw new IllegalArgumentException("A motor with CAN ID " + id + " is already logged.");
+
+        if (count == speeds.length) {
+            int capacity = Math.max(8, count * 2);
+            speeds = Arrays.copyOf(speeds, capacity);
+            voltages = Arrays.copyOf(voltages, capacity);
+        }
+
+        String prefix = "librobot/" + name + "/";
+        speeds[count] = new DoubleLogEntry(log, prefix + "speed");
+        voltages[count] = new DoubleLogEntry(log, prefix + "voltage");
+        aliases.put(id, name);
+
+        motor.attachLog(this, count);
+        count++;
+    }
+
+    /**
+     * Starts URCL capturing the status frames of every REV device, named by the registered motors.
+     * URCL can only be started once per program, so only one log should be started.
+     * @throws IllegalStateException If the log has already been started.
+     */
+    public void start() {
+        if (started) throw new IllegalStateException("Log has already been started.");
+        URCL.start(aliases);
+        started = true;
+    }
+
+    /**
+     * @return whether URCL has been started
+     */
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Records a duty cycle written to a motor.
+     * @param slot The slot of the motor.
+     * @param speed The duty cycle written.
+     */
+    void speed(int slot, double speed) {
+        speeds[slot].append(speed);
+    }
+
+    /**
+     * Records a voltage written to a motor.
+     * @param slot The slot of the motor.
+     * @param outputVolts The voltage written.
+     */
+    void voltage(int slot, double outputVolts) {
+        voltages[slot].append(outputVolts);
+    }
+}
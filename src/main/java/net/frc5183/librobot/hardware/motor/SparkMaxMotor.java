@@ -1,12 +1,18 @@
 package net.frc5183.librobot.hardware.motor;
 
+import com.revrobotics.REVLibError;
 import com.revrobotics.SparkRelativeEncoder;
 import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.motorcontrol.MotorController;
 import com.revrobotics.CANSparkMax;
 import com.revrobotics.CANSparkLowLevel.MotorType;
+import net.frc5183.librobot.hardware.ConfigQueue;
 import net.frc5183.librobot.hardware.encoder.Encoder;
 import net.frc5183.librobot.hardware.encoder.SparkMaxEncoder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A wrapper class around CANSparkMax to make it compatible with other motor types
@@ -14,6 +20,18 @@ import net.frc5183.librobot.hardware.encoder.SparkMaxEncoder;
 public class SparkMaxMotor extends Motor implements EncodedMotor {
     private final CANSparkMax motor;
     private final Encoder encoder;
+    private ClosedLoopController closedLoopController;
+
+    /**
+     * The log recording this motor's outputs, or null if it is not logged.
+     */
+    @Nullable
+    private SparkMaxLog log;
+
+    /**
+     * The slot of this motor in its log.
+     */
+    private int logSlot;
 
     public SparkMaxMotor(int id, MotorType motorType) {
         motor = new CANSparkMax(id, motorType);
@@ -27,10 +45,12 @@ public class SparkMaxMotor extends Motor implements EncodedMotor {
 
     @Override
     public void set(double speed) {
-        motor.set(speed);
-        if (RobotBase.isSimulation()) {
-            motor.setVoltage(speed);
-        }
+        if (!bufferSpeed(speed)) writeSpeed(speed);
+    }
+
+    @Override
+    public void setVoltage(double outputVolts) {
+        if (!bufferVoltage(outputVolts)) writeVoltage(outputVolts);
     }
 
     @Override
@@ -61,11 +81,20 @@ public class SparkMaxMotor extends Motor implements EncodedMotor {
     @Override
     public void disable() {
         motor.disable();
+        invalidateClosedLoop();
+        bufferStop();
     }
 
     @Override
     public void stopMotor() {
         motor.stopMotor();
+        invalidateClosedLoop();
+        bufferStop();
+    }
+
+    @Override
+    public double getOutputCurrent() {
+        return motor.getOutputCurrent();
     }
 
     @Override
@@ -82,8 +111,90 @@ public class SparkMaxMotor extends Motor implements EncodedMotor {
         motor.setClosedLoopRampRate(ramp);
     }
 
+    /**
+     * Sets the open and closed loop ramp rates on the config queue's thread instead of the caller's,
+     * retrying if the Spark Max reports an error and verifying both rates by reading them back.
+     * @param queue The config queue.
+     * @param ramp The time in seconds to go from 0 to full output.
+     * @return a future which completes once the ramp rates have been applied
+     */
+    public @NotNull CompletableFuture<Void> setRampAsync(@NotNull ConfigQueue queue, double ramp) {
+        return queue.submit(this, "ramp", () -> motor.setOpenLoopRampRate(ramp) == REVLibError.kOk
+                        && motor.setClosedLoopRampRate(ramp) == REVLibError.kOk,
+                () -> Math.abs(motor.getOpenLoopRampRate() - ramp) < 1e-3
+                        && Math.abs(motor.getClosedLoopRampRate() - ramp) < 1e-3);
+    }
+
     @Override
     public Encoder getEncoder() {
         return encoder;
     }
-}
\ No newline at end of file
+
+    @Override
+    public ClosedLoopController getClosedLoopController() {
+        if (closedLoopController == null) {
+            SparkMaxClosedLoopController controller = new SparkMaxClosedLoopController(motor, encoder);
+            controller.owner = this;
+            closedLoopController = controller;
+        }
+        return closedLoopController;
+    }
+
+    @Override
+    protected boolean enableDeviceCompensation(double nominalVoltage) {
+        return motor.enableVoltageCompensation(nominalVoltage) == REVLibError.kOk;
+    }
+
+    @Override
+    protected void disableDeviceCompensation() {
+        motor.disableVoltageCompensation();
+    }
+
+    @Override
+    protected boolean supportsOutputStage() {
+        return true;
+    }
+
+    @Override
+    protected void writeSpeed(double speed) {
+        invalidateClosedLoop();
+        speed = compensate(speed);
+        if (log != null) log.speed(logSlot, speed);
+        motor.set(speed);
+        if (RobotBase.isSimulation()) {
+            motor.setVoltage(speed);
+        }
+    }
+
+    @Override
+    protected void writeVoltage(double outputVolts) {
+        invalidateClosedLoop();
+        if (log != null) log.voltage(logSlot, outputVolts);
+        motor.setVoltage(outputVolts);
+    }
+
+    /**
+     * Makes the closed-loop controller, if one has been created, resend its next setpoint,
+     * since the motor is being driven outside of it.
+     */
+    private void invalidateClosedLoop() {
+        if (closedLoopController != null) closedLoopController.invalidate();
+    }
+
+    /**
+     * @return the log recording this motor's outputs, or null if it is not logged
+     */
+    @Nullable SparkMaxLog getLog() {
+        return log;
+    }
+
+    /**
+     * Attaches this motor to a log.
+     * @param log The log.
+     * @param slot The slot of this motor in the log.
+     */
+    void attachLog(@NotNull SparkMaxLog log, int slot) {
+        this.log = log;
+        this.logSlot = slot;
+    }
+}
@@ -0,0 +1,188 @@
+package net.frc5183.librobot.input;
+
+import edu.wpi.first.wpilibj.GenericHID;
+import edu.wpi.first.wpilibj.event.EventLoop;
+import net.frc5183.librobot.math.curve.Curve;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Reads every configured controller axis once per loop and shapes it with a deadband and a chain of {@link Curve}s.
+ * <p>
+ * {@link #update()} reads each axis, applies its deadband and curves in one pass, and stores the result in a
+ * primitive array. The suppliers returned when adding axes only read that array, so commands can call them as often as
+ * they like without reading the controller or evaluating curves again. Bind the stage to the command scheduler's
+ * button loop so it updates before commands run:
+ * <pre>{@code
+ * InputStage input = new InputStage();
+ * input.bindTo(CommandScheduler.getInstance().getDefaultButtonLoop());
+ * DoubleSupplier forward = input.addAxis(driver, XboxController.Axis.kLeftY.value, 0.08, new ExponentialCurve(2.5));
+ * }</pre>
+ */
+public class InputStage {
+    /**
+     * The number of registered axes.
+     */
+    private int count;
+
+    /**
+     * The controller of each axis, or null if the axis is read from a supplier.
+     */
+    private GenericHID[] controllers = new GenericHID[0];
+
+    /**
+     * The index of each axis on its controller.
+     */
+    private int[] axes = new int[0];
+
+    /**
+     * The supplier of each axis, or null if the axis is read from a controller.
+     */
+    private DoubleSupplier[] sources = new DoubleSupplier[0];
+
+    /**
+     * The deadband of each axis.
+     */
+    private double[] deadbands = new double[0];
+
+    /**
+     * The curves applied to each axis, in order.
+     */
+    private Curve[][] curves = new Curve[0][];
+
+    /**
+     * The last raw value of each axis.
+     */
+    private double[] raw = new double[0];
+
+    /**
+     * The last shaped value of each axis.
+     */
+    private double[] shaped = new double[0];
+
+    /**
+     * Updates this stage every time the given loop is polled, for example the command scheduler's default button loop.
+     * @param loop The loop.
+     */
+    public void bindTo(@NotNull EventLoop loop) {
+        loop.bind(this::update);
+    }
+
+    /**
+     * Adds a controller axis.
+     * @param controller The controller.
+     * @param axis The index of the axis on the controller.
+     * @param deadband The magnitude below which the axis reads 0, the rest of the range is rescaled to start at 0.
+     * @param curves The curves applied to the axis after the deadband, in order.
+     * @return A supplier of the shaped value of the axis as of the last update.
+     * @throws IllegalArgumentException If the deadband is not at least 0 and less than 1.
+     */
+    public @NotNull DoubleSupplier addAxis(@NotNull GenericHID controller, int axis, double deadband, @NotNull Curve... curves) {
+        return getSupplier(add(controller, axis, null, deadband, curves));
+    }
+
+    /**
+     * Adds an axis read from a supplier, such as {@code controller::getLeftY}.
+     * @param source The supplier of the raw axis value.
+     * @param deadband The magnitude below which the axis reads 0, the rest of the range is rescaled to start at 0.
+     * @param curves The curves applied to the axis after the deadband, in order.
+     * @return A supplier of the shaped value of the axis as of the last update.
+     * @throws IllegalArgumentException If the deadband is not at least 0 and less than 1.
+     */
+    public @NotNull DoubleSupplier addAxis(@NotNull DoubleSupplier source, double deadband, @NotNull Curve... curves) {
+        return getSupplier(add(null, 0, source, deadband, curves));
+    }
+
+    /**
+     * Reads every axis once and shapes it. Call once per loop, before commands run.
+     */
+    public void update() {
+        for (int i = 0; i < count; i++) {
+            double value = controllers[i] != null ? controllers[i].getRawAxis(axes[i]) : sources[i].getAsDouble();
+            raw[i] = value;
+
+            double magnitude = Math.abs(value);
+            double deadband = deadbands[i];
+            value = magnitude <= deadband ? 0 : Math.copySign((Math.min(magnitude, 1) - deadband) / (1 - deadband), value);
+
+            Curve[] chain = curves[i];
+            for (Curve curve : chain) value = curve.curve(value);
+            shaped[i] = value;
+        }
+    }
+
+    /**
+     * Returns a supplier of the shaped value of an axis as of the last update.
+     * @param slot The slot of the axis, in the order axes were added.
+     * @return The supplier.
+     */
+    public @NotNull DoubleSupplier getSupplier(int slot) {
+        if (slot < 0 || slot >= count) throw new IndexOutOfBoundsException("No axis in slot " + slot + ".");
+        return () -> shaped[slot];
+    }
+
+    /**
+     * @param slot the slot of the axis, in the order axes were added
+     * @return the shaped value of the axis as of the last update
+     */
+    public double get(int slot) {
+        return shaped[slot];
+    }
+
+    /**
+     * @param slot the slot of the axis, in the order axes were added
+     * @return the raw value of the axis as of the last update
+     */
+    public double getRaw(int slot) {
+        return raw[slot];
+    }
+
+    /**
+     * @return the number of axes
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Adds an axis.
+     * @param controller The controller, or null.
+     * @param axis The index of the axis on the controller.
+     * @param source The supplier of the axis, or null.
+     * @param deadband The deadband.
+     * @param chain The curves.
+     * @return The slot of the axis.
+     */
+    private int add(GenericHID controller, int axis, DoubleSupplier source, double deadband, Curve[] chain) {
+        if (!(deadband >= 0 && deadband < 1)) throw new IllegalArgumentException("Deadband must be at least 0 and less than 1.");
+
+        int slot = count;
+        if (slot == axes.length) grow(Math.max(8, slot * 2));
+
+        controllers[slot] = controller;
+        axes[slot] = axis;
+        sources[slot] = source;
+        deadbands[slot] = deadband;
+        curves[slot] = chain.clone();
+        raw[slot] = 0;
+        shaped[slot] = 0;
+        count++;
+        return slot;
+    }
+
+    /**
+     * Grows the axis arrays to the given capacity.
+     * @param capacity The new capacity.
+     */
+    private void grow(int capacity) {
+        controllers = Arrays.copyOf(controllers, capacity);
+        axes = Arrays.copyOf(axes, capacity);
+        sources = Arrays.copyOf(sources, capacity);
+        deadbands = Arrays.copyOf(deadbands, capacity);
+        curves = Arrays.copyOf(curves, capacity);
+        raw = Arrays.copyOf(raw, capacity);
+        shaped = Arrays.copyOf(shaped, capacity);
+    }
+}
@@ -0,0 +1,47 @@
+package net.frc5183.librobot.math;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Solves small dense linear systems, such as the normal equations of a least squares fit.
+ */
+public final class LinearSystem {
+    private LinearSystem() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    /**
+     * Solves an augmented linear system by Gaussian elimination with partial pivoting.
+     * @param system The augmented matrix, n rows of n coefficients followed by the right-hand side, modified in place.
+     * @param singularMessage The message of the exception thrown if the system is singular.
+     * @return The solution.
+     * @throws IllegalStateException If the system is singular.
+     */
+    public static double[] solve(double[][] system, @NotNull String singularMessage) {
+        int n = system.length;
+        for (int column = 0; column < n; column++) {
+            int pivot = column;
+            for (int r = column + 1; r < n; r++) {
+                if (Math.abs(system[r][column]) > Math.abs(system[pivot][column])) pivot = r;
+            }
+            if (Math.abs(system[pivot][column]) < 1e-12) throw new IllegalStateException(singularMessage);
+
+            double[] swap = system[column];
+            system[column] = system[pivot];
+            system[pivot] = swap;
+
+            for (int r = column + 1; r < n; r++) {
+                double factor = system[r][column] / system[column][column];
+                for (int c = column; c <= n; c++) system[r][c] -= factor * system[column][c];
+            }
+        }
+
+        double[] solution = new double[n];
+        for (int r = n - 1; r >= 0; r--) {
+            double value = system[r][n];
+            for (int c = r + 1; c < n; c++) value -= system[r][c] * solution[c];
+            solution[r] = value / system[r][r];
+        }
+        return solution;
+    }
+}
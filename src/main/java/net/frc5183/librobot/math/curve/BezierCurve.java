@@ -0,0 +1,53 @@
+package net.frc5183.librobot.math.curve;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link SplineCurve} made of cubic Bezier segments.
+ * Segment i runs from x[i] to x[i + 1] and is shaped by the four control values
+ * controls[3i], controls[3i + 1], controls[3i + 2] and controls[3i + 3], so neighbouring segments share their end value.
+ * The curve passes through the first and last control value of each segment and is pulled towards the middle two,
+ * which are spaced evenly along the segment's x range.
+ */
+public class BezierCurve extends SplineCurve {
+    /**
+     * Creates a new {@link BezierCurve} with the given knots and control values.
+     * @param x The x values of the segment ends, strictly increasing.
+     * @param controls The control values, three per segment plus one.
+     * @throws IllegalArgumentException If there are fewer than two knots, the knots are not strictly increasing
+     * or there are not three control values per segment plus one.
+     */
+    public BezierCurve(@NotNull double[] x, @NotNull double... controls) {
+        super(x.clone(), bezierCoefficients(x, controls));
+    }
+
+    /**
+     * Converts the control values of every segment into polynomial coefficients.
+     * @param x The x values of the segment ends.
+     * @param controls The control values, three per segment plus one.
+     * @return The coefficients of every segment, four per segment, lowest order first.
+     * @throws IllegalArgumentException If the knots are invalid or there are not three control values per segment plus one.
+     */
+    private static double[] bezierCoefficients(double[] x, double[] controls) {
+        checkKnots(x);
+        if (controls.length != (x.length - 1) * 3 + 1) {
+            throw new IllegalArgumentException("There must be three control values per segment plus one.");
+        }
+
+        double[] coefficients = new double[(x.length - 1) * 4];
+        for (int i = 0; i < x.length - 1; i++) {
+            double h = x[i + 1] - x[i];
+            double p0 = controls[i * 3];
+            double p1 = controls[i * 3 + 1];
+            double p2 = controls[i * 3 + 2];
+            double p3 = controls[i * 3 + 3];
+
+            // Bernstein to power basis in s = t / h.
+            coefficients[i * 4] = p0;
+            coefficients[i * 4 + 1] = 3 * (p1 - p0) / h;
+            coefficients[i * 4 + 2] = 3 * (p0 - 2 * p1 + p2) / (h * h);
+            coefficients[i * 4 + 3] = (p3 - p0 + 3 * (p1 - p2)) / (h * h * h);
+        }
+        return coefficients;
+    }
+}
@@ -1,13 +1,108 @@
 package net.frc5183.librobot.math.curve;
 
+import org.jetbrains.annotations.Nullable;
+
 /**
  * An abstract class which represents a mathematical function/curve.
  */
 public abstract class Curve {
+    /**
+     * The step used to estimate the derivative of curves without an analytic derivative.
+     */
+    static final double DERIVATIVE_STEP = 1e-6;
+
+    /**
+     * The number of samples in the inverse table of curves without an analytic inverse.
+     */
+    static final int INVERSE_SAMPLES = 257;
+
+    /**
+     * The smallest x value sampled into the inverse table.
+     */
+    private double inverseMin = -1;
+
+    /**
+     * The largest x value sampled into the inverse table.
+     */
+    private double inverseMax = 1;
+
+    /**
+     * The cached inverse table, built on the first call to {@link #inverse(double)}.
+     */
+    @Nullable
+    private InverseTable inverseTable;
+
     /**
      * Returns the value of the curve at the given x value.
      * @param x The x value to evaluate the curve at.
      * @return The value of the curve at the given x value.
      */
     public abstract double curve(double x);
-}
\ No newline at end of file
+
+    /**
+     * Returns the slope of the curve at the given x value.
+     * Curves without an analytic derivative estimate it with a central difference.
+     * @param x The x value to evaluate the slope at.
+     * @return The slope of the curve at the given x value.
+     */
+    public double derivative(double x) {
+        return (curve(x + DERIVATIVE_STEP) - curve(x - DERIVATIVE_STEP)) / (2 * DERIVATIVE_STEP);
+    }
+
+    /**
+     * Returns an x value for which the curve gives the given y value.
+     * Curves without an analytic inverse sample themselves once over the inverse domain
+     * (see {@link #setInverseDomain(double, double)}) into a cached table and interpolate it,
+     * so no root finding happens when this is called.
+     * @param y The y value to invert.
+     * @return An x value for which the curve gives the given y value, or {@link Double#NaN} if there is none.
+     */
+    public double inverse(double y) {
+        InverseTable table = inverseTable;
+        if (table == null) {
+            table = new InverseTable(this::curve, inverseMin, inverseMax, INVERSE_SAMPLES);
+            inverseTable = table;
+        }
+
+        return table.inverse(y);
+    }
+
+    /**
+     * Sets the range of x values sampled into the inverse table of curves without an analytic inverse.
+     * Defaults to [-1, 1].
+     * @param min The smallest x value to sample.
+     * @param max The largest x value to sample.
+     * @throws IllegalArgumentException If the minimum is not less than the maximum.
+     */
+    public final void setInverseDomain(double min, double max) {
+        if (min >= max) throw new IllegalArgumentException("Minimum value must be less than maximum value.");
+
+        this.inverseMin = min;
+        this.inverseMax = max;
+        invalidateInverse();
+    }
+
+    /**
+     * Returns the smallest x value sampled into the inverse table.
+     * @return The smallest x value sampled into the inverse table.
+     */
+    public double getInverseDomainMin() {
+        return inverseMin;
+    }
+
+    /**
+     * Returns the largest x value sampled into the inverse table.
+     * @return The largest x value sampled into the inverse table.
+     */
+    public double getInverseDomainMax() {
+        return inverseMax;
+    }
+
+    /**
+     * Discards the cached inverse table.
+     * Curves which rely on the inverse table must call this whenever their shape changes.
+     */
+    protected void invalidateInverse() {
+        inverseTable = null;
+    }
+}
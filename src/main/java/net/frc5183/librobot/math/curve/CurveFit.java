@@ -0,0 +1,81 @@
+package net.frc5183.librobot.math.curve;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link Curve} fitted to recorded samples by {@link CurveFitter}, together with how well it fits.
+ */
+public final class CurveFit {
+    /**
+     * The name of the fitted shape.
+     */
+    @NotNull
+    private final String shape;
+
+    /**
+     * The fitted curve.
+     */
+    @NotNull
+    private final Curve curve;
+
+    /**
+     * The root mean square error of the curve over the samples.
+     */
+    private final double rmsError;
+
+    /**
+     * The number of samples the curve was fitted to.
+     */
+    private final long samples;
+
+    /**
+     * Creates a new {@link CurveFit}.
+     * @param shape The name of the fitted shape.
+     * @param curve The fitted curve.
+     * @param rmsError The root mean square error of the curve over the samples.
+     * @param samples The number of samples the curve was fitted to.
+     */
+    CurveFit(@NotNull String shape, @NotNull Curve curve, double rmsError, long samples) {
+        this.shape = shape;
+        this.curve = curve;
+        this.rmsError = rmsError;
+        this.samples = samples;
+    }
+
+    /**
+     * Returns the name of the fitted shape, such as "quadratic".
+     * @return The name of the fitted shape.
+     */
+    public @NotNull String getShape() {
+        return shape;
+    }
+
+    /**
+     * Returns the fitted curve.
+     * @return The fitted curve.
+     */
+    public @NotNull Curve getCurve() {
+        return curve;
+    }
+
+    /**
+     * Returns the root mean square error of the curve over the samples.
+     * @return The root mean square error.
+     */
+    public double getRmsError() {
+        return rmsError;
+    }
+
+    /**
+     * Returns the number of samples the curve was fitted to.
+     * @return The number of samples.
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    @Override
+    public String toString() {
+        return shape + " (rms error " + rmsError + " over " + samples + " samples)";
+    }
+}
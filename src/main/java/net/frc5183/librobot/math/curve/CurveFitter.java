@@ -0,0 +1,469 @@
+package net.frc5183.librobot.math.curve;
+
+import net.frc5183.librobot.math.LinearSystem;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Fits {@link Curve}s to recorded input and output samples, for example joystick positions against the outputs a
+ * driver settled on.
+ * <p>
+ * Samples are read from a {@link SampleSource} one pass at a time and only running sums are kept, so sample sets do
+ * not have to fit in memory. Linear, quadratic and spline curves are linear in their parameters and are fitted by
+ * least squares in one or two passes; exponential and radical curves are fitted by Levenberg-Marquardt, one pass per
+ * iteration. {@link #fitAll(SampleSource)} fits every shape in parallel.
+ */
+public final class CurveFitter {
+    /**
+     * The largest number of Levenberg-Marquardt iterations.
+     */
+    private static final int MAX_ITERATIONS = 100;
+
+    /**
+     * The relative improvement in error below which Levenberg-Marquardt stops.
+     */
+    private static final double TOLERANCE = 1e-10;
+
+    /**
+     * The number of knots of the spline fitted by {@link #fitAll(SampleSource)}.
+     */
+    private static final int DEFAULT_KNOTS = 9;
+
+    /**
+     * The weights of the second difference of three neighbouring knot values.
+     */
+    private static final double[] SECOND_DIFFERENCE = {1, -2, 1};
+
+    /**
+     * The message of the exception thrown when the samples do not determine a curve.
+     */
+    private static final String UNDETERMINED = "The samples do not determine the curve.";
+
+    private CurveFitter() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    /**
+     * Receives samples from a {@link SampleSource}.
+     */
+    @FunctionalInterface
+    public interface SampleConsumer {
+        /**
+         * @param x the input of the sample
+         * @param y the output of the sample
+         */
+        void accept(double x, double y);
+    }
+
+    /**
+     * A set of samples which can be read any number of times, possibly by several threads at once.
+     */
+    @FunctionalInterface
+    public interface SampleSource {
+        /**
+         * Passes every sample to the consumer, in any order.
+         * @param consumer the consumer
+         * @throws IOException if the samples cannot be read
+         */
+        void forEach(@NotNull SampleConsumer consumer) throws IOException;
+    }
+
+    /**
+     * Creates a source over samples in memory. The arrays are not copied.
+     * @param x The inputs.
+     * @param y The outputs.
+     * @return The source.
+     * @throws IllegalArgumentException If the arrays do not have the same length.
+     */
+    public static @NotNull SampleSource of(@NotNull double[] x, @NotNull double[] y) {
+        if (x.length != y.length) throw new IllegalArgumentException("There must be one y value per x value.");
+        return consumer -> {
+            for (int i = 0; i < x.length; i++) consumer.accept(x[i], y[i]);
+        };
+    }
+
+    /**
+     * Creates a source which streams "x,y" lines from a file on every pass.
+     * Blank lines, lines starting with '#' and a non-numeric header line are skipped.
+     * @param file The file.
+     * @return The source.
+     */
+    public static @NotNull SampleSource csv(@NotNull Path file) {
+        return consumer -> {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                int number = 0;
+                while ((line = reader.readLine()) != null) {
+                    number++;
+                    line = line.trim();
+                    if (line.isEmpty() || line.charAt(0) == '#') continue;
+
+                    int comma = line.indexOf(',');
+                    if (comma < 0) throw new IOException("Line " + number + " of " + file + " is not \"x,y\".");
+                    try {
+                        consumer.accept(Double.parseDouble(line.substring(0, comma).trim()),
+                                Double.parseDouble(line.substring(comma + 1).trim()));
+                    } catch (NumberFormatException e) {
+                        if (number != 1) throw new IOException("Line " + number + " of " + file + " is not numeric.", e);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Fits every shape in parallel on the common fork/join pool. Shapes which cannot fit the samples are left out.
+     * @param source The samples.
+     * @return The fits, best first.
+     * @throws IOException If the samples cannot be read.
+     */
+    public static @NotNull List<CurveFit> fitAll(@NotNull SampleSource source) throws IOException {
+        List<CompletableFuture<CurveFit>> futures = List.of(
+                fitAsync(() -> fitLinear(source)),
+                fitAsync(() -> fitQuadratic(source)),
+                fitAsync(() -> fitExponential(source)),
+                fitAsync(() -> fitRadical(source)),
+                fitAsync(() -> fitSpline(source, DEFAULT_KNOTS))
+        );
+
+        List<CurveFit> fits = new ArrayList<>();
+        for (CompletableFuture<CurveFit> future : futures) {
+            try {
+                fits.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+                if (!(e.getCause() instanceof IllegalStateException)) throw e;
+            }
+        }
+
+        fits.sort(Comparator.comparingDouble(CurveFit::getRmsError));
+        return fits;
+    }
+
+    /**
+     * Fits a {@link LinearCurve} by least squares.
+     * @param source The samples.
+     * @return The fit.
+     * @throws IOException If the samples cannot be read.
+     * @throws IllegalStateException If the samples do not determine the curve.
+     */
+    public static @NotNull CurveFit fitLinear(@NotNull SampleSource source) throws IOException {
+        double[] p = polynomial(source, 2);
+        return evaluate("linear", new LinearCurve(p[1], p[0]), source);
+    }
+
+    /**
+     * Fits a {@link QuadraticCurve} by least squares.
+     * @param source The samples.
+     * @return The fit.
+     * @throws IOException If the samples cannot be read.
+     * @throws IllegalStateException If the samples do not determine the curve.
+     */
+    public static @NotNull CurveFit fitQuadratic(@NotNull SampleSource source) throws IOException {
+        double[] p = polynomial(source, 3);
+        return evaluate("quadratic", new QuadraticCurve(p[2], p[1], p[0]), source);
+    }
+
+    /**
+     * Fits an {@link ExponentialCurve} by Levenberg-Marquardt.
+     * @param source The samples.
+     * @return The fit.
+     * @throws IOException If the samples cannot be read.
+     * @throws IllegalStateException If no exaggeration fits the samples.
+     */
+    public static @NotNull CurveFit fitExponential(@NotNull SampleSource source) throws IOException {
+        double[] p = levenbergMarquardt(source, p0 -> new ExponentialCurve(p0[0]), new double[] {1});
+        return evaluate("exponential", new ExponentialCurve(p[0]), source);
+    }
+
+    /**
+     * Fits a {@link RadicalCurve} by Levenberg-Marquardt, starting from a square root through the origin.
+     * @param source The samples.
+     * @return The fit.
+     * @throws IOException If the samples cannot be read.
+     * @throws IllegalStateException If no parameters fit the samples.
+     */
+    public static @NotNull CurveFit fitRadical(@NotNull SampleSource source) throws IOException {
+        double[] range = range(source);
+        double c = Math.max(1, -range[0]);
+        double[] p = levenbergMarquardt(source, p0 -> new RadicalCurve(p0[0], p0[1], p0[2]),
+                new double[] {2, -Math.sqrt(c), c});
+        return evaluate("radical", new RadicalCurve(p[0], p[1], p[2]), source);
+    }
+
+    /**
+     * Fits a {@link HermiteSplineCurve} with Catmull-Rom slopes and evenly spaced knots across the inputs by least
+     * squares. Such a spline is linear in its knot values, so the fit takes one pass for the range and one for the sums.
+     * Knots without nearby samples are interpolated from their neighbours.
+     * @param source The samples.
+     * @param knots The number of knots.
+     * @return The fit.
+     * @throws IOException If the samples cannot be read.
+     * @throws IllegalArgumentException If there are fewer than two knots.
+     * @throws IllegalStateException If the samples do not span a range of inputs.
+     */
+    public static @NotNull CurveFit fitSpline(@NotNull SampleSource source, int knots) throws IOException {
+        if (knots < 2) throw new IllegalArgumentException("There must be at least two knots.");
+
+        double[] range = range(source);
+        if (!(range[1] > range[0])) throw new IllegalStateException("Samples do not span a range of inputs.");
+
+        double[] x = new double[knots];
+        for (int i = 0; i < knots; i++) x[i] = range[0] + (range[1] - range[0]) * i / (knots - 1);
+
+        HermiteSplineCurve[] basis = new HermiteSplineCurve[knots];
+        for (int j = 0; j < knots; j++) {
+            double[] unit = new double[knots];
+            unit[j] = 1;
+            basis[j] = new HermiteSplineCurve(x, unit);
+        }
+
+        double[][] normal = new double[knots][knots + 1];
+        double[] row = new double[knots];
+        source.forEach((sx, sy) -> {
+            for (int j = 0; j < knots; j++) row[j] = basis[j].curve(sx);
+            accumulate(normal, row, sy);
+        });
+
+        // A small penalty on the second differences of the knot values keeps knots without samples near them
+        // determined, on the line through their neighbours. It adds lambda * D^T * D to the normal matrix, where each
+        // row of D is (1, -2, 1) over three neighbouring knots, so the system stays symmetric.
+        double trace = 0;
+        for (int j = 0; j < knots; j++) trace += normal[j][j];
+        double lambda = 1e-9 * (1 + trace / knots);
+        for (int i = 1; i < knots - 1; i++) {
+            for (int a = -1; a <= 1; a++) {
+                for (int b = -1; b <= 1; b++) {
+                    normal[i + a][i + b] += lambda * SECOND_DIFFERENCE[a + 1] * SECOND_DIFFERENCE[b + 1];
+                }
+            }
+        }
+
+        return evaluate("spline", new HermiteSplineCurve(x, LinearSystem.solve(normal, UNDETERMINED)), source);
+    }
+
+    /**
+     * Fits a polynomial by least squares.
+     * @param source The samples.
+     * @param terms The number of coefficients.
+     * @return The coefficients, constant first.
+     * @throws IOException If the samples cannot be read.
+     */
+    private static double[] polynomial(SampleSource source, int terms) throws IOException {
+        double[][] normal = new double[terms][terms + 1];
+        double[] row = new double[terms];
+        source.forEach((x, y) -> {
+            double power = 1;
+            for (int j = 0; j < terms; j++) {
+                row[j] = power;
+                power *= x;
+            }
+            accumulate(normal, row, y);
+        });
+        return LinearSystem.solve(normal, UNDETERMINED);
+    }
+
+    /**
+     * Minimizes the squared error of a curve over its parameters, with the Jacobian taken by forward differences.
+     * @param source The samples.
+     * @param factory Creates the curve for the given parameters, may throw {@link IllegalArgumentException}.
+     * @param initial The initial parameters.
+     * @return The fitted parameters.
+     * @throws IOException If the samples cannot be read.
+     * @throws IllegalStateException If the curve is not defined at the initial parameters.
+     */
+    private static double[] levenbergMarquardt(SampleSource source, Function<double[], Curve> factory, double[] initial)
+            throws IOException {
+        int n = initial.length;
+        double[] p = initial.clone();
+        double cost = cost(source, factory, p);
+        if (!Double.isFinite(cost)) throw new IllegalStateException("The curve is not defined over the samples.");
+
+        double lambda = 1e-3;
+        double[] step = new double[n];
+        Curve[] perturbed = new Curve[n];
+        double[][] normal = new double[n][n + 1];
+        double[] row = new double[n];
+
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            Curve base = factory.apply(p);
+            for (int k = 0; k < n; k++) {
+                double[] q = p.clone();
+                step[k] = 1e-6 * Math.max(1, Math.abs(p[k]));
+                q[k] += step[k];
+                perturbed[k] = create(factory, q);
+                if (perturbed[k] == null) {
+                    step[k] = -step[k];
+                    q[k] = p[k] + step[k];
+                    perturbed[k] = create(factory, q);
+                    if (perturbed[k] == null) throw new IllegalStateException("The curve cannot be differentiated at " + p[k] + ".");
+                }
+            }
+
+            for (double[] r : normal) Arrays.fill(r, 0);
+            source.forEach((x, y) -> {
+                double value = base.curve(x);
+                for (int k = 0; k < n; k++) row[k] = (perturbed[k].curve(x) - value) / step[k];
+                if (!Double.isFinite(value)) return;
+                accumulate(normal, row, y - value);
+            });
+
+            boolean improved = false;
+            while (lambda < 1e12) {
+                double[][] damped = new double[n][];
+                for (int r = 0; r < n; r++) {
+                    damped[r] = normal[r].clone();
+                    damped[r][r] += lambda * Math.max(normal[r][r], 1e-12);
+                }
+
+                double[] candidate;
+                try {
+                    candidate = LinearSystem.solve(damped, UNDETERMINED);
+                } catch (IllegalStateException e) {
+                    lambda *= 10;
+                    continue;
+                }
+                for (int k = 0; k < n; k++) candidate[k] += p[k];
+
+                double candidateCost = cost(source, factory, candidate);
+                if (candidateCost < cost) {
+                    boolean converged = cost - candidateCost <= TOLERANCE * cost;
+                    p = candidate;
+                    cost = candidateCost;
+                    lambda = Math.max(lambda / 10, 1e-12);
+                    improved = !converged;
+                    break;
+                }
+                lambda *= 10;
+            }
+
+            if (!improved) break;
+        }
+
+        return p;
+    }
+
+    /**
+     * Computes the sum of squared errors of a curve.
+     * @param source The samples.
+     * @param factory Creates the curve for the given parameters.
+     * @param p The parameters.
+     * @return The sum of squared errors, infinity if the curve is not defined at the parameters or over the samples.
+     * @throws IOException If the samples cannot be read.
+     */
+    private static double cost(SampleSource source, Function<double[], Curve> factory, double[] p) throws IOException {
+        Curve curve = create(factory, p);
+        if (curve == null) return Double.POSITIVE_INFINITY;
+
+        double[] sum = new double[1];
+        source.forEach((x, y) -> {
+            double error = y - curve.curve(x);
+            sum[0] += error * error;
+        });
+        return Double.isNaN(sum[0]) ? Double.POSITIVE_INFINITY : sum[0];
+    }
+
+    /**
+     * Creates a curve, returning null instead of throwing if the parameters are invalid.
+     * @param factory Creates the curve for the given parameters.
+     * @param p The parameters.
+     * @return The curve, or null.
+     */
+    private static Curve create(Function<double[], Curve> factory, double[] p) {
+        try {
+            return factory.apply(p);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds the smallest and largest input.
+     * @param source The samples.
+     * @return The smallest and largest input.
+     * @throws IOException If the samples cannot be read.
+     * @throws IllegalStateException If there are no samples.
+     */
+    private static double[] range(SampleSource source) throws IOException {
+        double[] range = {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        source.forEach((x, y) -> {
+            range[0] = Math.min(range[0], x);
+            range[1] = Math.max(range[1], x);
+        });
+        if (range[0] > range[1]) throw new IllegalStateException("There are no samples.");
+        return range;
+    }
+
+    /**
+     * Scores a fitted curve.
+     * @param shape The name of the shape.
+     * @param curve The curve.
+     * @param source The samples.
+     * @return The fit.
+     * @throws IOException If the samples cannot be read.
+     * @throws IllegalStateException If the curve is not defined over the samples.
+     */
+    private static CurveFit evaluate(String shape, Curve curve, SampleSource source) throws IOException {
+        double[] sums = new double[2];
+        source.forEach((x, y) -> {
+            double error = y - curve.curve(x);
+            sums[0] += error * error;
+            sums[1]++;
+        });
+
+        if (sums[1] == 0) throw new IllegalStateException("There are no samples.");
+        if (Double.isNaN(sums[0])) throw new IllegalStateException("The fitted " + shape + " curve is not defined over the samples.");
+        return new CurveFit(shape, curve, Math.sqrt(sums[0] / sums[1]), (long) sums[1]);
+    }
+
+    /**
+     * Adds a sample to the normal equations of a linear least squares problem.
+     * @param normal The augmented normal matrix.
+     * @param row The regressors of the sample.
+     * @param y The output of the sample.
+     */
+    private static void accumulate(double[][] normal, double[] row, double y) {
+        int n = row.length;
+        for (int r = 0; r < n; r++) {
+            if (row[r] == 0) continue;
+            for (int c = 0; c < n; c++) normal[r][c] += row[r] * row[c];
+            normal[r][n] += row[r] * y;
+        }
+    }
+
+    /**
+     * A fit which may throw {@link IOException}.
+     */
+    @FunctionalInterface
+    private interface Fit {
+        CurveFit run() throws IOException;
+    }
+
+    /**
+     * Runs a fit on the common fork/join pool.
+     * @param fit The fit.
+     * @return The future of the fit.
+     */
+    private static CompletableFuture<CurveFit> fitAsync(Fit fit) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return fit.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,528 @@
+package net.frc5183.librobot.math.curve;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Loads named {@link Curve}s from a definition file, usually one deployed to the deploy directory.
+ * <p>
+ * Definitions are written one per name, for example:
+ * <pre>
+ * # Comments run to the end of the line.
+ * drive = exponential(2.5)
+ * turn = limited(quadratic(1, 0, 0), -1, 1)
+ * shooter = monotone([0, 0.5, 1], [0, 0.7, 1])
+ * arm = piecewise([-1, 0, 1], linear(0.5, 0), quadratic(1, 0, 0))
+ * </pre>
+ * The supported curves and their arguments are:
+ * <ul>
+ *     <li>linear(slope, yIntercept)</li>
+ *     <li>quadratic(a, b, c)</li>
+ *     <li>exponential(exaggeration)</li>
+ *     <li>radical(a, b, c)</li>
+ *     <li>limited(curve, min, max)</li>
+ *     <li>hermite([x], [y]) or hermite([x], [y], [slopes])</li>
+ *     <li>monotone([x], [y])</li>
+ *     <li>bezier([x], [controls])</li>
+ *     <li>piecewise([breakpoints], curve...), where curve i is used from breakpoint i up to breakpoint i + 1</li>
+ *     <li>normaltimed(curve, delayEnabled, delayDisabled)</li>
+ *     <li>zerotimed(curve, delayEnabled, delayDisabled)</li>
+ *     <li>doubletimed(enabledCurve, disabledCurve, delayEnabled, delayDisabled)</li>
+ * </ul>
+ * Text definitions are compiled by a small hand-written parser into a compact binary form, which is then read
+ * into curves. The binary form can also be precompiled with {@link #compile(Path, Path)} and deployed instead,
+ * which skips parsing entirely; {@link #load(Path)} accepts either.
+ */
+public final class CurveLoader {
+    /**
+     * The first four bytes of a compiled curve file, "LRCV".
+     */
+    private static final int MAGIC = 0x4C524356;
+
+    /**
+     * The version of the compiled format.
+     */
+    private static final byte VERSION = 1;
+
+    private static final byte LINEAR = 1;
+    private static final byte QUADRATIC = 2;
+    private static final byte EXPONENTIAL = 3;
+    private static final byte RADICAL = 4;
+    private static final byte LIMITED = 5;
+    private static final byte HERMITE = 6;
+    private static final byte MONOTONE = 7;
+    private static final byte BEZIER = 8;
+    private static final byte PIECEWISE = 9;
+    private static final byte NORMAL_TIMED = 10;
+    private static final byte ZERO_TIMED = 11;
+    private static final byte DOUBLE_TIMED = 12;
+
+    private CurveLoader() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    /**
+     * Loads the curves defined in the given file in the deploy directory.
+     * @param fileName The name of the file, relative to the deploy directory.
+     * @return The loaded curves by name, in the order they were defined.
+     * @throws IOException If the file cannot be read or is not a valid compiled file.
+     * @throws IllegalArgumentException If the file contains an invalid definition.
+     */
+    public static @NotNull Map<String, Curve> loadDeploy(@NotNull String fileName) throws IOException {
+        return load(Filesystem.getDeployDirectory().toPath().resolve(fileName));
+    }
+
+    /**
+     * Loads the curves defined in the given text or compiled file.
+     * @param path The path of the file.
+     * @return The loaded curves by name, in the order they were defined.
+     * @throws IOException If the file cannot be read or is not a valid compiled file.
+     * @throws IllegalArgumentException If the file contains an invalid definition.
+     */
+    public static @NotNull Map<String, Curve> load(@NotNull Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+
+        if (!isCompiled(bytes)) {
+            bytes = compile(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        return read(bytes);
+    }
+
+    /**
+     * Parses the given text definitions into curves.
+     * @param source The text definitions.
+     * @return The parsed curves by name, in the order they were defined.
+     * @throws IllegalArgumentException If the text contains an invalid definition.
+     */
+    public static @NotNull Map<String, Curve> parse(@NotNull String source) {
+        try {
+            return read(compile(source));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read compiled curves.", e);
+        }
+    }
+
+    /**
+     * Compiles the text definitions in one file into a compiled file.
+     * @param source The path of the text definitions.
+     * @param target The path to write the compiled definitions to.
+     * @throws IOException If either file cannot be accessed.
+     * @throws IllegalArgumentException If the text contains an invalid definition.
+     */
+    public static void compile(@NotNull Path source, @NotNull Path target) throws IOException {
+        Files.write(target, compile(Files.readString(source)));
+    }
+
+    /**
+     * Compiles text definitions into the compiled binary form.
+     * @param source The text definitions.
+     * @return The compiled definitions.
+     * @throws IllegalArgumentException If the text contains an invalid definition.
+     */
+    public static @NotNull byte[] compile(@NotNull String source) {
+        try {
+            return new Parser(source).compile();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write compiled curves.", e);
+        }
+    }
+
+    /**
+     * Compiles a text definition file from the command line.
+     * @param args The path of the text definitions and the path to write the compiled definitions to.
+     * @throws IOException If either file cannot be accessed.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) throw new IllegalArgumentException("Usage: CurveLoader <source> <target>");
+        compile(Path.of(args[0]), Path.of(args[1]));
+    }
+
+    /**
+     * Returns whether the given bytes start with the compiled file header.
+     * @param bytes The bytes to check.
+     * @return Whether the given bytes start with the compiled file header.
+     */
+    private static boolean isCompiled(byte[] bytes) {
+        return bytes.length >= 4
+                && ((bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 | (bytes[3] & 0xFF)) == MAGIC;
+    }
+
+    /**
+     * Reads compiled definitions into curves.
+     * @param bytes The compiled definitions.
+     * @return The curves by name, in the order they were defined.
+     * @throws IOException If the bytes are not valid compiled definitions.
+     * @throws IllegalArgumentException If a definition has invalid parameters.
+     */
+    private static Map<String, Curve> read(byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a compiled curve file.");
+            if (in.readByte() != VERSION) throw new IOException("Unsupported compiled curve file version.");
+
+            int count = in.readInt();
+            Map<String, Curve> curves = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                try {
+                    curves.put(name, readCurve(in));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid curve \"" + name + "\": " + e.getMessage(), e);
+                }
+            }
+            return curves;
+        }
+    }
+
+    /**
+     * Reads one compiled curve.
+     * @param in The stream to read from.
+     * @return The curve.
+     * @throws IOException If the curve is not valid.
+     */
+    private static Curve readCurve(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        int arguments = in.readUnsignedByte();
+
+        switch (type) {
+            case LINEAR:
+                return new LinearCurve(in.readDouble(), in.readDouble());
+            case QUADRATIC:
+                return new QuadraticCurve(in.readDouble(), in.readDouble(), in.readDouble());
+            case EXPONENTIAL:
+                return new ExponentialCurve(in.readDouble());
+            case RADICAL:
+                return new RadicalCurve(in.readDouble(), in.readDouble(), in.readDouble());
+            case LIMITED:
+                return new LimitedCurve(readCurve(in), in.readDouble(), in.readDouble());
+            case HERMITE: {
+                double[] x = readArray(in);
+                double[] y = readArray(in);
+                return arguments == 3 ? new HermiteSplineCurve(x, y, readArray(in)) : new HermiteSplineCurve(x, y);
+            }
+            case MONOTONE:
+                return new MonotoneSplineCurve(readArray(in), readArray(in));
+            case BEZIER:
+                return new BezierCurve(readArray(in), readArray(in));
+            case PIECEWISE:
+                return readPiecewise(in, arguments - 1);
+            case NORMAL_TIMED:
+                return new NormalTimedCurve(readCurve(in), in.readDouble(), in.readDouble());
+            case ZERO_TIMED:
+                return new ZeroTimedCurve(readCurve(in), in.readDouble(), in.readDouble());
+            case DOUBLE_TIMED:
+                return new DoubleTimedCurve(readCurve(in), readCurve(in), in.readDouble(), in.readDouble());
+            default:
+                throw new IOException("Unknown compiled curve type " + type + ".");
+        }
+    }
+
+    /**
+     * Reads a compiled piecewise curve.
+     * @param in The stream to read from.
+     * @param pieces The number of curves in the piecewise curve.
+     * @return The piecewise curve.
+     * @throws IOException If the curve is not valid.
+     */
+    private static Curve readPiecewise(DataInputStream in, int pieces) throws IOException {
+        double[] breakpoints = readArray(in);
+        if (breakpoints.length != pieces + 1) {
+            throw new IllegalArgumentException("There must be one more breakpoint than curves.");
+        }
+        SplineCurve.checkKnots(breakpoints);
+
+        Map<Function<Double, Boolean>, Curve> curves = new LinkedHashMap<>();
+        for (int i = 0; i < pieces; i++) {
+            double low = breakpoints[i];
+            double high = breakpoints[i + 1];
+            boolean last = i == pieces - 1;
+            curves.put((PiecewiseCurve.Condition) x -> x >= low && (last ? x <= high : x < high), readCurve(in));
+        }
+        return new PiecewiseCurve(curves);
+    }
+
+    /**
+     * Reads a compiled array.
+     * @param in The stream to read from.
+     * @return The array.
+     * @throws IOException If the array cannot be read or is longer than the bytes left.
+     */
+    private static double[] readArray(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        // The stream is over a byte array, so the bytes available are all that is left.
+        if (length < 0 || length > in.available() / Double.BYTES) throw new IOException("Invalid compiled array length " + length + ".");
+
+        double[] array = new double[length];
+        for (int i = 0; i < array.length; i++) array[i] = in.readDouble();
+        return array;
+    }
+
+    /**
+     * A parser which compiles text definitions straight into the binary form without building an intermediate tree.
+     */
+    private static final class Parser {
+        /**
+         * The text being parsed.
+         */
+        private final String source;
+
+        /**
+         * The compiled output.
+         */
+        private final Output bytes = new Output();
+
+        /**
+         * The stream writing the compiled output.
+         */
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        /**
+         * The index of the next character to read.
+         */
+        private int position;
+
+        /**
+         * The line of the next character to read.
+         */
+        private int line = 1;
+
+        /**
+         * Creates a new {@link Parser} over the given text.
+         * @param source The text to parse.
+         */
+        Parser(String source) {
+            this.source = source;
+        }
+
+        /**
+         * Compiles every definition in the text.
+         * @return The compiled definitions.
+         * @throws IOException If the output cannot be written.
+         */
+        byte[] compile() throws IOException {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            int count = 0;
+
+            skipWhitespace();
+            while (position < source.length()) {
+                String name = identifier();
+                expect('=');
+                out.writeUTF(name);
+                curve();
+                count++;
+                skipWhitespace();
+            }
+
+            try (DataOutputStream header = new DataOutputStream(body)) {
+                header.writeInt(MAGIC);
+                header.writeByte(VERSION);
+                header.writeInt(count);
+                bytes.writeTo(header);
+            }
+            return body.toByteArray();
+        }
+
+        /**
+         * Compiles one curve.
+         * @throws IOException If the output cannot be written.
+         */
+        private void curve() throws IOException {
+            int start = line;
+            String type = identifier();
+
+            // Each signature lists the arguments: d for a number, a for an array and c for a curve.
+            // A trailing '?' makes the last argument optional and a trailing '+' lets it repeat.
+            byte tag;
+            String signature;
+            switch (type) {
+                case "linear": tag = LINEAR; signature = "dd"; break;
+                case "quadratic": tag = QUADRATIC; signature = "ddd"; break;
+                case "exponential": tag = EXPONENTIAL; signature = "d"; break;
+                case "radical": tag = RADICAL; signature = "ddd"; break;
+                case "limited": tag = LIMITED; signature = "cdd"; break;
+                case "hermite": tag = HERMITE; signature = "aaa?"; break;
+                case "monotone": tag = MONOTONE; signature = "aa"; break;
+                case "bezier": tag = BEZIER; signature = "aa"; break;
+                case "piecewise": tag = PIECEWISE; signature = "ac+"; break;
+                case "normaltimed": tag = NORMAL_TIMED; signature = "cdd"; break;
+                case "zerotimed": tag = ZERO_TIMED; signature = "cdd"; break;
+                case "doubletimed": tag = DOUBLE_TIMED; signature = "ccdd"; break;
+                default: throw error("unknown curve type \"" + type + "\"");
+            }
+
+            boolean optional = signature.endsWith("?");
+            boolean repeating = signature.endsWith("+");
+            String kinds = optional || repeating ? signature.substring(0, signature.length() - 1) : signature;
+            int required = optional ? kinds.length() - 1 : kinds.length();
+
+            out.writeByte(tag);
+            // The argument count is not known until the arguments have been parsed, so write a placeholder and patch it.
+            int countIndex = bytes.size();
+            out.writeByte(0);
+
+            expect('(');
+            int arguments = 0;
+            while (!peek(')')) {
+                if (arguments > 0) expect(',');
+
+                char kind;
+                if (arguments < kinds.length()) kind = kinds.charAt(arguments);
+                else if (repeating) kind = kinds.charAt(kinds.length() - 1);
+                else throw error("too many arguments to " + type);
+
+                argument(kind);
+                arguments++;
+            }
+            expect(')');
+
+            if (arguments < required) throw new IllegalArgumentException("Line " + start + ": too few arguments to " + type + ".");
+            if (arguments > 255) throw new IllegalArgumentException("Line " + start + ": too many arguments to " + type + ".");
+
+            bytes.patch(countIndex, (byte) arguments);
+        }
+
+        /**
+         * Compiles one argument.
+         * @param kind The kind of argument, d for a number, a for an array and c for a curve.
+         * @throws IOException If the output cannot be written.
+         */
+        private void argument(char kind) throws IOException {
+            switch (kind) {
+                case 'd':
+                    out.writeDouble(number());
+                    break;
+                case 'a':
+                    array();
+                    break;
+                default:
+                    curve();
+                    break;
+            }
+        }
+
+        /**
+         * Compiles an array of numbers.
+         * @throws IOException If the output cannot be written.
+         */
+        private void array() throws IOException {
+            expect('[');
+            ByteArrayOutputStream elements = new ByteArrayOutputStream();
+            DataOutputStream elementsOut = new DataOutputStream(elements);
+            int length = 0;
+            while (!peek(']')) {
+                if (length > 0) expect(',');
+                elementsOut.writeDouble(number());
+                length++;
+            }
+            expect(']');
+
+            out.writeInt(length);
+            elements.writeTo(out);
+        }
+
+        /**
+         * Parses a number.
+         * @return The number.
+         */
+        private double number() {
+            skipWhitespace();
+            int start = position;
+            while (position < source.length() && "+-.0123456789eE".indexOf(source.charAt(position)) >= 0) position++;
+
+            try {
+                return Double.parseDouble(source.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw error("expected a number");
+            }
+        }
+
+        /**
+         * Parses an identifier made of letters, digits, '_', '.' and '/'.
+         * @return The identifier.
+         */
+        private String identifier() {
+            skipWhitespace();
+            int start = position;
+            while (position < source.length()) {
+                char c = source.charAt(position);
+                if (!Character.isLetterOrDigit(c) && c != '_' && c != '.' && c != '/') break;
+                position++;
+            }
+
+            if (start == position) throw error("expected a name");
+            return source.substring(start, position);
+        }
+
+        /**
+         * Consumes the given character.
+         * @param c The expected character.
+         */
+        private void expect(char c) {
+            if (!peek(c)) throw error("expected '" + c + "'");
+            position++;
+        }
+
+        /**
+         * Returns whether the next non-whitespace character is the given character, without consuming it.
+         * @param c The character to check for.
+         * @return Whether the next non-whitespace character is the given character.
+         */
+        private boolean peek(char c) {
+            skipWhitespace();
+            if (position >= source.length()) throw error("unexpected end of file");
+            return source.charAt(position) == c;
+        }
+
+        /**
+         * Skips whitespace and comments.
+         */
+        private void skipWhitespace() {
+            while (position < source.length()) {
+                char c = source.charAt(position);
+                if (c == '#') {
+                    while (position < source.length() && source.charAt(position) != '\n') position++;
+                } else if (Character.isWhitespace(c)) {
+                    if (c == '\n') line++;
+                    position++;
+                } else {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Creates an exception describing a syntax error at the current line.
+         * @param message The description of the error.
+         * @return The exception.
+         */
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Line " + line + ": " + message + ".");
+        }
+    }
+
+    /**
+     * A {@link ByteArrayOutputStream} which allows bytes that were already written to be replaced.
+     */
+    private static final class Output extends ByteArrayOutputStream {
+        /**
+         * Replaces the byte at the given index.
+         * @param index The index of the byte to replace.
+         * @param value The new value of the byte.
+         */
+        void patch(int index, byte value) {
+            buf[index] = value;
+        }
+    }
+}
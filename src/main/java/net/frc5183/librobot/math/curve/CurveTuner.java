@@ -0,0 +1,280 @@
+package net.frc5183.librobot.math.curve;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableListener;
+import edu.wpi.first.wpilibj.DriverStation;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Exposes the parameters of {@link Curve}s as NetworkTables entries so they can be tuned live.
+ * <p>
+ * Remote edits are received by {@link NetworkTableListener}s on the NetworkTables thread and only recorded;
+ * they are applied to the curves in one batch when {@link #applyChanges()} is called, which should happen
+ * once per loop (for example at the start of robotPeriodic). When nothing has been edited,
+ * {@link #applyChanges()} only reads a single flag, so no entries are polled every loop.
+ */
+public class CurveTuner implements AutoCloseable {
+    /**
+     * The table the parameters are published under.
+     */
+    @NotNull
+    private final NetworkTable table;
+
+    /**
+     * Guards the pending values written by the listener thread.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Whether any parameter has a pending remote edit.
+     */
+    private volatile boolean changed;
+
+    /**
+     * The number of bound parameters.
+     */
+    private int count;
+
+    /**
+     * The getters of the bound parameters.
+     */
+    private DoubleSupplier[] getters = new DoubleSupplier[0];
+
+    /**
+     * The setters of the bound parameters.
+     */
+    private DoubleConsumer[] setters = new DoubleConsumer[0];
+
+    /**
+     * The publishers of the bound parameters.
+     */
+    private DoublePublisher[] publishers = new DoublePublisher[0];
+
+    /**
+     * The listeners of the bound parameters.
+     */
+    private NetworkTableListener[] listeners = new NetworkTableListener[0];
+
+    /**
+     * The last remote value received for each parameter.
+     */
+    private double[] pending = new double[0];
+
+    /**
+     * Whether each parameter has a pending remote edit.
+     */
+    private boolean[] dirty = new boolean[0];
+
+    /**
+     * Whether each parameter failed to apply in the first pass of the current batch.
+     */
+    private boolean[] failed = new boolean[0];
+
+    /**
+     * Creates a new {@link CurveTuner} which publishes under the given table.
+     * @param table The table to publish the parameters under.
+     */
+    public CurveTuner(@NotNull NetworkTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Creates a new {@link CurveTuner} which publishes under the given table of the default instance.
+     * @param tableName The name of the table to publish the parameters under.
+     */
+    public CurveTuner(@NotNull String tableName) {
+        this(NetworkTableInstance.getDefault().getTable(tableName));
+    }
+
+    /**
+     * Binds all tunable parameters of the given curve under the given name.
+     * Nested curves (such as the curve of a {@link LimitedCurve}) are bound under "name/curve".
+     * @param name The name to publish the curve's parameters under.
+     * @param curve The curve to bind.
+     * @throws IllegalArgumentException If the curve's parameters are not known to this tuner,
+     * use {@link #bind(String, DoubleSupplier, DoubleConsumer)} for those.
+     */
+    public void bind(@NotNull String name, @NotNull Curve curve) {
+        if (curve instanceof LinearCurve linear) {
+            bind(name + "/slope", linear::getSlope, linear::setSlope);
+            bind(name + "/yIntercept", linear::getYIntercept, linear::setYIntercept);
+        } else if (curve instanceof QuadraticCurve quadratic) {
+            bind(name + "/a", quadratic::getA, quadratic::setA);
+            bind(name + "/b", quadratic::getB, quadratic::setB);
+            bind(name + "/c", quadratic::getC, quadratic::setC);
+        } else if (curve instanceof ExponentialCurve exponential) {
+            bind(name + "/exaggeration", exponential::getExaggeration, exponential::setExaggeration);
+        } else if (curve instanceof RadicalCurve radical) {
+            bind(name + "/a", radical::getA, radical::setA);
+            bind(name + "/b", radical::getB, radical::setB);
+            bind(name + "/c", radical::getC, radical::setC);
+        } else if (curve instanceof LimitedCurve limited) {
+            bind(name + "/min", limited::getMin, limited::setMin);
+            bind(name + "/max", limited::getMax, limited::setMax);
+            bind(name + "/curve", limited.getCurve());
+        } else if (curve instanceof TimedCurve timed) {
+            bind(name + "/delayEnabled", timed::getDelayEnabled, timed::setDelayEnabled);
+            bind(name + "/delayDisabled", timed::getDelayDisabled, timed::setDelayDisabled);
+
+            if (timed instanceof NormalTimedCurve normal) bind(name + "/curve", normal.getCurve());
+            else if (timed instanceof ZeroTimedCurve zero) bind(name + "/curve", zero.getCurve());
+            else if (timed instanceof DoubleTimedCurve doubleTimed) {
+                bind(name + "/enabledCurve", doubleTimed.getEnabledCurve());
+                bind(name + "/disabledCurve", doubleTimed.getDisabledCurve());
+            }
+        } else {
+            throw new IllegalArgumentException("Cannot bind parameters of " + curve.getClass().getSimpleName() + ".");
+        }
+    }
+
+    /**
+     * Binds a single parameter under the given name.
+     * The current value is published immediately, remote edits are applied by {@link #applyChanges()}.
+     * @param name The name to publish the parameter under.
+     * @param getter Returns the current value of the parameter.
+     * @param setter Sets the value of the parameter, may throw {@link IllegalArgumentException} to reject a value.
+     */
+    public void bind(@NotNull String name, @NotNull DoubleSupplier getter, @NotNull DoubleConsumer setter) {
+        synchronized (lock) {
+            int slot = count;
+            if (slot == getters.length) grow(Math.max(8, slot * 2));
+
+            DoublePublisher publisher = table.getDoubleTopic(name).publish();
+            publisher.set(getter.getAsDouble());
+
+            getters[slot] = getter;
+            setters[slot] = setter;
+            publishers[slot] = publisher;
+            listeners[slot] = NetworkTableListener.createListener(
+                    table.getDoubleTopic(name),
+                    EnumSet.of(NetworkTableEvent.Kind.kValueRemote),
+                    event -> receive(slot, event.valueData.value.getDouble())
+            );
+            count++;
+        }
+    }
+
+    /**
+     * Applies all remote edits received since the last call in one batch.
+     * Values rejected by a setter are retried once after the rest of the batch has been applied (so that,
+     * for example, a new min and max of a {@link LimitedCurve} can be applied together), and then the current
+     * value is republished.
+     * @return The number of parameters which were changed.
+     */
+    public int applyChanges() {
+        if (!changed) return 0;
+
+        synchronized (lock) {
+            changed = false;
+            int applied = 0;
+
+            for (int i = 0; i < count; i++) {
+                if (!dirty[i]) continue;
+                failed[i] = !trySet(i);
+                if (!failed[i]) applied++;
+            }
+
+            for (int i = 0; i < count; i++) {
+                if (!dirty[i]) continue;
+                dirty[i] = false;
+
+                if (failed[i]) {
+                    failed[i] = false;
+                    if (trySet(i)) {
+                        applied++;
+                    } else {
+                        DriverStation.reportWarning("Rejected tuned value " + pending[i] + " for "
+                                + publishers[i].getTopic().getName() + ".", false);
+                        publishers[i].set(getters[i].getAsDouble());
+                    }
+                }
+            }
+
+            return applied;
+        }
+    }
+
+    /**
+     * Republishes the current value of every bound parameter.
+     * Useful after the curves have been changed from code.
+     */
+    public void publish() {
+        synchronized (lock) {
+            for (int i = 0; i < count; i++) {
+                publishers[i].set(getters[i].getAsDouble());
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bound parameters.
+     * @return The number of bound parameters.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Stops listening for remote edits and unpublishes every parameter.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            for (int i = 0; i < count; i++) {
+                listeners[i].close();
+                publishers[i].close();
+            }
+            count = 0;
+            changed = false;
+        }
+    }
+
+    /**
+     * Records a remote edit, called from the NetworkTables listener thread.
+     * @param slot The slot of the edited parameter.
+     * @param value The new value of the parameter.
+     */
+    private void receive(int slot, double value) {
+        synchronized (lock) {
+            pending[slot] = value;
+            dirty[slot] = true;
+            changed = true;
+        }
+    }
+
+    /**
+     * Tries to apply the pending value of the given slot.
+     * @param slot The slot to apply.
+     * @return Whether the value was accepted by the setter.
+     */
+    private boolean trySet(int slot) {
+        try {
+            setters[slot].accept(pending[slot]);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Grows the slot arrays to the given capacity.
+     * @param capacity The new capacity.
+     */
+    private void grow(int capacity) {
+        getters = Arrays.copyOf(getters, capacity);
+        setters = Arrays.copyOf(setters, capacity);
+        publishers = Arrays.copyOf(publishers, capacity);
+        listeners = Arrays.copyOf(listeners, capacity);
+        pending = Arrays.copyOf(pending, capacity);
+        dirty = Arrays.copyOf(dirty, capacity);
+        failed = Arrays.copyOf(failed, capacity);
+    }
+}
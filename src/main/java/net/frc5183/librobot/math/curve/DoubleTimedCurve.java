@@ -42,6 +42,26 @@ public class DoubleTimedCurve extends TimedCurve {
         return disabledCurve.curve(x);
     }
 
+    @Override
+    protected double enabledDerivative(double x) {
+        return enabledCurve.derivative(x);
+    }
+
+    @Override
+    protected double disabledDerivative(double x) {
+        return disabledCurve.derivative(x);
+    }
+
+    @Override
+    protected double enabledInverse(double y) {
+        return enabledCurve.inverse(y);
+    }
+
+    @Override
+    protected double disabledInverse(double y) {
+        return disabledCurve.inverse(y);
+    }
+
     /**
      * Returns the curve to use when this curve is enabled.
      * @return The curve to use when this curve is enabled.
@@ -31,6 +31,20 @@ public class ExponentialCurve extends Curve {
         return (x / Math.abs(x)) * ((Math.pow(1 + exaggeration, Math.abs(x))) - 1) / exaggeration; // NOPMD - extra parentheses make the equation easier to read
     }
 
+    @Override
+    public double derivative(double x) {
+        // y' = ln(1 + exaggeration) * (1 + exaggeration)^|x| / exaggeration
+        return Math.log1p(exaggeration) * Math.pow(1 + exaggeration, Math.abs(x)) / exaggeration;
+    }
+
+    @Override
+    public double inverse(double y) {
+        if (y == 0) return 0d;
+
+        // x = (y/|y|) * ln(1 + exaggeration * |y|) / ln(1 + exaggeration)
+        return Math.signum(y) * Math.log1p(exaggeration * Math.abs(y)) / Math.log1p(exaggeration);
+    }
+
     /**
      * Returns the exaggeration of the curve.
      * @return The exaggeration of the curve.
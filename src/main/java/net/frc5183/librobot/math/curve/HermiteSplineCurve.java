@@ -0,0 +1,54 @@
+package net.frc5183.librobot.math.curve;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link SplineCurve} which passes through the given points using cubic Hermite segments.
+ * The slopes at each point are either given or estimated from the neighbouring points (a Catmull-Rom style spline).
+ */
+public class HermiteSplineCurve extends SplineCurve {
+    /**
+     * Creates a new {@link HermiteSplineCurve} through the given points with the given slopes.
+     * @param x The x values of the points, strictly increasing.
+     * @param y The y values of the points.
+     * @param slopes The slopes of the curve at each point.
+     * @throws IllegalArgumentException If the arrays do not have the same length, there are fewer than two points
+     * or the x values are not strictly increasing.
+     */
+    public HermiteSplineCurve(@NotNull double[] x, @NotNull double[] y, @NotNull double[] slopes) {
+        super(x.clone(), hermiteCoefficients(x, y, slopes));
+    }
+
+    /**
+     * Creates a new {@link HermiteSplineCurve} through the given points.
+     * The slope at each point is the slope between its neighbours, or the slope to its only neighbour at the ends.
+     * @param x The x values of the points, strictly increasing.
+     * @param y The y values of the points.
+     * @throws IllegalArgumentException If the arrays do not have the same length, there are fewer than two points
+     * or the x values are not strictly increasing.
+     */
+    public HermiteSplineCurve(@NotNull double[] x, @NotNull double[] y) {
+        this(x, y, estimateSlopes(x, y));
+    }
+
+    /**
+     * Estimates the slope at each point from its neighbours.
+     * @param x The x values of the points.
+     * @param y The y values of the points.
+     * @return The estimated slope at each point.
+     * @throws IllegalArgumentException If the arrays do not have the same length or the x values are not strictly increasing.
+     */
+    private static double[] estimateSlopes(double[] x, double[] y) {
+        if (x.length != y.length) throw new IllegalArgumentException("There must be one y value per x value.");
+        checkKnots(x);
+
+        int last = x.length - 1;
+        double[] slopes = new double[x.length];
+        slopes[0] = (y[1] - y[0]) / (x[1] - x[0]);
+        slopes[last] = (y[last] - y[last - 1]) / (x[last] - x[last - 1]);
+        for (int i = 1; i < last; i++) {
+            slopes[i] = (y[i + 1] - y[i - 1]) / (x[i + 1] - x[i - 1]);
+        }
+        return slopes;
+    }
+}
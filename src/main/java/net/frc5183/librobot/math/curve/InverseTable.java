@@ -0,0 +1,96 @@
+package net.frc5183.librobot.math.curve;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A table of samples of a function used to invert it by interpolation.
+ * Monotone functions are inverted with a binary search, other functions return the first crossing found.
+ */
+final class InverseTable {
+    /**
+     * The sampled x values, evenly spaced.
+     */
+    @NotNull
+    private final double[] xs;
+
+    /**
+     * The sampled y values, negated if the function is decreasing so that they are always ascending when monotone.
+     */
+    @NotNull
+    private final double[] ys;
+
+    /**
+     * 1 if the function is increasing, -1 if it is decreasing and 0 if it is neither.
+     */
+    private final int direction;
+
+    /**
+     * Samples the given function into a new {@link InverseTable}.
+     * @param function The function to sample.
+     * @param min The smallest x value to sample.
+     * @param max The largest x value to sample.
+     * @param samples The number of samples to take.
+     */
+    InverseTable(@NotNull DoubleUnaryOperator function, double min, double max, int samples) {
+        xs = new double[samples];
+        ys = new double[samples];
+
+        boolean increasing = true;
+        boolean decreasing = true;
+        for (int i = 0; i < samples; i++) {
+            xs[i] = min + (max - min) * i / (samples - 1);
+            ys[i] = function.applyAsDouble(xs[i]);
+
+            if (i > 0) {
+                increasing &= ys[i] >= ys[i - 1];
+                decreasing &= ys[i] <= ys[i - 1];
+            }
+        }
+
+        if (increasing) {
+            direction = 1;
+        } else if (decreasing) {
+            direction = -1;
+            for (int i = 0; i < samples; i++) ys[i] = -ys[i];
+        } else {
+            direction = 0;
+        }
+    }
+
+    /**
+     * Returns an x value for which the sampled function gives the given y value.
+     * @param y The y value to invert.
+     * @return An x value for which the sampled function gives the given y value,
+     * or {@link Double#NaN} if the value is outside the sampled range.
+     */
+    double inverse(double y) {
+        if (direction == 0) {
+            for (int i = 1; i < ys.length; i++) {
+                if ((ys[i - 1] <= y && y <= ys[i]) || (ys[i] <= y && y <= ys[i - 1])) return interpolate(i - 1, y);
+            }
+            return Double.NaN;
+        }
+
+        double target = direction * y;
+        if (target < ys[0] || target > ys[ys.length - 1]) return Double.NaN;
+
+        int index = Arrays.binarySearch(ys, target);
+        if (index >= 0) return xs[index];
+        return interpolate(-index - 2, target);
+    }
+
+    /**
+     * Linearly interpolates the x value of the given y value between samples i and i + 1.
+     * @param i The index of the first sample.
+     * @param y The (possibly negated) y value to interpolate.
+     * @return The interpolated x value.
+     */
+    private double interpolate(int i, double y) {
+        double dy = ys[i + 1] - ys[i];
+        if (dy == 0) return xs[i];
+        return xs[i] + (xs[i + 1] - xs[i]) * (y - ys[i]) / dy;
+    }
+}
@@ -43,6 +43,19 @@ public class LimitedCurve extends Curve {
         return Math.min(Math.max(y, min), max);
     }
 
+    @Override
+    public double derivative(double x) {
+        double y = curve.curve(x);
+        if (y < min || y > max) return 0d;
+        return curve.derivative(x);
+    }
+
+    @Override
+    public double inverse(double y) {
+        if (y < min || y > max) return Double.NaN;
+        return curve.inverse(y);
+    }
+
     /**
      * Returns the curve to limit.
      * @return The curve to limit.
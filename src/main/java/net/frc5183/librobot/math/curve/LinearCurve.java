@@ -30,6 +30,19 @@ public class LinearCurve extends Curve {
         return slope * x + yIntercept;
     }
 
+    @Override
+    public double derivative(double x) {
+        return slope;
+    }
+
+    @Override
+    public double inverse(double y) {
+        if (slope == 0) return Double.NaN;
+
+        // x = (y - b) / m
+        return (y - yIntercept) / slope;
+    }
+
     /**
      * Returns the slope of the curve.
      * @return The slope of the curve.
@@ -0,0 +1,64 @@
+package net.frc5183.librobot.math.curve;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link SplineCurve} which passes through the given points without overshooting them.
+ * Between two points the curve never leaves the range of their y values, so a set of increasing points
+ * gives an increasing curve. The slopes are chosen with the Fritsch-Carlson method.
+ */
+public class MonotoneSplineCurve extends SplineCurve {
+    /**
+     * Creates a new {@link MonotoneSplineCurve} through the given points.
+     * @param x The x values of the points, strictly increasing.
+     * @param y The y values of the points.
+     * @throws IllegalArgumentException If the arrays do not have the same length, there are fewer than two points
+     * or the x values are not strictly increasing.
+     */
+    public MonotoneSplineCurve(@NotNull double[] x, @NotNull double[] y) {
+        super(x.clone(), hermiteCoefficients(x, y, monotoneSlopes(x, y)));
+    }
+
+    /**
+     * Computes slopes at each point which keep every segment monotone.
+     * @param x The x values of the points.
+     * @param y The y values of the points.
+     * @return The slope at each point.
+     * @throws IllegalArgumentException If the arrays do not have the same length or the x values are not strictly increasing.
+     */
+    private static double[] monotoneSlopes(double[] x, double[] y) {
+        if (x.length != y.length) throw new IllegalArgumentException("There must be one y value per x value.");
+        checkKnots(x);
+
+        int segments = x.length - 1;
+        double[] secants = new double[segments];
+        for (int i = 0; i < segments; i++) {
+            secants[i] = (y[i + 1] - y[i]) / (x[i + 1] - x[i]);
+        }
+
+        double[] slopes = new double[x.length];
+        slopes[0] = secants[0];
+        slopes[segments] = secants[segments - 1];
+        for (int i = 1; i < segments; i++) {
+            slopes[i] = secants[i - 1] * secants[i] <= 0 ? 0 : (secants[i - 1] + secants[i]) / 2;
+        }
+
+        for (int i = 0; i < segments; i++) {
+            if (secants[i] == 0) {
+                slopes[i] = 0;
+                slopes[i + 1] = 0;
+                continue;
+            }
+
+            double alpha = slopes[i] / secants[i];
+            double beta = slopes[i + 1] / secants[i];
+            double length = alpha * alpha + beta * beta;
+            if (length > 9) {
+                double tau = 3 / Math.sqrt(length);
+                slopes[i] = tau * alpha * secants[i];
+                slopes[i + 1] = tau * beta * secants[i];
+            }
+        }
+        return slopes;
+    }
+}
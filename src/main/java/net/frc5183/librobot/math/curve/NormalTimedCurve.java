@@ -25,7 +25,7 @@ public class NormalTimedCurve extends TimedCurve {
 
     @Override
     protected double enabled(double x) {
-        return curve(x);
+        return curve.curve(x);
     }
 
     @Override
@@ -33,6 +33,26 @@ public class NormalTimedCurve extends TimedCurve {
         return x;
     }
 
+    @Override
+    protected double enabledDerivative(double x) {
+        return curve.derivative(x);
+    }
+
+    @Override
+    protected double disabledDerivative(double x) {
+        return 1d;
+    }
+
+    @Override
+    protected double enabledInverse(double y) {
+        return curve.inverse(y);
+    }
+
+    @Override
+    protected double disabledInverse(double y) {
+        return y;
+    }
+
     /**
      * Returns the curve to use when this curve is enabled.
      * @return The curve to use when this curve is enabled.
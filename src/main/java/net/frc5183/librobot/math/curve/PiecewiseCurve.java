@@ -3,24 +3,51 @@ package net.frc5183.librobot.math.curve;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.DoublePredicate;
 import java.util.function.Function;
 
 /**
  * A {@link Curve} which represents a curve that is defined by multiple curves.
  * The curve is determined by the first curve that returns true for its condition.
  * If no conditions are met, the curve returns 0.
+ * <p>
+ * Conditions written as {@link Condition}s are tested without boxing the x value,
+ * so evaluating such a curve does not allocate.
  */
 public class PiecewiseCurve extends Curve {
+    /**
+     * A condition of a {@link PiecewiseCurve} which can be tested without boxing.
+     * For example {@code (PiecewiseCurve.Condition) x -> x < 0}.
+     */
+    @FunctionalInterface
+    public interface Condition extends Function<Double, Boolean>, DoublePredicate {
+        @Override
+        default Boolean apply(Double x) {
+            return test(x);
+        }
+    }
+
     /**
      * A map of conditions to curves.
      */
     private final Map<Function<Double, Boolean>, Curve> curves;
 
+    /**
+     * The conditions in iteration order of the map, refreshed whenever it is changed through this curve.
+     */
+    private Function<Double, Boolean>[] conditions;
+
+    /**
+     * The curves in iteration order of the map, refreshed whenever it is changed through this curve.
+     */
+    private Curve[] pieces;
+
     /**
      * Creates a new {@link PiecewiseCurve} with no curves.
      */
     public PiecewiseCurve() {
         this.curves = Map.of();
+        refresh();
     }
 
     /**
@@ -30,6 +57,7 @@ public class PiecewiseCurve extends Curve {
      */
     public PiecewiseCurve(Function<Double, Boolean> condition, Curve curve) {
         this.curves = Map.of(condition, curve);
+        refresh();
     }
 
     /**
@@ -39,24 +67,69 @@ public class PiecewiseCurve extends Curve {
     @SafeVarargs
     public PiecewiseCurve(Map.Entry<Function<Double, Boolean>, Curve>... curves) {
         this.curves = Map.ofEntries(curves);
+        refresh();
     }
 
     /**
      * Creates a new {@link PiecewiseCurve} with the given conditions and curves.
+     * Changes made to the map other than through this curve are not seen by it.
      * @param curves The conditions and curves to use.
      */
     public PiecewiseCurve(Map<Function<Double, Boolean>, Curve> curves) {
         this.curves = curves;
+        refresh();
     }
 
     @Override
     public double curve(double x) {
-        for (Map.Entry<Function<Double, Boolean>, Curve> entry : curves.entrySet()) {
-            if (entry.getKey().apply(x)) {
-                return entry.getValue().curve(x);
+        Curve curve = find(x);
+        return curve == null ? 0d : curve.curve(x);
+    }
+
+    @Override
+    public double derivative(double x) {
+        Curve curve = find(x);
+        return curve == null ? 0d : curve.derivative(x);
+    }
+
+    /**
+     * Returns an x value for which this curve gives the given y value.
+     * Each curve is inverted in turn and the first x value which that curve is actually used for is returned.
+     * @param y The y value to invert.
+     * @return An x value for which this curve gives the given y value, or {@link Double#NaN} if there is none.
+     */
+    @Override
+    public double inverse(double y) {
+        for (Curve curve : pieces) {
+            double x = curve.inverse(y);
+            if (!Double.isNaN(x) && find(x) == curve) return x;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Returns the curve used at the given x value.
+     * @param x The x value to find the curve for.
+     * @return The curve of the first condition which is true for the given x value, or null if there is none.
+     */
+    private Curve find(double x) {
+        for (int i = 0; i < conditions.length; i++) {
+            Function<Double, Boolean> condition = conditions[i];
+            if (condition instanceof DoublePredicate predicate ? predicate.test(x) : condition.apply(x)) {
+                return pieces[i];
             }
         }
-        return 0d;
+        return null;
+    }
+
+    /**
+     * Copies the conditions and curves out of the map so they can be iterated without allocating.
+     */
+    @SuppressWarnings("unchecked")
+    private void refresh() {
+        conditions = curves.keySet().toArray(new Function[0]);
+        pieces = new Curve[conditions.length];
+        for (int i = 0; i < conditions.length; i++) pieces[i] = curves.get(conditions[i]);
     }
 
     /**
@@ -90,6 +163,7 @@ public class PiecewiseCurve extends Curve {
      */
     public void replace(Function<Double, Boolean> condition, Curve curve) {
         curves.replace(condition, curve);
+        refresh();
     }
 
     /**
@@ -99,6 +173,7 @@ public class PiecewiseCurve extends Curve {
      */
     public void put(Function<Double, Boolean> condition, Curve curve) {
         curves.put(condition, curve);
+        refresh();
     }
 
     /**
@@ -116,6 +191,7 @@ public class PiecewiseCurve extends Curve {
      */
     public void remove(Function<Double, Boolean> condition) {
         curves.remove(condition);
+        refresh();
     }
 
     /**
@@ -123,5 +199,6 @@ public class PiecewiseCurve extends Curve {
      */
     public void clear() {
         curves.clear();
+        refresh();
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package net.frc5183.librobot.math.curve;
 
 /**
  * A {@link Curve} which represents a quadratic equation in the form Ax^2 + Bx + C.
+ * Since a parabola has two x values for most y values, {@link #inverse(double)} returns the one on or to the right of the vertex.
  */
 public class QuadraticCurve extends Curve {
     /**
@@ -37,6 +38,23 @@ public class QuadraticCurve extends Curve {
         return (a * Math.pow(x, 2)) + (b * x) + c;
     }
 
+    @Override
+    public double derivative(double x) {
+        // y' = 2Ax + B
+        return 2 * a * x + b;
+    }
+
+    @Override
+    public double inverse(double y) {
+        if (a == 0) return b == 0 ? Double.NaN : (y - c) / b;
+
+        double discriminant = b * b - 4 * a * (c - y);
+        if (discriminant < 0) return Double.NaN;
+
+        // x = -B/2A + sqrt(B^2 - 4A(C - y)) / 2|A|
+        return -b / (2 * a) + Math.sqrt(discriminant) / (2 * Math.abs(a));
+    }
+
     /**
      * Returns the "A" variable in the curve equation.
      * @return The "A" variable in the curve equation.
@@ -40,6 +40,18 @@ public class RadicalCurve extends Curve {
         return Math.pow(x + c, 1 / a) + b;
     }
 
+    @Override
+    public double derivative(double x) {
+        // y' = (1/A)(x+C)^(1/A - 1)
+        return Math.pow(x + c, 1 / a - 1) / a;
+    }
+
+    @Override
+    public double inverse(double y) {
+        // x = (y-B)^A - C
+        return Math.pow(y - b, a) - c;
+    }
+
     /**
      * Returns the "A" variable in the curve equation.
      * @return The "A" variable in the curve equation.
@@ -0,0 +1,194 @@
+package net.frc5183.librobot.math.curve;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A {@link Curve} made of cubic polynomial segments between knots.
+ * Each segment is stored as four coefficients in one flat array so that evaluation is a segment lookup
+ * followed by a Horner evaluation of y = c0 + c1*t + c2*t^2 + c3*t^3, where t is the distance from the segment's first knot.
+ * The segment lookup is a binary search, or plain index arithmetic when the knots are evenly spaced.
+ * Outside the knots the curve holds the value of the nearest end.
+ * {@link #inverse(double)} uses the cached inverse table sampled over the knots.
+ */
+public abstract class SplineCurve extends Curve {
+    /**
+     * The relative tolerance used to decide whether the knots are evenly spaced.
+     */
+    private static final double UNIFORM_TOLERANCE = 1e-9;
+
+    /**
+     * The x values of the knots, strictly increasing.
+     */
+    @NotNull
+    private final double[] knots;
+
+    /**
+     * The coefficients of every segment, four per segment, lowest order first.
+     */
+    @NotNull
+    private final double[] coefficients;
+
+    /**
+     * The index of the last segment.
+     */
+    private final int lastSegment;
+
+    /**
+     * Whether the knots are evenly spaced.
+     */
+    private final boolean uniform;
+
+    /**
+     * One over the spacing between knots, only used when the knots are evenly spaced.
+     */
+    private final double inverseSpacing;
+
+    /**
+     * Creates a new {@link SplineCurve} with the given knots and segment coefficients.
+     * @param knots The x values of the knots, strictly increasing. The array is not copied.
+     * @param coefficients The coefficients of every segment, four per segment, lowest order first. The array is not copied.
+     * @throws IllegalArgumentException If there are fewer than two knots, the knots are not strictly increasing
+     * or there are not four coefficients per segment.
+     */
+    protected SplineCurve(@NotNull double[] knots, @NotNull double[] coefficients) {
+        checkKnots(knots);
+        if (coefficients.length != (knots.length - 1) * 4) {
+            throw new IllegalArgumentException("There must be four coefficients per segment.");
+        }
+
+        this.knots = knots;
+        this.coefficients = coefficients;
+        this.lastSegment = knots.length - 2;
+
+        double spacing = (knots[knots.length - 1] - knots[0]) / (knots.length - 1);
+        boolean even = true;
+        for (int i = 1; i < knots.length; i++) {
+            if (Math.abs(knots[i] - knots[0] - spacing * i) > UNIFORM_TOLERANCE * spacing * i) {
+                even = false;
+                break;
+            }
+        }
+        this.uniform = even;
+        this.inverseSpacing = 1 / spacing;
+
+        setInverseDomain(knots[0], knots[knots.length - 1]);
+    }
+
+    @Override
+    public double curve(double x) {
+        int segment = segment(x);
+        double t = Math.min(Math.max(x, knots[0]), knots[lastSegment + 1]) - knots[segment];
+        int i = segment * 4;
+
+        // y = c0 + t * (c1 + t * (c2 + t * c3))
+        return coefficients[i] + t * (coefficients[i + 1] + t * (coefficients[i + 2] + t * coefficients[i + 3]));
+    }
+
+    @Override
+    public double derivative(double x) {
+        if (x < knots[0] || x > knots[lastSegment + 1]) return 0d;
+
+        int segment = segment(x);
+        double t = x - knots[segment];
+        int i = segment * 4;
+
+        // y' = c1 + t * (2c2 + t * 3c3)
+        return coefficients[i + 1] + t * (2 * coefficients[i + 2] + t * 3 * coefficients[i + 3]);
+    }
+
+    /**
+     * Returns the index of the segment containing the given x value, clamped to the first and last segments.
+     * NaN falls in the first segment, so it evaluates to NaN rather than indexing past the last segment.
+     * @param x The x value to find the segment of.
+     * @return The index of the segment containing the given x value.
+     */
+    protected int segment(double x) {
+        // Negated so NaN, which fails every comparison, is caught here.
+        if (!(x > knots[0])) return 0;
+        if (x >= knots[lastSegment + 1]) return lastSegment;
+
+        if (uniform) {
+            return Math.min((int) ((x - knots[0]) * inverseSpacing), lastSegment);
+        }
+
+        int index = Arrays.binarySearch(knots, x);
+        if (index >= 0) return Math.min(index, lastSegment);
+        return -index - 2;
+    }
+
+    /**
+     * Returns the coefficients of every segment, four per segment, lowest order first.
+     * The array is shared with this curve and must not be modified.
+     * @return The coefficients of every segment.
+     */
+    protected @NotNull double[] getCoefficients() {
+        return coefficients;
+    }
+
+    /**
+     * Returns a copy of the x values of the knots.
+     * @return A copy of the x values of the knots.
+     */
+    public @NotNull double[] getKnots() {
+        return knots.clone();
+    }
+
+    /**
+     * Returns the number of cubic segments in this curve.
+     * @return The number of cubic segments in this curve.
+     */
+    public int getSegmentCount() {
+        return lastSegment + 1;
+    }
+
+    /**
+     * Returns whether the knots are evenly spaced, in which case segments are found without searching.
+     * @return Whether the knots are evenly spaced.
+     */
+    public boolean isUniform() {
+        return uniform;
+    }
+
+    /**
+     * Computes the segment coefficients of a cubic Hermite spline.
+     * @param x The x values of the knots.
+     * @param y The y values of the knots.
+     * @param slopes The slopes of the curve at each knot.
+     * @return The coefficients of every segment, four per segment, lowest order first.
+     * @throws IllegalArgumentException If the arrays do not have the same length.
+     */
+    protected static @NotNull double[] hermiteCoefficients(@NotNull double[] x, @NotNull double[] y, @NotNull double[] slopes) {
+        if (x.length != y.length || x.length != slopes.length) {
+            throw new IllegalArgumentException("There must be one y value and one slope per knot.");
+        }
+        checkKnots(x);
+
+        double[] coefficients = new double[(x.length - 1) * 4];
+        for (int i = 0; i < x.length - 1; i++) {
+            double h = x[i + 1] - x[i];
+            double secant = (y[i + 1] - y[i]) / h;
+
+            coefficients[i * 4] = y[i];
+            coefficients[i * 4 + 1] = slopes[i];
+            coefficients[i * 4 + 2] = (3 * secant - 2 * slopes[i] - slopes[i + 1]) / h;
+            coefficients[i * 4 + 3] = (slopes[i] + slopes[i + 1] - 2 * secant) / (h * h);
+        }
+        return coefficients;
+    }
+
+    /**
+     * Checks that there are at least two knots and that they are finite and strictly increasing.
+     * @param knots The x values of the knots.
+     * @throws IllegalArgumentException If there are fewer than two knots or they are not finite and strictly increasing.
+     */
+    protected static void checkKnots(@NotNull double[] knots) {
+        if (knots.length < 2) throw new IllegalArgumentException("There must be at least two knots.");
+
+        for (int i = 0; i < knots.length; i++) {
+            if (!Double.isFinite(knots[i])) throw new IllegalArgumentException("Knots must be finite.");
+            if (i > 0 && knots[i] <= knots[i - 1]) throw new IllegalArgumentException("Knots must be strictly increasing.");
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package net.frc5183.librobot.math.curve;
 
 import edu.wpi.first.wpilibj.Timer;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * A {@link Curve} which toggles between two outputs based on a timer.
@@ -26,6 +27,18 @@ public abstract class TimedCurve extends Curve {
      */
     private double delayDisabled;
 
+    /**
+     * The cached inverse table of {@link #enabled(double)}.
+     */
+    @Nullable
+    private InverseTable enabledInverseTable;
+
+    /**
+     * The cached inverse table of {@link #disabled(double)}.
+     */
+    @Nullable
+    private InverseTable disabledInverseTable;
+
     /**
      * Creates a new {@link TimedCurve} with the given delays.
      * @param delayEnabled The delay in seconds before the curve is enabled.
@@ -49,6 +62,26 @@ public abstract class TimedCurve extends Curve {
         return disabled ? disabled(x) : enabled(x);
     }
 
+    /**
+     * Returns the slope of the current output at the given x value, without advancing the timer.
+     * @param x The x value to evaluate the slope at.
+     * @return The slope of the current output at the given x value.
+     */
+    @Override
+    public double derivative(double x) {
+        return disabled ? disabledDerivative(x) : enabledDerivative(x);
+    }
+
+    /**
+     * Inverts the current output at the given y value, without advancing the timer.
+     * @param y The y value to invert.
+     * @return An x value for which the current output gives the given y value, or {@link Double#NaN} if there is none.
+     */
+    @Override
+    public double inverse(double y) {
+        return disabled ? disabledInverse(y) : enabledInverse(y);
+    }
+
     /**
      * Returns the value of the curve when it is enabled.
      * @param x The x value to evaluate the curve at.
@@ -63,6 +96,63 @@ public abstract class TimedCurve extends Curve {
      */
     protected abstract double disabled(double x);
 
+    /**
+     * Returns the slope of the curve when it is enabled.
+     * Defaults to a central difference of {@link #enabled(double)}.
+     * @param x The x value to evaluate the slope at.
+     * @return The slope of the curve when it is enabled.
+     */
+    protected double enabledDerivative(double x) {
+        return (enabled(x + DERIVATIVE_STEP) - enabled(x - DERIVATIVE_STEP)) / (2 * DERIVATIVE_STEP);
+    }
+
+    /**
+     * Returns the slope of the curve when it is disabled.
+     * Defaults to a central difference of {@link #disabled(double)}.
+     * @param x The x value to evaluate the slope at.
+     * @return The slope of the curve when it is disabled.
+     */
+    protected double disabledDerivative(double x) {
+        return (disabled(x + DERIVATIVE_STEP) - disabled(x - DERIVATIVE_STEP)) / (2 * DERIVATIVE_STEP);
+    }
+
+    /**
+     * Inverts the curve when it is enabled.
+     * Defaults to a cached inverse table of {@link #enabled(double)} over the inverse domain.
+     * @param y The y value to invert.
+     * @return An x value for which the enabled curve gives the given y value, or {@link Double#NaN} if there is none.
+     */
+    protected double enabledInverse(double y) {
+        InverseTable table = enabledInverseTable;
+        if (table == null) {
+            table = new InverseTable(this::enabled, getInverseDomainMin(), getInverseDomainMax(), INVERSE_SAMPLES);
+            enabledInverseTable = table;
+        }
+        return table.inverse(y);
+    }
+
+    /**
+     * Inverts the curve when it is disabled.
+     * Defaults to a cached inverse table of {@link #disabled(double)} over the inverse domain.
+     * @param y The y value to invert.
+     * @return An x value for which the disabled curve gives the given y value, or {@link Double#NaN} if there is none.
+     */
+    protected double disabledInverse(double y) {
+        InverseTable table = disabledInverseTable;
+        if (table == null) {
+            table = new InverseTable(this::disabled, getInverseDomainMin(), getInverseDomainMax(), INVERSE_SAMPLES);
+            disabledInverseTable = table;
+        }
+        return table.inverse(y);
+    }
+
+    @Override
+    protected void invalidateInverse() {
+        super.invalidateInverse();
+        enabledInverseTable = null;
+        disabledInverseTable = null;
+    }
+
     /**
      * Returns the delay in seconds before the curve is enabled.
      * @return The delay in seconds before the curve is enabled.
@@ -33,6 +33,26 @@ public class ZeroTimedCurve extends TimedCurve {
         return 0.0;
     }
 
+    @Override
+    protected double enabledDerivative(double x) {
+        return curve.derivative(x);
+    }
+
+    @Override
+    protected double disabledDerivative(double x) {
+        return 0.0;
+    }
+
+    @Override
+    protected double enabledInverse(double y) {
+        return curve.inverse(y);
+    }
+
+    @Override
+    protected double disabledInverse(double y) {
+        return y == 0 ? 0.0 : Double.NaN;
+    }
+
     /**
      * Returns the curve to use when this curve is enabled.
      * @return The curve to use when this curve is enabled.
@@ -0,0 +1,247 @@
+package net.frc5183.librobot.math.pose;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A fixed-capacity, time-indexed ring buffer of past robot poses.
+ * <p>
+ * Each sample holds a timestamp, a field-relative pose (x, y and heading) and the odometry motion since the previous
+ * sample (distance travelled and heading change), all in primitive arrays allocated once at construction.
+ * Samples are addressed by index from 0 (oldest) to {@link #size()} - 1 (newest). When the buffer is full the oldest
+ * sample is overwritten.
+ */
+public class PoseHistory {
+    /**
+     * The timestamps of the samples in seconds.
+     */
+    @NotNull
+    private final double[] times;
+
+    /**
+     * The x positions of the samples in meters.
+     */
+    @NotNull
+    private final double[] xs;
+
+    /**
+     * The y positions of the samples in meters.
+     */
+    @NotNull
+    private final double[] ys;
+
+    /**
+     * The headings of the samples in radians.
+     */
+    @NotNull
+    private final double[] headings;
+
+    /**
+     * The distance travelled since the previous sample in meters.
+     */
+    @NotNull
+    private final double[] distances;
+
+    /**
+     * The heading change since the previous sample in radians.
+     */
+    @NotNull
+    private final double[] turns;
+
+    /**
+     * The physical index of the oldest sample.
+     */
+    private int start;
+
+    /**
+     * The number of samples.
+     */
+    private int size;
+
+    /**
+     * Creates a new {@link PoseHistory}.
+     * @param capacity The number of samples to keep.
+     * @throws IllegalArgumentException If the capacity is less than 2.
+     */
+    public PoseHistory(int capacity) {
+        if (capacity < 2) throw new IllegalArgumentException("Capacity must be at least 2.");
+
+        times = new double[capacity];
+        xs = new double[capacity];
+        ys = new double[capacity];
+        headings = new double[capacity];
+        distances = new double[capacity];
+        turns = new double[capacity];
+    }
+
+    /**
+     * Adds a sample, overwriting the oldest sample if the buffer is full.
+     * @param time The timestamp in seconds, which must not be earlier than the newest sample.
+     * @param x The x position in meters.
+     * @param y The y position in meters.
+     * @param heading The heading in radians.
+     * @param distance The distance travelled since the previous sample in meters.
+     * @param turn The heading change since the previous sample in radians.
+     * @throws IllegalArgumentException If the timestamp is earlier than the newest sample.
+     */
+    public void add(double time, double x, double y, double heading, double distance, double turn) {
+        if (size > 0 && time < getTime(size - 1)) throw new IllegalArgumentException("Samples must be added in time order.");
+
+        int index;
+        if (size == times.length) {
+            index = start;
+            start = (start + 1) % times.length;
+        } else {
+            index = (start + size) % times.length;
+            size++;
+        }
+
+        times[index] = time;
+        xs[index] = x;
+        ys[index] = y;
+        headings[index] = heading;
+        distances[index] = distance;
+        turns[index] = turn;
+    }
+
+    /**
+     * Replaces the pose of a sample, keeping its timestamp and motion.
+     * @param i The index of the sample, 0 being the oldest.
+     * @param x The new x position in meters.
+     * @param y The new y position in meters.
+     * @param heading The new heading in radians.
+     */
+    public void setPose(int i, double x, double y, double heading) {
+        int index = physical(i);
+        xs[index] = x;
+        ys[index] = y;
+        headings[index] = heading;
+    }
+
+    /**
+     * Returns the index of the newest sample at or before the given time with a binary search.
+     * @param time The time in seconds.
+     * @return The index of the newest sample at or before the given time, or -1 if every sample is later.
+     */
+    public int floor(double time) {
+        int low = 0;
+        int high = size - 1;
+        int result = -1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (getTime(middle) <= time) {
+                result = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Interpolates the pose at the given time into the given array.
+     * @param time The time in seconds, between the oldest and newest samples.
+     * @param out An array of at least three elements which receives x, y and heading.
+     * @return Whether the time was within the buffer; if not the array is left unchanged.
+     */
+    public boolean sample(double time, @NotNull double[] out) {
+        if (size == 0 || time < getTime(0) || time > getTime(size - 1)) return false;
+
+        int i = floor(time);
+        if (i == size - 1) {
+            out[0] = getX(i);
+            out[1] = getY(i);
+            out[2] = getHeading(i);
+            return true;
+        }
+
+        double fraction = (time - getTime(i)) / (getTime(i + 1) - getTime(i));
+        out[0] = getX(i) + (getX(i + 1) - getX(i)) * fraction;
+        out[1] = getY(i) + (getY(i + 1) - getY(i)) * fraction;
+        out[2] = getHeading(i) + Math.IEEEremainder(getHeading(i + 1) - getHeading(i), 2 * Math.PI) * fraction;
+        return true;
+    }
+
+    /**
+     * Removes every sample.
+     */
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    /**
+     * @return the number of samples
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of samples kept before the oldest is overwritten
+     */
+    public int capacity() {
+        return times.length;
+    }
+
+    /**
+     * @param i the index of the sample, 0 being the oldest
+     * @return the timestamp of the sample in seconds
+     */
+    public double getTime(int i) {
+        return times[physical(i)];
+    }
+
+    /**
+     * @param i the index of the sample, 0 being the oldest
+     * @return the x position of the sample in meters
+     */
+    public double getX(int i) {
+        return xs[physical(i)];
+    }
+
+    /**
+     * @param i the index of the sample, 0 being the oldest
+     * @return the y position of the sample in meters
+     */
+    public double getY(int i) {
+        return ys[physical(i)];
+    }
+
+    /**
+     * @param i the index of the sample, 0 being the oldest
+     * @return the heading of the sample in radians
+     */
+    public double getHeading(int i) {
+        return headings[physical(i)];
+    }
+
+    /**
+     * @param i the index of the sample, 0 being the oldest
+     * @return the distance travelled since the previous sample in meters
+     */
+    public double getDistance(int i) {
+        return distances[physical(i)];
+    }
+
+    /**
+     * @param i the index of the sample, 0 being the oldest
+     * @return the heading change since the previous sample in radians
+     */
+    public double getTurn(int i) {
+        return turns[physical(i)];
+    }
+
+    /**
+     * Converts a logical index to an index in the arrays.
+     * @param i The index of the sample, 0 being the oldest.
+     * @return The index in the arrays.
+     * @throws IndexOutOfBoundsException If there is no such sample.
+     */
+    private int physical(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size + ".");
+        return (start + i) % times.length;
+    }
+}
@@ -0,0 +1,299 @@
+package net.frc5183.librobot.math.pose;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.Timer;
+import net.frc5183.librobot.hardware.encoder.Encoder;
+import net.frc5183.librobot.hardware.gyro.SingleAxisGyroscope;
+import org.jetbrains.annotations.NotNull;
+import org.photonvision.EstimatedRobotPose;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Estimates the field pose of a differential (tank) drivetrain by fusing wheel odometry with vision measurements.
+ * <p>
+ * {@link #update()} is called once per loop. It reads the left and right {@link Encoder}s and the
+ * {@link SingleAxisGyroscope}, advances the odometry and records the pose in a {@link PoseHistory}.
+ * Vision measurements usually arrive late, so {@link #addVisionMeasurement(double, double, double, double)} finds the
+ * estimated pose at the measurement's capture time by interpolating the history, blends the measurement into it,
+ * and replays the recorded odometry from there to now. The replay is bounded by the history's capacity,
+ * and nothing on the update or measurement path allocates.
+ * <p>
+ * The gyroscope's angle is expected to be counter-clockwise positive.
+ */
+public class VisionPoseEstimator {
+    /**
+     * The left side encoder.
+     */
+    @NotNull
+    private final Encoder left;
+
+    /**
+     * The right side encoder.
+     */
+    @NotNull
+    private final Encoder right;
+
+    /**
+     * The gyroscope measuring the robot's heading.
+     */
+    @NotNull
+    private final SingleAxisGyroscope gyro;
+
+    /**
+     * The distance the robot travels per encoder rotation, in meters.
+     */
+    private final double metersPerRotation;
+
+    /**
+     * The history of estimated poses.
+     */
+    @NotNull
+    private final PoseHistory history;
+
+    /**
+     * Supplies the current timestamp in seconds, in the same time base as vision timestamps.
+     */
+    @NotNull
+    private final DoubleSupplier clock;
+
+    /**
+     * How much of the difference between a vision measurement and the estimate is applied to the position, from 0 to 1.
+     */
+    private double translationGain = 0.1;
+
+    /**
+     * How much of the difference between a vision measurement and the estimate is applied to the heading, from 0 to 1.
+     */
+    private double rotationGain = 0.05;
+
+    /**
+     * The estimated x position in meters.
+     */
+    private double x;
+
+    /**
+     * The estimated y position in meters.
+     */
+    private double y;
+
+    /**
+     * The estimated heading in radians.
+     */
+    private double heading;
+
+    /**
+     * The left encoder distance at the last update in meters.
+     */
+    private double lastLeft;
+
+    /**
+     * The right encoder distance at the last update in meters.
+     */
+    private double lastRight;
+
+    /**
+     * The gyroscope heading at the last update in radians.
+     */
+    private double lastGyro;
+
+    /**
+     * Whether the sensors have been read at least once since the last reset.
+     */
+    private boolean initialized;
+
+    /**
+     * Creates a new {@link VisionPoseEstimator} which keeps 1.5 seconds of history at 50 Hz and uses the FPGA timestamp.
+     * @param left The left side encoder.
+     * @param right The right side encoder.
+     * @param gyro The gyroscope measuring the robot's heading.
+     * @param metersPerRotation The distance the robot travels per encoder rotation, in meters.
+     */
+    public VisionPoseEstimator(@NotNull Encoder left, @NotNull Encoder right, @NotNull SingleAxisGyroscope gyro, double metersPerRotation) {
+        this(left, right, gyro, metersPerRotation, 75, Timer::getFPGATimestamp);
+    }
+
+    /**
+     * Creates a new {@link VisionPoseEstimator}.
+     * @param left The left side encoder.
+     * @param right The right side encoder.
+     * @param gyro The gyroscope measuring the robot's heading.
+     * @param metersPerRotation The distance the robot travels per encoder rotation, in meters.
+     * @param historySize The number of updates to keep for late vision measurements.
+     * @param clock Supplies the current timestamp in seconds, in the same time base as vision timestamps.
+     */
+    public VisionPoseEstimator(@NotNull Encoder left, @NotNull Encoder right, @NotNull SingleAxisGyroscope gyro,
+                               double metersPerRotation, int historySize, @NotNull DoubleSupplier clock) {
+        this.left = left;
+        this.right = right;
+        this.gyro = gyro;
+        this.metersPerRotation = metersPerRotation;
+        this.history = new PoseHistory(historySize);
+        this.clock = clock;
+    }
+
+    /**
+     * Reads the sensors, advances the odometry and records the pose. Call once per loop.
+     */
+    public void update() {
+        double now = clock.getAsDouble();
+        // Don't record a sample older than the newest one. The motion is left for the next update to record.
+        if (history.size() > 0 && now < history.getTime(history.size() - 1)) return;
+
+        double leftDistance = left.getUnitsRotations() * metersPerRotation;
+        double rightDistance = right.getUnitsRotations() * metersPerRotation;
+        double gyroHeading = Math.toRadians(gyro.getAngle());
+
+        double distance = 0;
+        double turn = 0;
+        if (initialized) {
+            distance = ((leftDistance - lastLeft) + (rightDistance - lastRight)) / 2;
+            turn = Math.IEEEremainder(gyroHeading - lastGyro, 2 * Math.PI);
+        }
+        initialized = true;
+        lastLeft = leftDistance;
+        lastRight = rightDistance;
+        lastGyro = gyroHeading;
+
+        move(distance, turn);
+        history.add(now, x, y, heading, distance, turn);
+    }
+
+    /**
+     * Blends a vision measurement into the estimate at the time it was captured and replays the odometry since then.
+     * @param visionX The measured x position in meters.
+     * @param visionY The measured y position in meters.
+     * @param visionHeading The measured heading in radians.
+     * @param timestamp The time the measurement was captured in seconds.
+     * @return Whether the measurement was used; measurements older than the history are ignored.
+     */
+    public boolean addVisionMeasurement(double visionX, double visionY, double visionHeading, double timestamp) {
+        int size = history.size();
+        if (size == 0 || timestamp < history.getTime(0)) return false;
+
+        int i = history.floor(Math.min(timestamp, history.getTime(size - 1)));
+
+        // The estimate at the capture time is part way through the motion recorded by the next sample.
+        double fraction = 0;
+        double distance = 0;
+        double turn = 0;
+        if (i < size - 1) {
+            fraction = (timestamp - history.getTime(i)) / (history.getTime(i + 1) - history.getTime(i));
+            distance = history.getDistance(i + 1);
+            turn = history.getTurn(i + 1);
+        }
+
+        x = history.getX(i);
+        y = history.getY(i);
+        heading = history.getHeading(i);
+        move(distance * fraction, turn * fraction);
+
+        x += translationGain * (visionX - x);
+        y += translationGain * (visionY - y);
+        heading = Math.IEEEremainder(heading + rotationGain * Math.IEEEremainder(visionHeading - heading, 2 * Math.PI), 2 * Math.PI);
+
+        if (i < size - 1) {
+            move(distance * (1 - fraction), turn * (1 - fraction));
+            history.setPose(i + 1, x, y, heading);
+
+            for (int j = i + 2; j < size; j++) {
+                move(history.getDistance(j), history.getTurn(j));
+                history.setPose(j, x, y, heading);
+            }
+        } else {
+            history.setPose(i, x, y, heading);
+        }
+
+        return true;
+    }
+
+    /**
+     * Blends a PhotonVision pose estimate into the estimate.
+     * @param estimate The pose estimate from a {@code PhotonPoseEstimator}.
+     * @return Whether the measurement was used; measurements older than the history are ignored.
+     * @see #addVisionMeasurement(double, double, double, double)
+     */
+    public boolean addVisionMeasurement(@NotNull EstimatedRobotPose estimate) {
+        Pose3d pose = estimate.estimatedPose;
+        return addVisionMeasurement(pose.getX(), pose.getY(), pose.getRotation().getZ(), estimate.timestampSeconds);
+    }
+
+    /**
+     * Resets the estimate to the given pose and clears the history.
+     * @param x The x position in meters.
+     * @param y The y position in meters.
+     * @param heading The heading in radians.
+     */
+    public void resetPose(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        initialized = false;
+        history.clear();
+    }
+
+    /**
+     * Sets how strongly vision measurements pull the estimate.
+     * @param translationGain The fraction of the position difference applied per measurement, from 0 to 1.
+     * @param rotationGain The fraction of the heading difference applied per measurement, from 0 to 1.
+     * @throws IllegalArgumentException If either gain is outside 0 to 1.
+     */
+    public void setVisionGains(double translationGain, double rotationGain) {
+        if (translationGain < 0 || translationGain > 1 || rotationGain < 0 || rotationGain > 1) {
+            throw new IllegalArgumentException("Gains must be between 0 and 1.");
+        }
+
+        this.translationGain = translationGain;
+        this.rotationGain = rotationGain;
+    }
+
+    /**
+     * @return the estimated x position in meters
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return the estimated y position in meters
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return the estimated heading in radians
+     */
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * Allocates a new {@link Pose2d}; prefer {@link #getX()}, {@link #getY()} and {@link #getHeading()} every loop.
+     * @return the estimated pose
+     */
+    public @NotNull Pose2d getPose() {
+        return new Pose2d(x, y, new Rotation2d(heading));
+    }
+
+    /**
+     * @return the history of estimated poses
+     */
+    public @NotNull PoseHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Advances the estimate along an arc.
+     * @param distance The distance travelled in meters.
+     * @param turn The heading change in radians.
+     */
+    private void move(double distance, double turn) {
+        double midHeading = heading + turn / 2;
+        x += distance * Math.cos(midHeading);
+        y += distance * Math.sin(midHeading);
+        heading = Math.IEEEremainder(heading + turn, 2 * Math.PI);
+    }
+}
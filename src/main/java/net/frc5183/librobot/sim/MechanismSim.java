@@ -0,0 +1,108 @@
+package net.frc5183.librobot.sim;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A headless simulation of a mechanism driven through a gearbox by DC motors, such as a flywheel or a turret.
+ * <p>
+ * The motor constants come from a WPILib {@link DCMotor}; the state is kept in primitive fields and advanced with
+ * semi-implicit Euler steps, so stepping does not allocate and one instance per thread can run thousands of trials.
+ * Positions are in rotations and velocities in rotations per second of the mechanism, after the gearbox.
+ */
+public class MechanismSim {
+    /**
+     * The motors driving the mechanism.
+     */
+    @NotNull
+    private final DCMotor motor;
+
+    /**
+     * The motor rotations per mechanism rotation.
+     */
+    private final double gearing;
+
+    /**
+     * The moment of inertia of the mechanism in kilogram square meters.
+     */
+    private final double moi;
+
+    /**
+     * The position in rotations.
+     */
+    private double position;
+
+    /**
+     * The velocity in rotations per second.
+     */
+    private double velocity;
+
+    /**
+     * The current drawn by the motors in amps.
+     */
+    private double current;
+
+    /**
+     * Creates a new {@link MechanismSim} at rest at position 0.
+     * @param motor The motors driving the mechanism, for example {@code DCMotor.getNEO(2)}.
+     * @param gearing The motor rotations per mechanism rotation.
+     * @param moi The moment of inertia of the mechanism in kilogram square meters.
+     * @throws IllegalArgumentException If the gearing or moment of inertia is not positive.
+     */
+    public MechanismSim(@NotNull DCMotor motor, double gearing, double moi) {
+        if (!(gearing > 0)) throw new IllegalArgumentException("Gearing must be greater than 0.");
+        if (!(moi > 0)) throw new IllegalArgumentException("Moment of inertia must be greater than 0.");
+
+        this.motor = motor;
+        this.gearing = gearing;
+        this.moi = moi;
+    }
+
+    /**
+     * Advances the simulation.
+     * @param volts The voltage applied to the motors, clamped to their nominal voltage.
+     * @param dt The time step in seconds.
+     */
+    public void step(double volts, double dt) {
+        double nominal = motor.nominalVoltageVolts;
+        volts = Math.max(-nominal, Math.min(volts, nominal));
+
+        double motorSpeed = velocity * 2 * Math.PI * gearing;
+        current = (volts - motorSpeed / motor.KvRadPerSecPerVolt) / motor.rOhms;
+        double acceleration = current * motor.KtNMPerAmp * gearing / moi;
+
+        velocity += acceleration / (2 * Math.PI) * dt;
+        position += velocity * dt;
+    }
+
+    /**
+     * Puts the mechanism at rest at the given position.
+     * @param position The position in rotations.
+     */
+    public void reset(double position) {
+        this.position = position;
+        velocity = 0;
+        current = 0;
+    }
+
+    /**
+     * @return the position in rotations
+     */
+    public double getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the velocity in rotations per second
+     */
+    public double getVelocity() {
+        return velocity;
+    }
+
+    /**
+     * @return the current drawn by the motors in amps during the last step
+     */
+    public double getCurrent() {
+        return current;
+    }
+}
@@ -0,0 +1,409 @@
+package net.frc5183.librobot.sim;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Tunes curve and controller parameters offline by simulating a step response of a {@link MechanismSim} for every
+ * combination of parameter values, in parallel on a {@link ForkJoinPool}, and keeping the Pareto-best combinations.
+ * <p>
+ * Each trial starts the mechanism at rest, asks the controller for a voltage every control period, and is scored by
+ * its settling time, overshoot and peak current. A combination is kept if no other combination is at least as good
+ * in all three scores and better in one.
+ * <pre>{@code
+ * ParameterSweep sweep = new ParameterSweep(DCMotor.getNEO(1), 4, 0.002);
+ * sweep.setTarget(ParameterSweep.Mode.VELOCITY, 20);
+ * sweep.addParameter("kP", 0, 2, 21);
+ * sweep.addParameter("exaggeration", 0.5, 3, 11);
+ * List<SweepResult> best = sweep.run(p -> {
+ *     ExponentialCurve ramp = new ExponentialCurve(p[1]);
+ *     return (time, position, velocity) -> {
+ *         double setpoint = 20 * ramp.curve(Math.min(time / 0.5, 1));
+ *         return 0.5 * setpoint + p[0] * (setpoint - velocity);
+ *     };
+ * });
+ * System.out.println(sweep.report(best));
+ * }</pre>
+ */
+public class ParameterSweep {
+    /**
+     * What a {@link ParameterSweep}'s target and error are measured in.
+     */
+    public enum Mode {
+        /**
+         * The target is a position in rotations.
+         */
+        POSITION,
+        /**
+         * The target is a velocity in rotations per second.
+         */
+        VELOCITY
+    }
+
+    /**
+     * Computes the voltage applied to the mechanism during one trial.
+     * A controller is only used by one thread and may keep state.
+     */
+    @FunctionalInterface
+    public interface Controller {
+        /**
+         * @param time the time in seconds since the trial started
+         * @param position the position of the mechanism in rotations
+         * @param velocity the velocity of the mechanism in rotations per second
+         * @return the voltage to apply until the next control period
+         */
+        double calculate(double time, double position, double velocity);
+    }
+
+    /**
+     * Creates a fresh {@link Controller} for each trial. Called from many threads at once.
+     */
+    @FunctionalInterface
+    public interface ControllerFactory {
+        /**
+         * @param parameters the parameter values of the trial, in the order the parameters were added
+         * @return the controller of the trial
+         */
+        @NotNull Controller create(@NotNull double[] parameters);
+    }
+
+    /**
+     * The number of trials below which a task runs its trials instead of splitting.
+     */
+    private static final int LEAF_TRIALS = 16;
+
+    /**
+     * The motors driving the simulated mechanism.
+     */
+    @NotNull
+    private final DCMotor motor;
+
+    /**
+     * The motor rotations per mechanism rotation.
+     */
+    private final double gearing;
+
+    /**
+     * The moment of inertia of the mechanism in kilogram square meters.
+     */
+    private final double moi;
+
+    /**
+     * What the target is measured in.
+     */
+    @NotNull
+    private Mode mode = Mode.POSITION;
+
+    /**
+     * The target position or velocity.
+     */
+    private double target = 1;
+
+    /**
+     * The length of each trial in seconds.
+     */
+    private double duration = 2;
+
+    /**
+     * The time in seconds between controller updates.
+     */
+    private double controlPeriod = 0.02;
+
+    /**
+     * The physics time step in seconds.
+     */
+    private double simulationStep = 0.001;
+
+    /**
+     * The error, as a fraction of the step, within which the mechanism is settled.
+     */
+    private double tolerance = 0.02;
+
+    /**
+     * The names of the parameters.
+     */
+    @NotNull
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * The values each parameter takes.
+     */
+    @NotNull
+    private final List<double[]> values = new ArrayList<>();
+
+    /**
+     * Creates a new {@link ParameterSweep} of a mechanism.
+     * @param motor The motors driving the mechanism.
+     * @param gearing The motor rotations per mechanism rotation.
+     * @param moi The moment of inertia of the mechanism in kilogram square meters.
+     * @throws IllegalArgumentException If the gearing or moment of inertia is not positive.
+     */
+    public ParameterSweep(@NotNull DCMotor motor, double gearing, double moi) {
+        if (!(gearing > 0)) throw new IllegalArgumentException("Gearing must be greater than 0.");
+        if (!(moi > 0)) throw new IllegalArgumentException("Moment of inertia must be greater than 0.");
+
+        this.motor = motor;
+        this.gearing = gearing;
+        this.moi = moi;
+    }
+
+    /**
+     * Adds a parameter swept over evenly spaced values.
+     * @param name The name of the parameter.
+     * @param min The first value.
+     * @param max The last value.
+     * @param steps The number of values, 1 to only use min.
+     * @throws IllegalArgumentException If steps is not positive.
+     */
+    public void addParameter(@NotNull String name, double min, double max, int steps) {
+        if (steps <= 0) throw new IllegalArgumentException("Steps must be greater than 0.");
+
+        double[] parameterValues = new double[steps];
+        for (int i = 0; i < steps; i++) {
+            parameterValues[i] = steps == 1 ? min : min + (max - min) * i / (steps - 1);
+        }
+        addParameter(name, parameterValues);
+    }
+
+    /**
+     * Adds a parameter swept over the given values.
+     * @param name The name of the parameter.
+     * @param parameterValues The values of the parameter.
+     * @throws IllegalArgumentException If there are no values.
+     */
+    public void addParameter(@NotNull String name, @NotNull double... parameterValues) {
+        if (parameterValues.length == 0) throw new IllegalArgumentException("A parameter must have at least one value.");
+        names.add(name);
+        values.add(parameterValues.clone());
+    }
+
+    /**
+     * Sets the target of each trial, which starts at rest at position 0.
+     * @param mode What the target is measured in.
+     * @param target The target position in rotations or velocity in rotations per second.
+     * @throws IllegalArgumentException If the target is 0.
+     */
+    public void setTarget(@NotNull Mode mode, double target) {
+        if (target == 0 || !Double.isFinite(target)) throw new IllegalArgumentException("Target must be finite and not 0.");
+        this.mode = mode;
+        this.target = target;
+    }
+
+    /**
+     * Sets the timing of each trial.
+     * @param duration The length of each trial in seconds.
+     * @param controlPeriod The time in seconds between controller updates.
+     * @param simulationStep The physics time step in seconds, at most the control period.
+     * @throws IllegalArgumentException If a time is not positive or the simulation step is longer than the control period.
+     */
+    public void setTiming(double duration, double controlPeriod, double simulationStep) {
+        if (!(duration > 0) || !(controlPeriod > 0) || !(simulationStep > 0)) {
+            throw new IllegalArgumentException("Times must be greater than 0.");
+        }
+        if (simulationStep > controlPeriod) throw new IllegalArgumentException("Simulation step must not be longer than the control period.");
+
+        this.duration = duration;
+        this.controlPeriod = controlPeriod;
+        this.simulationStep = simulationStep;
+    }
+
+    /**
+     * Sets the error, as a fraction of the step, within which the mechanism counts as settled.
+     * @param tolerance The tolerance.
+     * @throws IllegalArgumentException If the tolerance is not positive.
+     */
+    public void setTolerance(double tolerance) {
+        if (!(tolerance > 0)) throw new IllegalArgumentException("Tolerance must be greater than 0.");
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Runs every combination of parameter values on the common fork/join pool.
+     * @param factory Creates the controller of each trial.
+     * @return The Pareto-best results, sorted by settling time.
+     */
+    public @NotNull List<SweepResult> run(@NotNull ControllerFactory factory) {
+        return run(factory, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs every combination of parameter values on the given pool.
+     * @param factory Creates the controller of each trial.
+     * @param pool The pool to run the trials on.
+     * @return The Pareto-best results, sorted by settling time.
+     */
+    public @NotNull List<SweepResult> run(@NotNull ControllerFactory factory, @NotNull ForkJoinPool pool) {
+        int trials = getTrialCount();
+        double[] settlingTimes = new double[trials];
+        double[] overshoots = new double[trials];
+        double[] peakCurrents = new double[trials];
+
+        pool.invoke(new Trials(factory, 0, trials, settlingTimes, overshoots, peakCurrents));
+
+        Integer[] order = new Integer[trials];
+        for (int i = 0; i < trials; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> {
+            int compare = Double.compare(settlingTimes[a], settlingTimes[b]);
+            if (compare == 0) compare = Double.compare(overshoots[a], overshoots[b]);
+            if (compare == 0) compare = Double.compare(peakCurrents[a], peakCurrents[b]);
+            return compare;
+        });
+
+        // Sorted lexicographically, a trial can only be dominated by one before it.
+        List<SweepResult> front = new ArrayList<>();
+        for (int i : order) {
+            SweepResult result = new SweepResult(parameters(i, new double[names.size()]),
+                    settlingTimes[i], overshoots[i], peakCurrents[i]);
+
+            boolean dominated = false;
+            for (SweepResult kept : front) {
+                if (kept.dominates(result)) {
+                    dominated = true;
+                    break;
+                }
+            }
+            if (!dominated) front.add(result);
+        }
+
+        return front;
+    }
+
+    /**
+     * Formats results as a table with one row per result.
+     * @param results The results.
+     * @return The table.
+     */
+    public @NotNull String report(@NotNull List<SweepResult> results) {
+        StringBuilder builder = new StringBuilder();
+        for (String name : names) builder.append(String.format("%12s", name));
+        builder.append(String.format("%12s%12s%12s%n", "settle (s)", "overshoot", "peak (A)"));
+
+        for (SweepResult result : results) {
+            for (int i = 0; i < names.size(); i++) builder.append(String.format("%12.4g", result.getParameter(i)));
+            builder.append(String.format("%12.3f%12.3f%12.1f%n", result.getSettlingTime(), result.getOvershoot(), result.getPeakCurrent()));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return the number of combinations of parameter values
+     */
+    public int getTrialCount() {
+        long trials = 1;
+        for (double[] parameterValues : values) {
+            trials *= parameterValues.length;
+            if (trials > Integer.MAX_VALUE) throw new IllegalStateException("Too many combinations of parameter values.");
+        }
+        return (int) trials;
+    }
+
+    /**
+     * @return the names of the parameters, in the order they were added
+     */
+    public @NotNull List<String> getParameterNames() {
+        return List.copyOf(names);
+    }
+
+    /**
+     * Decodes the parameter values of a trial, the first parameter varying fastest.
+     * @param trial The index of the trial.
+     * @param out The array to write the values into.
+     * @return The given array.
+     */
+    private double[] parameters(int trial, double[] out) {
+        for (int p = 0; p < out.length; p++) {
+            double[] parameterValues = values.get(p);
+            out[p] = parameterValues[trial % parameterValues.length];
+            trial /= parameterValues.length;
+        }
+        return out;
+    }
+
+    /**
+     * Simulates one trial and writes its scores.
+     * @param sim The simulation to run the trial on.
+     * @param controller The controller of the trial.
+     * @param trial The index of the trial.
+     * @param settlingTimes The settling time of each trial.
+     * @param overshoots The overshoot of each trial.
+     * @param peakCurrents The peak current of each trial.
+     */
+    private void simulate(MechanismSim sim, Controller controller, int trial,
+                          double[] settlingTimes, double[] overshoots, double[] peakCurrents) {
+        sim.reset(0);
+        int substeps = Math.max(1, (int) Math.round(controlPeriod / simulationStep));
+        double step = controlPeriod / substeps;
+        double band = Math.abs(target) * tolerance;
+
+        double settledSince = 0;
+        double overshoot = 0;
+        double peakCurrent = 0;
+        double time = 0;
+
+        while (time < duration) {
+            double volts = controller.calculate(time, sim.getPosition(), sim.getVelocity());
+
+            for (int s = 0; s < substeps; s++) {
+                sim.step(volts, step);
+                time += step;
+
+                double measured = mode == Mode.POSITION ? sim.getPosition() : sim.getVelocity();
+                double error = target - measured;
+                if (Math.abs(error) > band) settledSince = Double.POSITIVE_INFINITY;
+                else if (settledSince == Double.POSITIVE_INFINITY) settledSince = time;
+
+                overshoot = Math.max(overshoot, -error / target);
+                peakCurrent = Math.max(peakCurrent, Math.abs(sim.getCurrent()));
+            }
+        }
+
+        settlingTimes[trial] = settledSince;
+        overshoots[trial] = overshoot;
+        peakCurrents[trial] = peakCurrent;
+    }
+
+    /**
+     * Runs a range of trials, splitting it in half until it is small.
+     */
+    private final class Trials extends RecursiveAction {
+        private final ControllerFactory factory;
+        private final int from;
+        private final int to;
+        private final double[] settlingTimes;
+        private final double[] overshoots;
+        private final double[] peakCurrents;
+
+        Trials(ControllerFactory factory, int from, int to,
+               double[] settlingTimes, double[] overshoots, double[] peakCurrents) {
+            this.factory = factory;
+            this.from = from;
+            this.to = to;
+            this.settlingTimes = settlingTimes;
+            this.overshoots = overshoots;
+            this.peakCurrents = peakCurrents;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LEAF_TRIALS) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Trials(factory, from, middle, settlingTimes, overshoots, peakCurrents),
+                        new Trials(factory, middle, to, settlingTimes, overshoots, peakCurrents));
+                return;
+            }
+
+            MechanismSim sim = new MechanismSim(motor, gearing, moi);
+            double[] parameters = new double[names.size()];
+            for (int trial = from; trial < to; trial++) {
+                Controller controller = factory.create(parameters(trial, parameters).clone());
+                simulate(sim, controller, trial, settlingTimes, overshoots, peakCurrents);
+            }
+        }
+    }
+}
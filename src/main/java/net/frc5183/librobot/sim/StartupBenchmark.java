@@ -0,0 +1,125 @@
+package net.frc5183.librobot.sim;
+
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.revrobotics.CANSparkLowLevel.MotorType;
+import edu.wpi.first.hal.HAL;
+import net.frc5183.librobot.hardware.encoder.CANcoder;
+import net.frc5183.librobot.hardware.encoder.EmaFilteredEncoder;
+import net.frc5183.librobot.hardware.encoder.FilteredEncoder;
+import net.frc5183.librobot.hardware.encoder.ScaledEncoder;
+import net.frc5183.librobot.hardware.encoder.TalonFXEncoder;
+import net.frc5183.librobot.hardware.motor.ClosedLoopController;
+import net.frc5183.librobot.hardware.motor.ClosedLoopGains;
+import net.frc5183.librobot.hardware.motor.MotorGroup;
+import net.frc5183.librobot.hardware.motor.MotorOutputStage;
+import net.frc5183.librobot.hardware.motor.PowerBudget;
+import net.frc5183.librobot.hardware.motor.RioClosedLoopController;
+import net.frc5183.librobot.hardware.motor.SparkMaxMotor;
+import net.frc5183.librobot.math.curve.Curve;
+import net.frc5183.librobot.math.curve.CurveLoader;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Measures how long the JVM takes to load librobot and construct a representative robot's motors, encoders and curves.
+ * <p>
+ * The robot is built from the real device wrappers, {@link SparkMaxMotor} over REV's {@code CANSparkMax} and the
+ * Phoenix 6 {@link TalonFX} and {@code CANcoder}, against the simulation HAL, so the classes loaded are the ones a
+ * robot loads when it starts on the roboRIO.
+ * <p>
+ * Run by the {@code startupBenchmark} and {@code startupBenchmarkCds} Gradle tasks, and by {@code cdsArchive} to
+ * record the classes loaded at startup into an AppCDS archive. Prints the time from JVM start to main, the time to
+ * initialize the HAL, the time and number of classes loaded while constructing, and the time of a second, warm
+ * construction.
+ */
+public final class StartupBenchmark {
+    private static final String CURVES = String.join("\n",
+            "drive = exponential(2.5)",
+            "turn = limited(quadratic(1, 0, 0), -1, 1)",
+            "shooter = monotone([0, 0.5, 1], [0, 0.7, 1])",
+            "arm = piecewise([-1, 0, 1], linear(0.5, 0), radical(2, 0, 1))",
+            "intake = hermite([-1, 0, 1], [-1, 0, 1])"
+    );
+
+    /**
+     * The CAN IDs taken by one construction, so the warm construction can use devices of its own.
+     */
+    private static final int DEVICES = 10;
+
+    private static double sink;
+
+    private StartupBenchmark() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    public static void main(String[] args) {
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+
+        long start = System.nanoTime();
+        if (!HAL.initialize(500, 0)) throw new IllegalStateException("Failed to initialize the simulation HAL.");
+        long hal = System.nanoTime() - start;
+
+        int classesBefore = classLoading.getLoadedClassCount();
+        long cold = construct(1);
+        int classesLoaded = classLoading.getLoadedClassCount() - classesBefore;
+        long warm = construct(1 + DEVICES);
+
+        System.out.printf("JVM start to main:  %d ms%n", uptime);
+        System.out.printf("HAL initialization: %.2f ms%n", hal / 1e6);
+        System.out.printf("Cold construction:  %.2f ms (%d classes loaded)%n", cold / 1e6, classesLoaded);
+        System.out.printf("Warm construction:  %.2f ms%n", warm / 1e6);
+        System.out.printf("Total loaded:       %d classes%n", classLoading.getLoadedClassCount());
+        if (sink == 42) System.out.println();
+
+        // The vendor libraries leave non-daemon threads running, which would keep the JVM and the Gradle task alive.
+        System.exit(0);
+    }
+
+    /**
+     * Constructs a drivetrain, an arm, a shooter and a set of driver curves, as a robot does in its constructor.
+     * @param firstId The first CAN ID to give the devices, which take {@link #DEVICES} IDs from it.
+     * @return The time taken in nanoseconds.
+     */
+    private static long construct(int firstId) {
+        long start = System.nanoTime();
+
+        MotorOutputStage stage = new MotorOutputStage();
+        MotorGroup left = new MotorGroup(
+                new SparkMaxMotor(firstId, MotorType.kBrushless),
+                new SparkMaxMotor(firstId + 1, MotorType.kBrushless));
+        MotorGroup right = new MotorGroup(
+                new SparkMaxMotor(firstId + 2, MotorType.kBrushless),
+                new SparkMaxMotor(firstId + 3, MotorType.kBrushless));
+        stage.register(left);
+        stage.register(right);
+
+        PowerBudget budget = new PowerBudget(stage, 120);
+        budget.register(left, 2);
+        budget.register(right, 2);
+
+        SparkMaxMotor armMotor = new SparkMaxMotor(firstId + 4, MotorType.kBrushless);
+        ScaledEncoder armEncoder = new ScaledEncoder(new CANcoder(new com.ctre.phoenix6.hardware.CANcoder(firstId + 5)), 1);
+        FilteredEncoder armVelocity = new EmaFilteredEncoder(armEncoder, 0.05, FilteredEncoder.VelocitySource.ENCODER, () -> 0);
+        RioClosedLoopController arm = new RioClosedLoopController(armMotor, armVelocity);
+        arm.setGains(new ClosedLoopGains(4, 0, 0.1, 0.1, 1.2, 0.05, 0.3));
+
+        SparkMaxMotor shooterMotor = new SparkMaxMotor(firstId + 6, MotorType.kBrushless);
+        ClosedLoopController shooter = shooterMotor.getClosedLoopController();
+        shooter.setGains(new ClosedLoopGains(0.0002, 0, 0, 0, 0.12, 0, 0));
+        ScaledEncoder feeder = new ScaledEncoder(new TalonFXEncoder(new TalonFX(firstId + 7)), 3);
+
+        Map<String, Curve> curves = CurveLoader.parse(CURVES);
+        for (Curve curve : curves.values()) sink += curve.curve(0.5);
+
+        left.set(0.5);
+        right.set(-0.5);
+        budget.update();
+        sink += stage.flush();
+        sink += armVelocity.getVelocityRotationsPerSecond() + feeder.getUnitsRotations();
+
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,88 @@
+package net.frc5183.librobot.sim;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The score of one set of parameters in a {@link ParameterSweep}. Lower is better for every score.
+ */
+public final class SweepResult {
+    /**
+     * The parameter values, in the order the parameters were added.
+     */
+    @NotNull
+    private final double[] parameters;
+
+    /**
+     * The time in seconds until the error stayed within tolerance, infinity if it never settled.
+     */
+    private final double settlingTime;
+
+    /**
+     * The largest overshoot past the target, as a fraction of the step.
+     */
+    private final double overshoot;
+
+    /**
+     * The peak current in amps.
+     */
+    private final double peakCurrent;
+
+    /**
+     * Creates a new {@link SweepResult}.
+     * @param parameters The parameter values, not copied.
+     * @param settlingTime The time in seconds until the error stayed within tolerance, infinity if it never settled.
+     * @param overshoot The largest overshoot past the target, as a fraction of the step.
+     * @param peakCurrent The peak current in amps.
+     */
+    SweepResult(@NotNull double[] parameters, double settlingTime, double overshoot, double peakCurrent) {
+        this.parameters = parameters;
+        this.settlingTime = settlingTime;
+        this.overshoot = overshoot;
+        this.peakCurrent = peakCurrent;
+    }
+
+    /**
+     * @param index the index of the parameter
+     * @return the value of the parameter
+     */
+    public double getParameter(int index) {
+        return parameters[index];
+    }
+
+    /**
+     * @return a copy of the parameter values, in the order the parameters were added
+     */
+    public @NotNull double[] getParameters() {
+        return parameters.clone();
+    }
+
+    /**
+     * @return the time in seconds until the error stayed within tolerance, infinity if it never settled
+     */
+    public double getSettlingTime() {
+        return settlingTime;
+    }
+
+    /**
+     * @return the largest overshoot past the target, as a fraction of the step
+     */
+    public double getOvershoot() {
+        return overshoot;
+    }
+
+    /**
+     * @return the peak current in amps
+     */
+    public double getPeakCurrent() {
+        return peakCurrent;
+    }
+
+    /**
+     * @param other the result to compare with
+     * @return whether this result is at least as good as the other in every score and better in one
+     */
+    public boolean dominates(@NotNull SweepResult other) {
+        return settlingTime <= other.settlingTime && overshoot <= other.overshoot && peakCurrent <= other.peakCurrent
+                && (settlingTime < other.settlingTime || overshoot < other.overshoot || peakCurrent < other.peakCurrent);
+    }
+}
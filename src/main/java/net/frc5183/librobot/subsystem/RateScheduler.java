@@ -0,0 +1,340 @@
+package net.frc5183.librobot.subsystem;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import edu.wpi.first.wpilibj2.command.Commands;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Runs periodic tasks at several rates from one fast {@link TimedRobot#addPeriodic(Runnable, double, double)} callback.
+ * <p>
+ * Every task's period is rounded to a whole number of ticks of the base period, and tasks with the same number of
+ * ticks form a rate group. A task of a group slower than the base period runs in only one tick out of every group
+ * period, and tasks are given different phases, so slow tasks such as telemetry and health checks are spread across
+ * ticks instead of all running in the same one.
+ * <p>
+ * Each tick times the tasks it runs per rate group. A rate group overruns when its tasks take longer than the base
+ * period in one tick, and the whole tick overruns when all of its tasks together do.
+ * Tasks run on the robot's main thread, so they need no synchronization with subsystems and commands.
+ * <p>
+ * Tasks only run while the scheduler is ticked, so if tasks are added but the scheduler has been neither installed
+ * (see {@link #install(TimedRobot)}) nor ticked by the time the {@link CommandScheduler} first runs, a warning is
+ * reported to the driver station.
+ */
+public class RateScheduler {
+    /**
+     * The scheduler used by {@link Subsystem#addPeriodic(Runnable, double)}.
+     */
+    private static final RateScheduler DEFAULT = new RateScheduler(0.005);
+
+    /**
+     * The time between ticks in seconds.
+     */
+    private final double basePeriod;
+
+    /**
+     * The base period in nanoseconds.
+     */
+    private final long basePeriodNanos;
+
+    /**
+     * The number of ticks run so far.
+     */
+    private long tick;
+
+    /**
+     * The number of registered tasks.
+     */
+    private int taskCount;
+
+    /**
+     * The tasks.
+     */
+    private Runnable[] tasks = new Runnable[0];
+
+    /**
+     * The rate group of each task.
+     */
+    private int[] taskGroups = new int[0];
+
+    /**
+     * The tick within its group's period each task runs in.
+     */
+    private int[] phases = new int[0];
+
+    /**
+     * The number of rate groups.
+     */
+    private int groupCount;
+
+    /**
+     * The period of each rate group in ticks.
+     */
+    private int[] divisors = new int[0];
+
+    /**
+     * The number of tasks in each rate group.
+     */
+    private int[] groupSizes = new int[0];
+
+    /**
+     * The time each rate group's tasks took in the current tick, in nanoseconds.
+     */
+    private long[] durations = new long[0];
+
+    /**
+     * The longest time each rate group's tasks took in one tick, in nanoseconds.
+     */
+    private long[] maxDurations = new long[0];
+
+    /**
+     * The number of ticks in which each rate group overran.
+     */
+    private long[] overruns = new long[0];
+
+    /**
+     * The number of ticks which overran.
+     */
+    private long tickOverruns;
+
+    /**
+     * Whether the scheduler has been installed on a robot.
+     */
+    private boolean installed;
+
+    /**
+     * Whether the check that the scheduler is ticking has been scheduled.
+     */
+    private boolean tickingChecked;
+
+    /**
+     * Creates a new {@link RateScheduler}.
+     * @param basePeriod The time between ticks in seconds, the shortest period a task can run at.
+     * @throws IllegalArgumentException If the base period is not positive.
+     */
+    public RateScheduler(double basePeriod) {
+        if (!(basePeriod > 0)) throw new IllegalArgumentException("Base period must be greater than 0.");
+        this.basePeriod = basePeriod;
+        this.basePeriodNanos = (long) (basePeriod * 1e9);
+    }
+
+    /**
+     * @return the scheduler used by {@link Subsystem#addPeriodic(Runnable, double)}, ticking every 5 ms
+     */
+    public static @NotNull RateScheduler getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Starts ticking this scheduler from the given robot's main loop. Call once, from the robot's constructor.
+     * @param robot The robot.
+     * @throws IllegalStateException If the scheduler has already been installed.
+     */
+    public void install(@NotNull TimedRobot robot) {
+        if (installed) throw new IllegalStateException("Rate scheduler has already been installed.");
+        installed = true;
+        robot.addPeriodic(this::tick, basePeriod, 0.0025);
+    }
+
+    /**
+     * Registers a task.
+     * @param task The task.
+     * @param period The period to run the task at in seconds, rounded to a whole number of base periods.
+     * @return The rate group of the task.
+     */
+    public int add(@NotNull Runnable task, double period) {
+        int divisor = Math.max(1, (int) Math.round(period / basePeriod));
+
+        int group = 0;
+        while (group < groupCount && divisors[group] != divisor) group++;
+        if (group == groupCount) {
+            if (group == divisors.length) growGroups(Math.max(4, group * 2));
+            divisors[group] = divisor;
+            groupCount++;
+        }
+
+        int slot = taskCount;
+        if (slot == tasks.length) growTasks(Math.max(8, slot * 2));
+        tasks[slot] = task;
+        taskGroups[slot] = group;
+        phases[slot] = leastLoadedPhase(divisor);
+        groupSizes[group]++;
+        taskCount++;
+
+        if (!installed && !tickingChecked) {
+            tickingChecked = true;
+            CommandScheduler.getInstance().schedule(Commands.runOnce(this::checkTicking).ignoringDisable(true));
+        }
+        return group;
+    }
+
+    /**
+     * Warns if tasks have been added but the scheduler is neither installed nor ticked, so they never run.
+     */
+    private void checkTicking() {
+        if (installed || tick > 0) return;
+        DriverStation.reportWarning(taskCount + " periodic task(s) were added to a RateScheduler which is not ticking. "
+                + "Install it from the robot's constructor, for example RateScheduler.getDefault().install(this).", false);
+    }
+
+    /**
+     * Runs every task due in this tick and accounts for the time they took.
+     * Called by the robot once installed, or manually every base period.
+     */
+    public void tick() {
+        long tickStart = System.nanoTime();
+        Arrays.fill(durations, 0, groupCount, 0);
+
+        for (int i = 0; i < taskCount; i++) {
+            int group = taskGroups[i];
+            if (tick % divisors[group] != phases[i]) continue;
+
+            long start = System.nanoTime();
+            tasks[i].run();
+            durations[group] += System.nanoTime() - start;
+        }
+
+        for (int group = 0; group < groupCount; group++) {
+            long duration = durations[group];
+            if (duration > maxDurations[group]) maxDurations[group] = duration;
+            if (duration > basePeriodNanos) overruns[group]++;
+        }
+
+        if (System.nanoTime() - tickStart > basePeriodNanos) tickOverruns++;
+        tick++;
+    }
+
+    /**
+     * @return whether the scheduler has been installed on a robot
+     */
+    public boolean isInstalled() {
+        return installed;
+    }
+
+    /**
+     * @return the time between ticks in seconds
+     */
+    public double getBasePeriod() {
+        return basePeriod;
+    }
+
+    /**
+     * @return the number of rate groups
+     */
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    /**
+     * @param group the rate group
+     * @return the period of the rate group in seconds
+     */
+    public double getGroupPeriod(int group) {
+        return divisors[group] * basePeriod;
+    }
+
+    /**
+     * @param group the rate group
+     * @return the number of tasks in the rate group
+     */
+    public int getGroupSize(int group) {
+        return groupSizes[group];
+    }
+
+    /**
+     * @param group the rate group
+     * @return the longest time the rate group's tasks took in one tick, in seconds
+     */
+    public double getMaxDuration(int group) {
+        return maxDurations[group] / 1e9;
+    }
+
+    /**
+     * @param group the rate group
+     * @return the number of ticks in which the rate group's tasks took longer than the base period
+     */
+    public long getOverruns(int group) {
+        return overruns[group];
+    }
+
+    /**
+     * @return the number of ticks which took longer than the base period
+     */
+    public long getTickOverruns() {
+        return tickOverruns;
+    }
+
+    /**
+     * Resets the overrun counts and longest durations.
+     */
+    public void resetStatistics() {
+        Arrays.fill(maxDurations, 0);
+        Arrays.fill(overruns, 0);
+        tickOverruns = 0;
+    }
+
+    /**
+     * Finds the phase of a period whose ticks are shared with the fewest runs of already registered tasks.
+     * @param divisor The period in ticks.
+     * @return The phase.
+     */
+    private int leastLoadedPhase(int divisor) {
+        int best = 0;
+        double bestLoad = Double.POSITIVE_INFINITY;
+
+        for (int phase = 0; phase < divisor; phase++) {
+            double load = 0;
+            for (int i = 0; i < taskCount; i++) {
+                // Two tasks ever share a tick only if their phases agree modulo the gcd of their periods,
+                // and then that fraction of this task's runs is shared with the other.
+                int other = divisors[taskGroups[i]];
+                int gcd = gcd(divisor, other);
+                if (phase % gcd == phases[i] % gcd) load += (double) gcd / other;
+            }
+            if (load < bestLoad) {
+                best = phase;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param a a positive number
+     * @param b a positive number
+     * @return the greatest common divisor of the numbers
+     */
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Grows the task arrays to the given capacity.
+     * @param capacity The new capacity.
+     */
+    private void growTasks(int capacity) {
+        tasks = Arrays.copyOf(tasks, capacity);
+        taskGroups = Arrays.copyOf(taskGroups, capacity);
+        phases = Arrays.copyOf(phases, capacity);
+    }
+
+    /**
+     * Grows the rate group arrays to the given capacity.
+     * @param capacity The new capacity.
+     */
+    private void growGroups(int capacity) {
+        divisors = Arrays.copyOf(divisors, capacity);
+        groupSizes = Arrays.copyOf(groupSizes, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        maxDurations = Arrays.copyOf(maxDurations, capacity);
+        overruns = Arrays.copyOf(overruns, capacity);
+    }
+}
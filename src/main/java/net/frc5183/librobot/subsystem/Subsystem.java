@@ -2,4 +2,25 @@ package net.frc5183.librobot.subsystem;
 
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
-public class Subsystem extends SubsystemBase {}
+/**
+ * A {@link SubsystemBase} whose tasks can run at their own rates, faster or slower than the robot loop.
+ * <p>
+ * Tasks are added with {@link #addPeriodic(Runnable, double)}, usually from the constructor, and run by the default
+ * {@link RateScheduler}, which must be installed once from the robot's constructor with
+ * {@code RateScheduler.getDefault().install(this)}, or tasks never run and a warning is reported.
+ * For example, a fast control loop at 200 Hz and telemetry at 10 Hz:
+ * <pre>{@code
+ * addPeriodic(this::updateControl, 0.005);
+ * addPeriodic(this::publishTelemetry, 0.1);
+ * }</pre>
+ */
+public class Subsystem extends SubsystemBase {
+    /**
+     * Runs a task of this subsystem at the given period on the default {@link RateScheduler}.
+     * @param task The task.
+     * @param period The period to run the task at in seconds, rounded to a multiple of 5 ms.
+     */
+    protected final void addPeriodic(Runnable task, double period) {
+        RateScheduler.getDefault().add(task, period);
+    }
+}
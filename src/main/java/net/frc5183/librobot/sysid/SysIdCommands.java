@@ -0,0 +1,344 @@
+package net.frc5183.librobot.sysid;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.FunctionalCommand;
+import edu.wpi.first.wpilibj2.command.Subsystem;
+import net.frc5183.librobot.hardware.encoder.Encoder;
+import net.frc5183.librobot.hardware.motor.EncodedMotor;
+import net.frc5183.librobot.hardware.motor.Motor;
+import net.frc5183.librobot.math.LinearSystem;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Creates system identification commands for a {@link Motor} and fits its feedforward constants in-process.
+ * <p>
+ * The quasistatic and dynamic tests are driven from a {@link Notifier} at a higher rate than the robot loop, which
+ * sets the voltage and records the voltage, position and velocity into a preallocated {@link SysIdLog} on every tick.
+ * After running all four tests (quasistatic and dynamic, forward and reverse), {@link #fit()} solves
+ * V = kS sgn(v) + kV v + kA a (+ kG, or kG cos(angle) for an arm) by least squares, with accelerations
+ * differentiated from the recorded velocities.
+ * <p>
+ * Samples are only as fresh as the encoder's status frames, so raise their rate on the motor controller for the best fit.
+ * The motor must not be buffered in a {@link net.frc5183.librobot.hardware.motor.MotorOutputStage},
+ * as the stage is only flushed once per robot loop.
+ */
+public class SysIdCommands {
+    /**
+     * The kind of mechanism being identified, which decides the gravity term of the fit.
+     */
+    public enum Mechanism {
+        /**
+         * A mechanism not affected by gravity, such as a flywheel or drivetrain.
+         */
+        SIMPLE,
+        /**
+         * A mechanism with constant gravity, such as an elevator.
+         */
+        ELEVATOR,
+        /**
+         * A mechanism with gravity proportional to the cosine of its angle, such as an arm.
+         */
+        ARM
+    }
+
+    /**
+     * The motor being identified.
+     */
+    @NotNull
+    private final Motor motor;
+
+    /**
+     * The encoder measuring the mechanism.
+     */
+    @NotNull
+    private final Encoder encoder;
+
+    /**
+     * The subsystem the commands require.
+     */
+    @NotNull
+    private final Subsystem subsystem;
+
+    /**
+     * The recorded samples.
+     */
+    @NotNull
+    private final SysIdLog log;
+
+    /**
+     * Drives the tests and records samples.
+     */
+    @NotNull
+    private final Notifier notifier;
+
+    /**
+     * The time in seconds between samples.
+     */
+    private final double period;
+
+    /**
+     * The kind of mechanism.
+     */
+    @NotNull
+    private Mechanism mechanism = Mechanism.SIMPLE;
+
+    /**
+     * The position in rotations at which an arm is horizontal.
+     */
+    private double armOffset;
+
+    /**
+     * The voltage ramp rate of the quasistatic tests in volts per second.
+     */
+    private double rampRate = 1;
+
+    /**
+     * The voltage of the dynamic tests.
+     */
+    private double stepVoltage = 7;
+
+    /**
+     * The velocity magnitude in rotations per second below which samples are left out of the fit.
+     */
+    private double velocityThreshold = 0.01;
+
+    /**
+     * Whether a test is running.
+     */
+    private boolean running;
+
+    /**
+     * Whether the running test ramps the voltage.
+     */
+    private boolean quasistatic;
+
+    /**
+     * The sign of the running test's voltage.
+     */
+    private double direction;
+
+    /**
+     * The timestamp the running test started at.
+     */
+    private double start;
+
+    /**
+     * Creates a new {@link SysIdCommands} for a motor with an encoder, sampling at 500 Hz into 20000 samples.
+     * @param motor The motor with an encoder to identify.
+     * @param subsystem The subsystem the commands require.
+     * @param <T> The type of the motor.
+     */
+    public <T extends Motor & EncodedMotor> SysIdCommands(@NotNull T motor, @NotNull Subsystem subsystem) {
+        this(motor, motor.getEncoder(), subsystem, 0.002, 20000);
+    }
+
+    /**
+     * Creates a new {@link SysIdCommands}.
+     * @param motor The motor to identify.
+     * @param encoder The encoder measuring the mechanism.
+     * @param subsystem The subsystem the commands require.
+     * @param period The time in seconds between samples.
+     * @param capacity The largest number of samples recorded across all tests.
+     * @throws IllegalArgumentException If the motor is buffered in an output stage, or the period or capacity is not positive.
+     */
+    public SysIdCommands(@NotNull Motor motor, @NotNull Encoder encoder, @NotNull Subsystem subsystem, double period, int capacity) {
+        if (motor.getOutputStage() != null) throw new IllegalArgumentException("Motor must not be buffered in an output stage.");
+        if (!(period > 0)) throw new IllegalArgumentException("Period must be greater than 0.");
+
+        this.motor = motor;
+        this.encoder = encoder;
+        this.subsystem = subsystem;
+        this.period = period;
+        this.log = new SysIdLog(capacity);
+        this.notifier = new Notifier(this::sample);
+        notifier.setName("SysId");
+    }
+
+    /**
+     * Creates a command which ramps the voltage up slowly, so the fit sees velocity without acceleration.
+     * @param forward Whether to drive forward.
+     * @param timeout The longest the test runs in seconds, stop it sooner if the mechanism nears its limits.
+     * @return The command.
+     */
+    public @NotNull Command quasistatic(boolean forward, double timeout) {
+        return test(true, forward).withTimeout(timeout).withName("SysId quasistatic " + (forward ? "forward" : "reverse"));
+    }
+
+    /**
+     * Creates a command which steps the voltage, so the fit sees acceleration.
+     * @param forward Whether to drive forward.
+     * @param timeout The longest the test runs in seconds, stop it sooner if the mechanism nears its limits.
+     * @return The command.
+     */
+    public @NotNull Command dynamic(boolean forward, double timeout) {
+        return test(false, forward).withTimeout(timeout).withName("SysId dynamic " + (forward ? "forward" : "reverse"));
+    }
+
+    /**
+     * Fits the feedforward constants to every recorded sample.
+     * @return The fitted constants.
+     * @throws IllegalStateException If a test is running or there are too few moving samples to fit.
+     */
+    public synchronized @NotNull SysIdFit fit() {
+        if (running) throw new IllegalStateException("Cannot fit while a test is running.");
+
+        int terms = mechanism == Mechanism.SIMPLE ? 3 : 4;
+        double[][] normal = new double[terms][terms + 1];
+        double[] row = new double[terms];
+        double sum = 0;
+        double sumSquares = 0;
+        int samples = 0;
+
+        for (int i = 1; i < log.size() - 1; i++) {
+            if (!regressors(i, row)) continue;
+            double voltage = log.getVoltage(i);
+
+            for (int r = 0; r < terms; r++) {
+                for (int c = 0; c < terms; c++) normal[r][c] += row[r] * row[c];
+                normal[r][terms] += row[r] * voltage;
+            }
+            sum += voltage;
+            sumSquares += voltage * voltage;
+            samples++;
+        }
+
+        if (samples <= terms) throw new IllegalStateException("Too few moving samples to fit, run the tests first.");
+        double[] solution = LinearSystem.solve(normal, "Samples do not determine every constant, run all four tests.");
+
+        double residual = 0;
+        for (int i = 1; i < log.size() - 1; i++) {
+            if (!regressors(i, row)) continue;
+            double predicted = 0;
+            for (int r = 0; r < terms; r++) predicted += solution[r] * row[r];
+            double error = log.getVoltage(i) - predicted;
+            residual += error * error;
+        }
+        double total = sumSquares - sum * sum / samples;
+        double rSquared = total > 0 ? 1 - residual / total : 1;
+
+        return new SysIdFit(solution[0], solution[1], solution[2], terms == 4 ? solution[3] : 0, rSquared, samples);
+    }
+
+    /**
+     * Sets the kind of mechanism being identified.
+     * @param mechanism The kind of mechanism.
+     * @param armOffset The position in rotations at which an arm is horizontal, ignored for other mechanisms.
+     */
+    public synchronized void setMechanism(@NotNull Mechanism mechanism, double armOffset) {
+        this.mechanism = mechanism;
+        this.armOffset = armOffset;
+    }
+
+    /**
+     * Sets the voltages of the tests.
+     * @param rampRate The voltage ramp rate of the quasistatic tests in volts per second.
+     * @param stepVoltage The voltage of the dynamic tests.
+     * @throws IllegalArgumentException If either is not positive.
+     */
+    public synchronized void setVoltages(double rampRate, double stepVoltage) {
+        if (!(rampRate > 0) || !(stepVoltage > 0)) throw new IllegalArgumentException("Voltages must be greater than 0.");
+        this.rampRate = rampRate;
+        this.stepVoltage = stepVoltage;
+    }
+
+    /**
+     * Sets the velocity below which samples are left out of the fit, as static friction makes them unreliable.
+     * @param velocityThreshold The velocity magnitude in rotations per second.
+     */
+    public synchronized void setVelocityThreshold(double velocityThreshold) {
+        this.velocityThreshold = velocityThreshold;
+    }
+
+    /**
+     * @return the recorded samples
+     */
+    public @NotNull SysIdLog getLog() {
+        return log;
+    }
+
+    /**
+     * Removes every recorded sample.
+     */
+    public synchronized void clear() {
+        log.clear();
+    }
+
+    /**
+     * Creates a command running one test.
+     * @param ramp Whether the test ramps the voltage.
+     * @param forward Whether to drive forward.
+     * @return The command.
+     */
+    private Command test(boolean ramp, boolean forward) {
+        return new FunctionalCommand(
+                () -> begin(ramp, forward),
+                () -> { },
+                interrupted -> finish(),
+                log::isFull,
+                subsystem
+        );
+    }
+
+    /**
+     * Starts a test.
+     * @param ramp Whether the test ramps the voltage.
+     * @param forward Whether to drive forward.
+     */
+    private synchronized void begin(boolean ramp, boolean forward) {
+        quasistatic = ramp;
+        direction = forward ? 1 : -1;
+        start = Timer.getFPGATimestamp();
+        log.nextTest();
+        running = true;
+        notifier.startPeriodic(period);
+    }
+
+    /**
+     * Stops the running test and the motor.
+     */
+    private void finish() {
+        notifier.stop();
+        synchronized (this) {
+            running = false;
+            motor.stopMotor();
+        }
+    }
+
+    /**
+     * Sets the voltage of the running test and records a sample, called from the notifier thread.
+     */
+    private synchronized void sample() {
+        if (!running) return;
+
+        double now = Timer.getFPGATimestamp();
+        double voltage = direction * (quasistatic ? rampRate * (now - start) : stepVoltage);
+        motor.setVoltage(voltage);
+        log.add(now, voltage, encoder.getUnitsRotations(), encoder.getVelocityRotationsPerSecond());
+    }
+
+    /**
+     * Computes the regressors of a sample.
+     * @param i The index of the sample, with a sample on either side.
+     * @param row The array to write the regressors into.
+     * @return Whether the sample can be used in the fit.
+     */
+    private boolean regressors(int i, double[] row) {
+        int test = log.getTest(i);
+        if (log.getTest(i - 1) != test || log.getTest(i + 1) != test) return false;
+
+        double velocity = log.getVelocity(i);
+        if (Math.abs(velocity) < velocityThreshold) return false;
+
+        double dt = log.getTime(i + 1) - log.getTime(i - 1);
+        if (!(dt > 0)) return false;
+
+        row[0] = Math.signum(velocity);
+        row[1] = velocity;
+        row[2] = (log.getVelocity(i + 1) - log.getVelocity(i - 1)) / dt;
+        if (mechanism == Mechanism.ELEVATOR) row[3] = 1;
+        else if (mechanism == Mechanism.ARM) row[3] = Math.cos(2 * Math.PI * (log.getPosition(i) - armOffset));
+        return true;
+    }
+}
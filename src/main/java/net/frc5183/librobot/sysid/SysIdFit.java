@@ -0,0 +1,117 @@
+package net.frc5183.librobot.sysid;
+
+import net.frc5183.librobot.hardware.motor.ClosedLoopGains;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Feedforward constants fitted by {@link SysIdCommands#fit()}.
+ * Positions are in rotations, velocities in rotations per second and outputs in volts, as in {@link ClosedLoopGains}.
+ */
+public final class SysIdFit {
+    /**
+     * The static friction feedforward in volts.
+     */
+    private final double kS;
+
+    /**
+     * The velocity feedforward in volts per rotation per second.
+     */
+    private final double kV;
+
+    /**
+     * The acceleration feedforward in volts per rotation per second squared.
+     */
+    private final double kA;
+
+    /**
+     * The gravity feedforward in volts, at horizontal for an arm.
+     */
+    private final double kG;
+
+    /**
+     * The coefficient of determination of the fit.
+     */
+    private final double rSquared;
+
+    /**
+     * The number of samples the fit used.
+     */
+    private final int samples;
+
+    /**
+     * Creates a new {@link SysIdFit}.
+     * @param kS The static friction feedforward in volts.
+     * @param kV The velocity feedforward in volts per rotation per second.
+     * @param kA The acceleration feedforward in volts per rotation per second squared.
+     * @param kG The gravity feedforward in volts, at horizontal for an arm.
+     * @param rSquared The coefficient of determination of the fit.
+     * @param samples The number of samples the fit used.
+     */
+    SysIdFit(double kS, double kV, double kA, double kG, double rSquared, int samples) {
+        this.kS = kS;
+        this.kV = kV;
+        this.kA = kA;
+        this.kG = kG;
+        this.rSquared = rSquared;
+        this.samples = samples;
+    }
+
+    /**
+     * @return the static friction feedforward in volts
+     */
+    public double getS() {
+        return kS;
+    }
+
+    /**
+     * @return the velocity feedforward in volts per rotation per second
+     */
+    public double getV() {
+        return kV;
+    }
+
+    /**
+     * @return the acceleration feedforward in volts per rotation per second squared
+     */
+    public double getA() {
+        return kA;
+    }
+
+    /**
+     * @return the gravity feedforward in volts, at horizontal for an arm
+     */
+    public double getG() {
+        return kG;
+    }
+
+    /**
+     * @return the coefficient of determination of the fit, 1 for a perfect fit
+     */
+    public double getRSquared() {
+        return rSquared;
+    }
+
+    /**
+     * @return the number of samples the fit used
+     */
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * Creates closed loop gains with these feedforward constants.
+     * Note that {@link ClosedLoopGains} applies kG as a constant, which only suits an elevator.
+     * @param kP The proportional gain.
+     * @param kI The integral gain, per second.
+     * @param kD The derivative gain, in seconds.
+     * @return The gains.
+     */
+    public @NotNull ClosedLoopGains toGains(double kP, double kI, double kD) {
+        return new ClosedLoopGains(kP, kI, kD, kS, kV, kA, kG);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("kS=%.4f kV=%.4f kA=%.4f kG=%.4f (r^2=%.4f, %d samples)", kS, kV, kA, kG, rSquared, samples);
+    }
+}
@@ -0,0 +1,151 @@
+package net.frc5183.librobot.sysid;
+
+/**
+ * A preallocated buffer of system identification samples, one primitive array per column.
+ * Adding a sample never allocates; samples past the capacity are dropped.
+ */
+public class SysIdLog {
+    /**
+     * The timestamps in seconds.
+     */
+    private final double[] times;
+
+    /**
+     * The applied voltages.
+     */
+    private final double[] voltages;
+
+    /**
+     * The positions in rotations.
+     */
+    private final double[] positions;
+
+    /**
+     * The velocities in rotations per second.
+     */
+    private final double[] velocities;
+
+    /**
+     * The test each sample belongs to.
+     */
+    private final int[] tests;
+
+    /**
+     * The number of samples.
+     */
+    private int size;
+
+    /**
+     * The test new samples belong to.
+     */
+    private int test;
+
+    /**
+     * Creates a new {@link SysIdLog}.
+     * @param capacity The largest number of samples.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    public SysIdLog(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be greater than 0.");
+        times = new double[capacity];
+        voltages = new double[capacity];
+        positions = new double[capacity];
+        velocities = new double[capacity];
+        tests = new int[capacity];
+    }
+
+    /**
+     * Adds a sample to the current test.
+     * @param time The timestamp in seconds.
+     * @param voltage The applied voltage.
+     * @param position The position in rotations.
+     * @param velocity The velocity in rotations per second.
+     * @return Whether the sample fit in the buffer.
+     */
+    public boolean add(double time, double voltage, double position, double velocity) {
+        if (size == times.length) return false;
+        times[size] = time;
+        voltages[size] = voltage;
+        positions[size] = position;
+        velocities[size] = velocity;
+        tests[size] = test;
+        size++;
+        return true;
+    }
+
+    /**
+     * Starts a new test, so that accelerations are not differentiated across the boundary.
+     */
+    public void nextTest() {
+        test++;
+    }
+
+    /**
+     * Removes every sample.
+     */
+    public void clear() {
+        size = 0;
+        test = 0;
+    }
+
+    /**
+     * @return the number of samples
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the largest number of samples
+     */
+    public int capacity() {
+        return times.length;
+    }
+
+    /**
+     * @return whether the buffer is full
+     */
+    public boolean isFull() {
+        return size == times.length;
+    }
+
+    /**
+     * @param index the index of the sample
+     * @return the timestamp of the sample in seconds
+     */
+    public double getTime(int index) {
+        return times[index];
+    }
+
+    /**
+     * @param index the index of the sample
+     * @return the applied voltage of the sample
+     */
+    public double getVoltage(int index) {
+        return voltages[index];
+    }
+
+    /**
+     * @param index the index of the sample
+     * @return the position of the sample in rotations
+     */
+    public double getPosition(int index) {
+        return positions[index];
+    }
+
+    /**
+     * @param index the index of the sample
+     * @return the velocity of the sample in rotations per second
+     */
+    public double getVelocity(int index) {
+        return velocities[index];
+    }
+
+    /**
+     * @param index the index of the sample
+     * @return the test the sample belongs to
+     */
+    public int getTest(int index) {
+        return tests[index];
+    }
+}
@@ -0,0 +1,166 @@
+package net.frc5183.librobot.trajectory;
+
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.path.PathPlannerTrajectory;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Generates {@link TrajectoryTable}s from PathPlanner paths in the deploy directory and caches them on disk.
+ * <p>
+ * Each cached table is keyed by a hash of the path file's contents and the generation settings, so a path is only
+ * regenerated when it (or the settings) change; otherwise loading a path is a single read of primitive data.
+ * Tables are generated from rest with the path's own constraints.
+ */
+public class TrajectoryCache {
+    /**
+     * The version of the cached table format, part of every cache key.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * The directory PathPlanner deploys paths to, relative to the deploy directory.
+     */
+    private static final String PATHS_DIRECTORY = "pathplanner/paths";
+
+    /**
+     * The directory cached tables are stored in.
+     */
+    @NotNull
+    private final Path cacheDirectory;
+
+    /**
+     * The time between rows of generated tables in seconds.
+     */
+    private final double timeStep;
+
+    /**
+     * Creates a new {@link TrajectoryCache} storing tables sampled every 10 ms in "trajectory-cache"
+     * in the robot program's operating directory.
+     */
+    public TrajectoryCache() {
+        this(Filesystem.getOperatingDirectory().toPath().resolve("trajectory-cache"), 0.01);
+    }
+
+    /**
+     * Creates a new {@link TrajectoryCache}.
+     * @param cacheDirectory The directory cached tables are stored in.
+     * @param timeStep The time between rows of generated tables in seconds.
+     * @throws IllegalArgumentException If the time step is not positive.
+     */
+    public TrajectoryCache(@NotNull Path cacheDirectory, double timeStep) {
+        if (!(timeStep > 0)) throw new IllegalArgumentException("Time step must be greater than 0.");
+        this.cacheDirectory = cacheDirectory;
+        this.timeStep = timeStep;
+    }
+
+    /**
+     * Loads the table of the given PathPlanner path, generating and caching it if the path has changed.
+     * @param pathName The name of the path, without the ".path" extension.
+     * @return The table of the path.
+     * @throws IOException If the path file cannot be read.
+     */
+    public @NotNull TrajectoryTable load(@NotNull String pathName) throws IOException {
+        Path pathFile = Filesystem.getDeployDirectory().toPath().resolve(PATHS_DIRECTORY).resolve(pathName + ".path");
+        Path cacheFile = cacheDirectory.resolve(pathName + "-" + key(Files.readAllBytes(pathFile)) + ".traj");
+
+        if (Files.exists(cacheFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+                return TrajectoryTable.read(in, Files.size(cacheFile));
+            } catch (IOException | RuntimeException e) {
+                DriverStation.reportWarning("Discarding unreadable trajectory cache " + cacheFile + ": " + e.getMessage(), false);
+            }
+        }
+
+        TrajectoryTable table = generate(PathPlannerPath.fromPathFile(pathName));
+        try {
+            write(table, cacheFile);
+        } catch (IOException e) {
+            DriverStation.reportWarning("Failed to cache trajectory " + pathName + ": " + e.getMessage(), false);
+        }
+        return table;
+    }
+
+    /**
+     * Generates the table of a path, starting from rest.
+     * @param path The path.
+     * @return The table of the path.
+     */
+    public @NotNull TrajectoryTable generate(@NotNull PathPlannerPath path) {
+        PathPlannerTrajectory trajectory = path.getTrajectory(new ChassisSpeeds(), new Rotation2d());
+        double totalTime = trajectory.getTotalTimeSeconds();
+
+        // The first row at or after the end is the last, corrected for rounding in the division.
+        int length = (int) Math.ceil(totalTime / timeStep) + 1;
+        while (length > 1 && (length - 2) * timeStep >= totalTime) length--;
+        while ((length - 1) * timeStep < totalTime) length++;
+        double[] xs = new double[length];
+        double[] ys = new double[length];
+        double[] headings = new double[length];
+        double[] velocities = new double[length];
+        double[] accelerations = new double[length];
+        double[] angularVelocities = new double[length];
+        double[] rotations = new double[length];
+
+        for (int i = 0; i < length; i++) {
+            // The last row is the end of the path, up to one time step after the row before it.
+            PathPlannerTrajectory.State state = trajectory.sample(Math.min(i * timeStep, totalTime));
+            xs[i] = state.positionMeters.getX();
+            ys[i] = state.positionMeters.getY();
+            headings[i] = state.heading.getRadians();
+            velocities[i] = state.velocityMps;
+            accelerations[i] = state.accelerationMpsSq;
+            angularVelocities[i] = state.headingAngularVelocityRps;
+            rotations[i] = state.targetHolonomicRotation.getRadians();
+        }
+
+        return new TrajectoryTable(timeStep, totalTime, xs, ys, headings, velocities, accelerations, angularVelocities, rotations);
+    }
+
+    /**
+     * Computes the cache key of a path file's contents under the current settings.
+     * @param contents The contents of the path file.
+     * @return The cache key as a hexadecimal string.
+     */
+    private String key(byte[] contents) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(ByteBuffer.allocate(12).putInt(FORMAT_VERSION).putDouble(timeStep).array());
+            digest.update(contents);
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    /**
+     * Writes a table to a cache file, replacing it atomically so a partial write is never read.
+     * @param table The table.
+     * @param cacheFile The cache file.
+     * @throws IOException If the file cannot be written.
+     */
+    private void write(TrajectoryTable table, Path cacheFile) throws IOException {
+        Files.createDirectories(cacheDirectory);
+        Path temporary = Files.createTempFile(cacheDirectory, "trajectory", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            table.write(out);
+        }
+        Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,73 @@
+package net.frc5183.librobot.trajectory;
+
+/**
+ * A reusable holder for one sample of a {@link TrajectoryTable}.
+ * Create one per follower and pass it to {@link TrajectoryTable#sample(double, TrajectorySample)} every loop
+ * so that sampling does not allocate.
+ */
+public class TrajectorySample {
+    double time;
+    double x;
+    double y;
+    double heading;
+    double velocity;
+    double acceleration;
+    double angularVelocity;
+    double rotation;
+
+    /**
+     * @return the time of the sample in seconds since the start of the trajectory
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * @return the x position in meters
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return the y position in meters
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return the direction of travel in radians
+     */
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * @return the speed along the path in meters per second
+     */
+    public double getVelocity() {
+        return velocity;
+    }
+
+    /**
+     * @return the acceleration along the path in meters per second squared
+     */
+    public double getAcceleration() {
+        return acceleration;
+    }
+
+    /**
+     * @return the rate of change of the direction of travel in radians per second
+     */
+    public double getAngularVelocity() {
+        return angularVelocity;
+    }
+
+    /**
+     * @return the target rotation of a holonomic drivetrain in radians
+     */
+    public double getRotation() {
+        return rotation;
+    }
+}
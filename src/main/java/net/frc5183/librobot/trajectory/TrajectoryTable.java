@@ -0,0 +1,246 @@
+package net.frc5183.librobot.trajectory;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A trajectory stored as a table of samples taken at a fixed time step, one primitive array per column.
+ * Sampling a time is index arithmetic plus a linear interpolation between two rows, so it is O(1) and does not allocate.
+ */
+public class TrajectoryTable {
+    /**
+     * The bytes of the binary form before the rows: the time step, the total time and the number of rows.
+     */
+    private static final int HEADER_BYTES = 2 * Double.BYTES + Integer.BYTES;
+
+    /**
+     * The bytes of one row in the binary form.
+     */
+    private static final int ROW_BYTES = 7 * Double.BYTES;
+
+    /**
+     * The time between rows in seconds.
+     */
+    private final double timeStep;
+
+    /**
+     * The time of the last row in seconds.
+     */
+    private final double totalTime;
+
+    /**
+     * The x positions in meters.
+     */
+    @NotNull
+    private final double[] xs;
+
+    /**
+     * The y positions in meters.
+     */
+    @NotNull
+    private final double[] ys;
+
+    /**
+     * The directions of travel in radians.
+     */
+    @NotNull
+    private final double[] headings;
+
+    /**
+     * The speeds along the path in meters per second.
+     */
+    @NotNull
+    private final double[] velocities;
+
+    /**
+     * The accelerations along the path in meters per second squared.
+     */
+    @NotNull
+    private final double[] accelerations;
+
+    /**
+     * The rates of change of the direction of travel in radians per second.
+     */
+    @NotNull
+    private final double[] angularVelocities;
+
+    /**
+     * The target rotations of a holonomic drivetrain in radians.
+     */
+    @NotNull
+    private final double[] rotations;
+
+    /**
+     * Creates a new {@link TrajectoryTable}. Row i is at time i * timeStep. The arrays are not copied.
+     * @param timeStep The time between rows in seconds.
+     * @param xs The x positions in meters.
+     * @param ys The y positions in meters.
+     * @param headings The directions of travel in radians.
+     * @param velocities The speeds along the path in meters per second.
+     * @param accelerations The accelerations along the path in meters per second squared.
+     * @param angularVelocities The rates of change of the direction of travel in radians per second.
+     * @param rotations The target rotations of a holonomic drivetrain in radians.
+     * @throws IllegalArgumentException If the time step is not positive, or the arrays are empty or of different lengths.
+     */
+    public TrajectoryTable(double timeStep, @NotNull double[] xs, @NotNull double[] ys, @NotNull double[] headings,
+                           @NotNull double[] velocities, @NotNull double[] accelerations,
+                           @NotNull double[] angularVelocities, @NotNull double[] rotations) {
+        this(timeStep, (xs.length - 1) * timeStep, xs, ys, headings, velocities, accelerations, angularVelocities, rotations);
+    }
+
+    /**
+     * Creates a new {@link TrajectoryTable} whose last row is at the end of the trajectory rather than on the time
+     * step. Row i is at time i * timeStep, except the last row, which is at totalTime. The arrays are not copied.
+     * @param timeStep The time between rows in seconds.
+     * @param totalTime The time of the last row in seconds, after the second to last row and at most one time step
+     * after it.
+     * @param xs The x positions in meters.
+     * @param ys The y positions in meters.
+     * @param headings The directions of travel in radians.
+     * @param velocities The speeds along the path in meters per second.
+     * @param accelerations The accelerations along the path in meters per second squared.
+     * @param angularVelocities The rates of change of the direction of travel in radians per second.
+     * @param rotations The target rotations of a holonomic drivetrain in radians.
+     * @throws IllegalArgumentException If the time step is not positive, the arrays are empty or of different lengths,
+     * or the total time does not fall in the last time step.
+     */
+    public TrajectoryTable(double timeStep, double totalTime, @NotNull double[] xs, @NotNull double[] ys,
+                           @NotNull double[] headings, @NotNull double[] velocities, @NotNull double[] accelerations,
+                           @NotNull double[] angularVelocities, @NotNull double[] rotations) {
+        if (!(timeStep > 0)) throw new IllegalArgumentException("Time step must be greater than 0.");
+        int length = xs.length;
+        if (length == 0) throw new IllegalArgumentException("A trajectory must have at least one row.");
+        if (ys.length != length || headings.length != length || velocities.length != length
+                || accelerations.length != length || angularVelocities.length != length || rotations.length != length) {
+            throw new IllegalArgumentException("Every column must have the same length.");
+        }
+        if (length == 1 ? totalTime != 0 : !(totalTime > (length - 2) * timeStep && totalTime <= (length - 1) * timeStep)) {
+            throw new IllegalArgumentException("Total time must fall within the last time step.");
+        }
+
+        this.timeStep = timeStep;
+        this.totalTime = totalTime;
+        this.xs = xs;
+        this.ys = ys;
+        this.headings = headings;
+        this.velocities = velocities;
+        this.accelerations = accelerations;
+        this.angularVelocities = angularVelocities;
+        this.rotations = rotations;
+    }
+
+    /**
+     * Samples the trajectory at the given time. Times outside the trajectory are clamped to its ends.
+     * @param time The time in seconds since the start of the trajectory.
+     * @param out The sample to write into.
+     * @return The given sample.
+     */
+    public @NotNull TrajectorySample sample(double time, @NotNull TrajectorySample out) {
+        int last = xs.length - 1;
+        double clamped = Math.max(0, Math.min(time, totalTime));
+        int i = Math.min((int) (clamped / timeStep), Math.max(last - 1, 0));
+        int j = Math.min(i + 1, last);
+        // The last row may be closer than one time step.
+        double fraction = i == j ? 0 : (clamped - i * timeStep) / ((j == last ? totalTime : j * timeStep) - i * timeStep);
+
+        out.time = clamped;
+        out.x = lerp(xs, i, j, fraction);
+        out.y = lerp(ys, i, j, fraction);
+        out.heading = lerpAngle(headings, i, j, fraction);
+        out.velocity = lerp(velocities, i, j, fraction);
+        out.acceleration = lerp(accelerations, i, j, fraction);
+        out.angularVelocity = lerp(angularVelocities, i, j, fraction);
+        out.rotation = lerpAngle(rotations, i, j, fraction);
+        return out;
+    }
+
+    /**
+     * @return the duration of the trajectory in seconds
+     */
+    public double getTotalTime() {
+        return totalTime;
+    }
+
+    /**
+     * @return the time between rows in seconds
+     */
+    public double getTimeStep() {
+        return timeStep;
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return xs.length;
+    }
+
+    /**
+     * Writes the table in the binary form read by {@link #read(DataInputStream)}.
+     * @param out The stream to write to.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void write(@NotNull DataOutputStream out) throws IOException {
+        out.writeDouble(timeStep);
+        out.writeDouble(totalTime);
+        out.writeInt(xs.length);
+        for (double[] column : new double[][] {xs, ys, headings, velocities, accelerations, angularVelocities, rotations}) {
+            for (double value : column) out.writeDouble(value);
+        }
+    }
+
+    /**
+     * Reads a table written by {@link #write(DataOutputStream)}.
+     * @param in The stream to read from.
+     * @param size The number of bytes left in the stream, for example the size of the file. A table claiming more
+     * rows than fit is rejected before its columns are allocated.
+     * @return The table.
+     * @throws IOException If the stream cannot be read or does not contain a valid table.
+     */
+    public static @NotNull TrajectoryTable read(@NotNull DataInputStream in, long size) throws IOException {
+        double timeStep = in.readDouble();
+        double totalTime = in.readDouble();
+        int length = in.readInt();
+        if (length <= 0 || length > (size - HEADER_BYTES) / ROW_BYTES) {
+            throw new IOException("Invalid trajectory length " + length + " for " + size + " bytes.");
+        }
+
+        double[][] columns = new double[7][length];
+        for (double[] column : columns) {
+            for (int i = 0; i < length; i++) column[i] = in.readDouble();
+        }
+
+        try {
+            return new TrajectoryTable(timeStep, totalTime, columns[0], columns[1], columns[2], columns[3], columns[4], columns[5], columns[6]);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid trajectory table.", e);
+        }
+    }
+
+    /**
+     * Linearly interpolates a column.
+     * @param column The column.
+     * @param i The first row.
+     * @param j The second row.
+     * @param fraction How far from the first row to the second.
+     * @return The interpolated value.
+     */
+    private static double lerp(double[] column, int i, int j, double fraction) {
+        return column[i] + (column[j] - column[i]) * fraction;
+    }
+
+    /**
+     * Linearly interpolates a column of angles along the shortest direction.
+     * @param column The column of angles in radians.
+     * @param i The first row.
+     * @param j The second row.
+     * @param fraction How far from the first row to the second.
+     * @return The interpolated angle in radians.
+     */
+    private static double lerpAngle(double[] column, int i, int j, double fraction) {
+        return Math.IEEEremainder(column[i] + Math.IEEEremainder(column[j] - column[i], 2 * Math.PI) * fraction, 2 * Math.PI);
+    }
+}
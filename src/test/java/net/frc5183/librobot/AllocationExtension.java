@@ -0,0 +1,29 @@
+package net.frc5183.librobot;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+/**
+ * A JUnit extension which injects an {@link AllocationMeter} into test methods, for example:
+ * <pre>{@code
+ * @ExtendWith(AllocationExtension.class)
+ * class CurveAllocationTest {
+ *     @Test
+ *     void linear(AllocationMeter meter) {
+ *         meter.assertNoAllocation("LinearCurve", new LinearCurve(1, 0)::curve);
+ *     }
+ * }
+ * }</pre>
+ */
+public class AllocationExtension implements ParameterResolver {
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == AllocationMeter.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return new AllocationMeter();
+    }
+}
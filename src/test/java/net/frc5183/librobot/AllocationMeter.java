@@ -0,0 +1,95 @@
+package net.frc5183.librobot;
+
+import org.junit.jupiter.api.Assertions;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Measures the bytes allocated by warmed-up calls on the current thread,
+ * using {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ * <p>
+ * Calls are first run enough times for the JIT to compile them, so that allocations it would remove by escape analysis
+ * are not counted, then measured over many more calls. Any allocation averaging a byte or more per call fails the test.
+ */
+public class AllocationMeter {
+    /**
+     * The number of calls run before measuring.
+     */
+    private static final int WARMUP_CALLS = 50_000;
+
+    /**
+     * The number of calls measured.
+     */
+    private static final int MEASURED_CALLS = 100_000;
+
+    /**
+     * The inputs functions are called with, cycling.
+     */
+    private static final double[] INPUTS = {-1, -0.75, -0.5, -0.3, -0.1, 0, 0.1, 0.3, 0.5, 0.75, 1};
+
+    /**
+     * The thread bean measuring allocations.
+     */
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Keeps results alive so the JIT cannot remove the calls.
+     */
+    private double sink;
+
+    /**
+     * Creates a new {@link AllocationMeter}.
+     * @throws IllegalStateException If the JVM cannot measure thread allocations.
+     */
+    public AllocationMeter() {
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("Thread allocation measurement is not supported by this JVM.");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Fails if the call allocates.
+     * @param name The name of the call, used in the failure message.
+     * @param call The call.
+     */
+    public void assertNoAllocation(String name, Runnable call) {
+        for (int i = 0; i < WARMUP_CALLS; i++) call.run();
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < MEASURED_CALLS; i++) call.run();
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        check(name, allocated);
+    }
+
+    /**
+     * Fails if calling the function with inputs between -1 and 1 allocates.
+     * @param name The name of the function, used in the failure message.
+     * @param function The function.
+     */
+    public void assertNoAllocation(String name, DoubleUnaryOperator function) {
+        for (int i = 0; i < WARMUP_CALLS; i++) sink += function.applyAsDouble(INPUTS[i % INPUTS.length]);
+
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < MEASURED_CALLS; i++) sink += function.applyAsDouble(INPUTS[i % INPUTS.length]);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        check(name, allocated);
+    }
+
+    /**
+     * Fails if the measured calls allocated a byte or more per call on average.
+     * @param name The name of the call.
+     * @param allocated The bytes allocated by the measured calls.
+     */
+    private void check(String name, long allocated) {
+        if (allocated >= MEASURED_CALLS) {
+            Assertions.fail(name + " allocated " + allocated / MEASURED_CALLS + " bytes per call.");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package net.frc5183.librobot.hardware.encoder;
+
+import net.frc5183.librobot.AllocationExtension;
+import net.frc5183.librobot.AllocationMeter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(AllocationExtension.class)
+class EncoderAllocationTest {
+    private final SimEncoder raw = new SimEncoder();
+    private double time;
+
+    @Test
+    void scaled(AllocationMeter meter) {
+        ScaledEncoder encoder = new ScaledEncoder(raw, 8.45, 0.1016);
+        meter.assertNoAllocation("ScaledEncoder", x -> {
+            raw.position = x;
+            raw.velocity = x;
+            return encoder.getPositionMeters() + encoder.getPositionRadians() + encoder.getPositionDegrees()
+                    + encoder.getVelocityMetersPerSecond() + encoder.getVelocityRadiansPerSecond()
+                    + encoder.getVelocityDegreesPerSecond() + encoder.getUnitsRotations();
+        });
+    }
+
+    @Test
+    void ema(AllocationMeter meter) {
+        assertFiltered(meter, new EmaFilteredEncoder(raw, 0.05, FilteredEncoder.VelocitySource.ENCODER, this::tick));
+        assertFiltered(meter, new EmaFilteredEncoder(raw, 0.05, FilteredEncoder.VelocitySource.POSITION_DELTA, this::tick));
+    }
+
+    @Test
+    void median(AllocationMeter meter) {
+        assertFiltered(meter, new MedianFilteredEncoder(raw, 5, FilteredEncoder.VelocitySource.ENCODER, this::tick));
+    }
+
+    @Test
+    void kalman(AllocationMeter meter) {
+        assertFiltered(meter, new KalmanFilteredEncoder(raw, 10, 0.1, FilteredEncoder.VelocitySource.POSITION_DELTA, this::tick));
+    }
+
+    private double tick() {
+        time += 0.02;
+        return time;
+    }
+
+    private void assertFiltered(AllocationMeter meter, FilteredEncoder encoder) {
+        meter.assertNoAllocation(encoder.getClass().getSimpleName(), x -> {
+            raw.position += x;
+            raw.velocity = x;
+            encoder.update();
+            return encoder.getVelocityRotationsPerSecond() + encoder.getUnitsRotations();
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package net.frc5183.librobot.hardware.encoder;
+
+/**
+ * Measures the per-sample cost of each {@link FilteredEncoder}.
+ * <p>
+ * Run by the {@code filterBenchmark} Gradle task. Each filter is fed a noisy sine from a {@link SimEncoder} with a
+ * simulated 50 Hz clock, warmed up until the JIT has compiled it, then timed over many samples. Prints the mean time
+ * per {@link FilteredEncoder#update()} including the read of the underlying encoder.
+ */
+public final class FilterBenchmark {
+    private static final int WARMUP_SAMPLES = 200_000;
+    private static final int MEASURED_SAMPLES = 5_000_000;
+    private static final int ROUNDS = 5;
+
+    private static final SimEncoder RAW = new SimEncoder();
+    private static double time;
+    private static double sink;
+
+    private FilterBenchmark() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    public static void main(String[] args) {
+        for (FilteredEncoder.VelocitySource source : FilteredEncoder.VelocitySource.values()) {
+            run("EMA", source, new EmaFilteredEncoder(RAW, 0.05, source, FilterBenchmark::tick));
+            run("Median (5)", source, new MedianFilteredEncoder(RAW, 5, source, FilterBenchmark::tick));
+            run("Median (15)", source, new MedianFilteredEncoder(RAW, 15, source, FilterBenchmark::tick));
+            run("Kalman", source, new KalmanFilteredEncoder(RAW, 10, 0.1, source, FilterBenchmark::tick));
+        }
+        if (sink == 42) System.out.println();
+    }
+
+    /**
+     * Times one filter and prints its best mean time per sample over a few rounds.
+     * @param name The name of the filter.
+     * @param source Where the filter takes its samples from.
+     * @param encoder The filter.
+     */
+    private static void run(String name, FilteredEncoder.VelocitySource source, FilteredEncoder encoder) {
+        sample(encoder, WARMUP_SAMPLES);
+
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            sample(encoder, MEASURED_SAMPLES);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("%-12s %-15s %6.1f ns/sample%n", name, source, (double) best / MEASURED_SAMPLES);
+    }
+
+    /**
+     * Feeds samples through a filter.
+     * @param encoder The filter.
+     * @param samples The number of samples.
+     */
+    private static void sample(FilteredEncoder encoder, int samples) {
+        for (int i = 0; i < samples; i++) {
+            double noise = ((i * 7919) % 101 - 50) * 0.01;
+            RAW.velocity = 10 * Math.sin(i * 0.01) + noise;
+            RAW.position += RAW.velocity * 0.02;
+            encoder.update();
+            sink += encoder.getVelocityRotationsPerSecond();
+        }
+    }
+
+    private static double tick() {
+        time += 0.02;
+        return time;
+    }
+}
@@ -0,0 +1,74 @@
+package net.frc5183.librobot.hardware.encoder;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FilteredEncoderTest {
+    private final SimEncoder raw = new SimEncoder();
+    private double time;
+
+    @Test
+    void emaHoldsOnNonFiniteSamples() {
+        assertHolds(new EmaFilteredEncoder(raw, 0.05, FilteredEncoder.VelocitySource.ENCODER, this::tick));
+        assertHolds(new EmaFilteredEncoder(raw, 0.05, FilteredEncoder.VelocitySource.POSITION_DELTA, this::tick));
+    }
+
+    @Test
+    void medianHoldsOnNonFiniteSamples() {
+        assertHolds(new MedianFilteredEncoder(raw, 5, FilteredEncoder.VelocitySource.ENCODER, this::tick));
+        assertHolds(new MedianFilteredEncoder(raw, 5, FilteredEncoder.VelocitySource.POSITION_DELTA, this::tick));
+    }
+
+    @Test
+    void kalmanHoldsOnNonFiniteSamples() {
+        assertHolds(new KalmanFilteredEncoder(raw, 10, 0.1, FilteredEncoder.VelocitySource.ENCODER, this::tick));
+        assertHolds(new KalmanFilteredEncoder(raw, 10, 0.1, FilteredEncoder.VelocitySource.POSITION_DELTA, this::tick));
+    }
+
+    @Test
+    void medianOfWindow() {
+        MedianFilteredEncoder encoder = new MedianFilteredEncoder(raw, 3, FilteredEncoder.VelocitySource.ENCODER, this::tick);
+        double[] samples = {1, 100, 2, 3, -50, 4};
+        double[] medians = {1, 50.5, 2, 3, 2, 3};
+        for (int i = 0; i < samples.length; i++) {
+            raw.velocity = samples[i];
+            encoder.update();
+            assertEquals(medians[i], encoder.getVelocityRotationsPerSecond(), 1e-9);
+        }
+    }
+
+    private double tick() {
+        time += 0.02;
+        return time;
+    }
+
+    /**
+     * Feeds a steady velocity, then a few non-finite readings, and checks the filter holds and then recovers.
+     */
+    private void assertHolds(FilteredEncoder encoder) {
+        raw.position = 0;
+        for (int i = 0; i < 20; i++) {
+            raw.velocity = 2;
+            raw.position += 2 * 0.02;
+            encoder.update();
+        }
+        double held = encoder.getVelocityRotationsPerSecond();
+
+        for (double bad : new double[] {Double.NaN, Double.POSITIVE_INFINITY, Double.NaN, Double.NEGATIVE_INFINITY, Double.NaN, Double.NaN}) {
+            raw.velocity = bad;
+            double position = raw.position;
+            raw.position = bad;
+            encoder.update();
+            raw.position = position;
+            assertEquals(held, encoder.getVelocityRotationsPerSecond(), 0, encoder.getClass().getSimpleName() + " should hold on " + bad);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            raw.velocity = 2;
+            raw.position += 2 * 0.02;
+            encoder.update();
+        }
+        assertEquals(2, encoder.getVelocityRotationsPerSecond(), 0.1, encoder.getClass().getSimpleName() + " should recover");
+    }
+}
@@ -0,0 +1,98 @@
+package net.frc5183.librobot.hardware.encoder;
+
+import com.ctre.phoenix6.hardware.TalonFX;
+import edu.wpi.first.hal.HAL;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScaledEncoderTest {
+    private static final double EPSILON = 1e-9;
+
+    @BeforeAll
+    static void initialize() {
+        HAL.initialize(500, 0);
+    }
+
+    @Test
+    void rotations() {
+        SimEncoder raw = new SimEncoder();
+        ScaledEncoder encoder = new ScaledEncoder(raw, 4);
+        raw.position = 10;
+        raw.velocity = -6;
+
+        assertEquals(2.5, encoder.getUnitsRotations(), EPSILON);
+        assertEquals(-1.5, encoder.getVelocityRotationsPerSecond(), EPSILON);
+    }
+
+    @Test
+    void angles() {
+        SimEncoder raw = new SimEncoder();
+        ScaledEncoder encoder = new ScaledEncoder(raw, 2);
+        raw.position = 3;
+        raw.velocity = 1;
+
+        assertEquals(3 * Math.PI, encoder.getPositionRadians(), EPSILON);
+        assertEquals(540, encoder.getPositionDegrees(), EPSILON);
+        assertEquals(Math.PI, encoder.getVelocityRadiansPerSecond(), EPSILON);
+        assertEquals(180, encoder.getVelocityDegreesPerSecond(), EPSILON);
+    }
+
+    @Test
+    void meters() {
+        SimEncoder raw = new SimEncoder();
+        ScaledEncoder encoder = new ScaledEncoder(raw, 8.46, 0.1524);
+        raw.position = 8.46;
+        raw.velocity = 84.6;
+
+        assertEquals(Math.PI * 0.1524, encoder.getPositionMeters(), EPSILON);
+        assertEquals(10 * Math.PI * 0.1524, encoder.getVelocityMetersPerSecond(), EPSILON);
+    }
+
+    @Test
+    void metersWithoutWheel() {
+        SimEncoder raw = new SimEncoder();
+        ScaledEncoder encoder = new ScaledEncoder(raw, 1);
+        raw.position = 1;
+        raw.velocity = 1;
+
+        assertTrue(Double.isNaN(encoder.getPositionMeters()), "Position in meters should be NaN without a wheel.");
+        assertTrue(Double.isNaN(encoder.getVelocityMetersPerSecond()), "Velocity in meters should be NaN without a wheel.");
+    }
+
+    @Test
+    void reset() {
+        SimEncoder raw = new SimEncoder();
+        ScaledEncoder encoder = new ScaledEncoder(raw, 3);
+        raw.position = 9;
+        encoder.reset();
+
+        assertEquals(0, raw.position, EPSILON);
+        assertEquals(0, encoder.getUnitsRotations(), EPSILON);
+    }
+
+    @Test
+    void invalidArguments() {
+        SimEncoder raw = new SimEncoder();
+        assertThrows(IllegalArgumentException.class, () -> new ScaledEncoder(raw, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ScaledEncoder(raw, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new ScaledEncoder(raw, 1, -0.1));
+    }
+
+    @Test
+    void talonFXVelocity() {
+        TalonFXEncoder encoder = new TalonFXEncoder(new TalonFX(1)) {
+            @Override
+            public double getVelocityRotationsPerSecond() {
+                return 2;
+            }
+        };
+
+        assertEquals(720, encoder.getVelocityDegrees(), EPSILON);
+        assertEquals(4 * Math.PI, encoder.getVelocityRadiansPerSecond(), EPSILON);
+        assertEquals(120, encoder.getVelocityRotationsPerMinute(), EPSILON);
+    }
+}
@@ -0,0 +1,24 @@
+package net.frc5183.librobot.hardware.encoder;
+
+/**
+ * An {@link Encoder} whose readings are set directly, for tests.
+ */
+class SimEncoder extends Encoder {
+    double position;
+    double velocity;
+
+    @Override
+    public double getUnitsRotations() {
+        return position;
+    }
+
+    @Override
+    public double getVelocityRotationsPerSecond() {
+        return velocity;
+    }
+
+    @Override
+    public void reset() {
+        position = 0;
+    }
+}
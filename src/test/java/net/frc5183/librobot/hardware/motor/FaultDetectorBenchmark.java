@@ -0,0 +1,114 @@
+package net.frc5183.librobot.hardware.motor;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
+import net.frc5183.librobot.hardware.FaultDetector;
+import net.frc5183.librobot.hardware.encoder.Encoder;
+
+/**
+ * Measures the per-loop cost of a {@link FaultDetector} watching a full robot of 30 channels.
+ * <p>
+ * Run by the {@code faultDetectorBenchmark} Gradle task. Twenty channels are motors buffered in an output stage with
+ * their encoders, checked for stalls, jumps, over-current and stale signals, and ten are absolute encoders checked
+ * for jumps and stale signals. The motors and encoders are simulated, so the time excludes reading the devices over
+ * CAN and measures only the detector's own checks, debouncing and actions. Every channel stays healthy, the common
+ * case in a match, since raising a fault also reports it to the driver station. Prints the mean time per
+ * {@link FaultDetector#update()} after the JIT has compiled it.
+ */
+public final class FaultDetectorBenchmark {
+    private static final int MOTOR_CHANNELS = 20;
+    private static final int ENCODER_CHANNELS = 10;
+    private static final int WARMUP_LOOPS = 200_000;
+    private static final int MEASURED_LOOPS = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    private static final SimMotor[] MOTORS = new SimMotor[MOTOR_CHANNELS];
+    private static final BenchmarkEncoder[] ENCODERS = new BenchmarkEncoder[MOTOR_CHANNELS + ENCODER_CHANNELS];
+    private static double time;
+
+    private FaultDetectorBenchmark() {
+        throw new UnsupportedOperationException("This is a utility class!");
+    }
+
+    public static void main(String[] args) {
+        NetworkTableInstance instance = NetworkTableInstance.create();
+        FaultDetector detector = new FaultDetector(instance.getTable("faults"), () -> time);
+        MotorOutputStage stage = new MotorOutputStage();
+
+        for (int i = 0; i < MOTOR_CHANNELS; i++) {
+            MOTORS[i] = new SimMotor();
+            ENCODERS[i] = new BenchmarkEncoder();
+            stage.register(MOTORS[i]);
+
+            int channel = detector.register("motor" + i, MOTORS[i], ENCODERS[i]);
+            detector.setJumpCheck(channel, 5);
+            detector.setCurrentCheck(channel, 60);
+            detector.setStaleCheck(channel, () -> 0.01, 0.1);
+            detector.setAction(channel, FaultDetector.Action.DERATE, 0.5);
+        }
+        for (int i = MOTOR_CHANNELS; i < ENCODERS.length; i++) {
+            ENCODERS[i] = new BenchmarkEncoder();
+            int channel = detector.register("encoder" + i, ENCODERS[i]);
+            detector.setJumpCheck(channel, 0.25);
+            detector.setStaleCheck(channel, () -> 0.01, 0.1);
+        }
+
+        run(detector, stage, WARMUP_LOOPS);
+
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) best = Math.min(best, run(detector, stage, MEASURED_LOOPS));
+
+        double perLoop = (double) best / MEASURED_LOOPS;
+        System.out.printf("%d channels: %.2f us/update (%.1f ns/channel)%n",
+                detector.size(), perLoop / 1e3, perLoop / detector.size());
+        instance.close();
+    }
+
+    /**
+     * Runs robot loops at a simulated 50 Hz, timing only the detector's updates.
+     * @param detector The detector.
+     * @param stage The output stage of the motors.
+     * @param loops The number of loops.
+     * @return The total time spent in the detector's updates in nanoseconds.
+     */
+    private static long run(FaultDetector detector, MotorOutputStage stage, int loops) {
+        long elapsed = 0;
+        for (int i = 0; i < loops; i++) {
+            time += 0.02;
+            for (int m = 0; m < MOTOR_CHANNELS; m++) {
+                MOTORS[m].set(0.5);
+                MOTORS[m].current = 20;
+                ENCODERS[m].velocity = 10 + (i % 7) * 0.1;
+                ENCODERS[m].position += ENCODERS[m].velocity * 0.02;
+            }
+            stage.flush();
+
+            long start = System.nanoTime();
+            detector.update();
+            elapsed += System.nanoTime() - start;
+        }
+        return elapsed;
+    }
+
+    /**
+     * An {@link Encoder} whose readings are set directly.
+     */
+    private static final class BenchmarkEncoder extends Encoder {
+        private double position;
+        private double velocity;
+
+        @Override
+        public double getUnitsRotations() {
+            return position;
+        }
+
+        @Override
+        public double getVelocityRotationsPerSecond() {
+            return velocity;
+        }
+
+        @Override
+        public void reset() {
+            position = 0;
+        }
+    }
+}
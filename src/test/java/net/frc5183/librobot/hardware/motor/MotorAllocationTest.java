@@ -0,0 +1,79 @@
+package net.frc5183.librobot.hardware.motor;
+
+import net.frc5183.librobot.AllocationExtension;
+import net.frc5183.librobot.AllocationMeter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(AllocationExtension.class)
+class MotorAllocationTest {
+    @Test
+    void set(AllocationMeter meter) {
+        SimMotor motor = new SimMotor();
+        meter.assertNoAllocation("Motor.set", x -> {
+            motor.set(x);
+            return motor.get();
+        });
+        meter.assertNoAllocation("Motor.setVoltage", x -> {
+            motor.setVoltage(12 * x);
+            return motor.get();
+        });
+    }
+
+    @Test
+    void group(AllocationMeter meter) {
+        MotorGroup group = new MotorGroup(new SimMotor(), new SimMotor());
+        meter.assertNoAllocation("MotorGroup.set", x -> {
+            group.set(x);
+            return group.get();
+        });
+    }
+
+    @Test
+    void voltageCompensation(AllocationMeter meter) {
+        BatteryVoltage battery = new BatteryVoltage(() -> 10.5);
+        SimMotor motor = new SimMotor();
+        motor.setBatteryVoltage(battery);
+        motor.enableVoltageCompensation(10);
+        meter.assertNoAllocation("Motor.set compensated", x -> {
+            battery.update();
+            motor.set(x);
+            return motor.get();
+        });
+    }
+
+    @Test
+    void outputStage(AllocationMeter meter) {
+        MotorOutputStage stage = new MotorOutputStage();
+        SimMotor motor = new SimMotor();
+        MotorGroup group = new MotorGroup(new SimMotor(), new SimMotor());
+        stage.register(motor);
+        stage.register(group);
+
+        meter.assertNoAllocation("MotorOutputStage.flush", x -> {
+            motor.set(x);
+            group.setVoltage(12 * x);
+            return stage.flush();
+        });
+    }
+
+    @Test
+    void powerBudget(AllocationMeter meter) {
+        MotorOutputStage stage = new MotorOutputStage();
+        SimMotor drive = new SimMotor();
+        SimMotor intake = new SimMotor();
+        PowerBudget budget = new PowerBudget(stage, 60);
+        budget.register(drive, 2);
+        budget.register(intake, 1);
+        budget.setBatteryVoltageSupplier(() -> 8.5);
+
+        meter.assertNoAllocation("PowerBudget.update", x -> {
+            drive.current = 40 * Math.abs(x);
+            intake.current = 30 * Math.abs(x);
+            drive.set(x);
+            intake.set(x);
+            budget.update();
+            return stage.flush();
+        });
+    }
+}
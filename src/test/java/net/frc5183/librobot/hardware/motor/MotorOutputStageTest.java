@@ -0,0 +1,67 @@
+package net.frc5183.librobot.hardware.motor;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MotorOutputStageTest {
+    private static final double EPSILON = 1e-9;
+
+    private double battery = 12;
+
+    @Test
+    void skipsUnchangedOutputs() {
+        MotorOutputStage stage = new MotorOutputStage();
+        SimMotor motor = new SimMotor();
+        stage.register(motor);
+
+        motor.set(0.5);
+        assertEquals(1, stage.flush());
+        motor.set(0.5);
+        assertEquals(0, stage.flush());
+        motor.set(0.25);
+        assertEquals(1, stage.flush());
+        assertEquals(0.25, motor.speed, EPSILON);
+    }
+
+    @Test
+    void rewritesHeldSpeedAsBatterySags() {
+        BatteryVoltage voltage = new BatteryVoltage(() -> battery);
+        MotorOutputStage stage = new MotorOutputStage();
+        SimMotor motor = new SimMotor();
+        motor.setBatteryVoltage(voltage);
+        motor.enableVoltageCompensation(10);
+        stage.register(motor);
+
+        voltage.update();
+        motor.set(0.6);
+        assertEquals(1, stage.flush());
+        assertEquals(0.5, motor.speed, EPSILON);
+
+        voltage.update();
+        assertEquals(0, stage.flush(), "A held speed should not be rewritten while the battery is steady.");
+
+        battery = 10;
+        voltage.update();
+        assertEquals(1, stage.flush(), "A held speed should be rewritten when the battery sags.");
+        assertEquals(0.6, motor.speed, EPSILON);
+    }
+
+    @Test
+    void doesNotRewriteHeldVoltage() {
+        BatteryVoltage voltage = new BatteryVoltage(() -> battery);
+        MotorOutputStage stage = new MotorOutputStage();
+        SimMotor motor = new SimMotor();
+        motor.setBatteryVoltage(voltage);
+        motor.enableVoltageCompensation(10);
+        stage.register(motor);
+
+        voltage.update();
+        motor.setVoltage(6);
+        assertEquals(1, stage.flush());
+
+        battery = 10;
+        voltage.update();
+        assertEquals(0, stage.flush());
+    }
+}
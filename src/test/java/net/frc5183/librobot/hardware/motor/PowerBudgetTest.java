@@ -0,0 +1,84 @@
+package net.frc5183.librobot.hardware.motor;
+
+import edu.wpi.first.wpilibj.simulation.BatterySim;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a {@link PowerBudget} headless against {@link BatterySim}, with each motor drawing current in proportion to the
+ * output written to it.
+ */
+class PowerBudgetTest {
+    private static final int LOOPS = 50;
+
+    private final MotorOutputStage stage = new MotorOutputStage();
+    private final SimMotor[] motors = {new SimMotor(), new SimMotor(), new SimMotor(), new SimMotor()};
+    private final double[] stallCurrents = {60, 60, 40, 40};
+    private final double[] currents = new double[motors.length];
+    private double voltage = 12;
+
+    @Test
+    void staysUnderBudget() {
+        PowerBudget budget = register(150);
+        run(budget, 0.02, true);
+        assertEquals(150, budget.getAllowedCurrent(), 0, "A healthy battery should not derate the budget.");
+    }
+
+    @Test
+    void staysUnderDeratedBudget() {
+        PowerBudget budget = register(150);
+        run(budget, 0.03, false);
+        assertTrue(budget.getAllowedCurrent() < 150, "A sagging battery should derate the budget.");
+    }
+
+    @Test
+    void fitsEveryoneUnderBudget() {
+        PowerBudget budget = register(400);
+        run(budget, 0.01, true);
+        for (SimMotor motor : motors) assertEquals(1, budget.getScale(motor), 0);
+    }
+
+    /**
+     * Registers the drive motors at a higher priority than the mechanism motors.
+     */
+    private PowerBudget register(double amps) {
+        PowerBudget budget = new PowerBudget(stage, amps);
+        for (int i = 0; i < motors.length; i++) {
+            int m = i;
+            budget.register(motors[i], i < 2 ? 2 : 1, () -> currents[m]);
+        }
+        budget.setBatteryVoltageSupplier(() -> voltage);
+        return budget;
+    }
+
+    /**
+     * Runs the robot at full output for a number of loops, feeding each loop's currents to the battery model,
+     * and checks the total current against the budget once the first loop has been measured.
+     */
+    private void run(PowerBudget budget, double resistance, boolean driveUnscaled) {
+        for (int loop = 0; loop < LOOPS; loop++) {
+            for (SimMotor motor : motors) motor.set(1);
+            budget.update();
+            stage.flush();
+
+            double total = 0;
+            for (int i = 0; i < motors.length; i++) {
+                currents[i] = stallCurrents[i] * Math.abs(motors[i].get());
+                total += currents[i];
+            }
+            voltage = BatterySim.calculateLoadedBatteryVoltage(12, resistance, currents);
+
+            if (loop > 0) {
+                assertTrue(total <= budget.getAllowedCurrent() + 1e-6,
+                        "Loop " + loop + " drew " + total + " A with " + budget.getAllowedCurrent() + " A allowed.");
+            }
+        }
+
+        if (driveUnscaled) {
+            assertEquals(1, budget.getScale(motors[0]), 0);
+            assertEquals(1, budget.getScale(motors[1]), 0);
+        }
+    }
+}
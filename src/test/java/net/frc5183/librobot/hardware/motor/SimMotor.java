@@ -0,0 +1,86 @@
+package net.frc5183.librobot.hardware.motor;
+
+import edu.wpi.first.wpilibj.motorcontrol.MotorController;
+
+/**
+ * A {@link Motor} which only records what was written to it, for tests.
+ */
+class SimMotor extends Motor {
+    double speed;
+    double voltage;
+    double current;
+    boolean inverted;
+
+    @Override
+    public void set(double speed) {
+        if (!bufferSpeed(speed)) writeSpeed(speed);
+    }
+
+    @Override
+    public void setVoltage(double outputVolts) {
+        if (!bufferVoltage(outputVolts)) writeVoltage(outputVolts);
+    }
+
+    @Override
+    public void periodic() {
+        // Nothing to update.
+    }
+
+    @Override
+    public double get() {
+        return speed;
+    }
+
+    @Override
+    public void setSafety(boolean on) {
+        // There is no motor safety to configure.
+    }
+
+    @Override
+    public void setInverted(boolean inverted) {
+        this.inverted = inverted;
+    }
+
+    @Override
+    public boolean getInverted() {
+        return inverted;
+    }
+
+    @Override
+    public MotorController getRawMotor() {
+        return this;
+    }
+
+    @Override
+    public double getOutputCurrent() {
+        return current;
+    }
+
+    @Override
+    public void disable() {
+        stopMotor();
+    }
+
+    @Override
+    public void stopMotor() {
+        speed = 0;
+        voltage = 0;
+        bufferStop();
+    }
+
+    @Override
+    protected boolean supportsOutputStage() {
+        return true;
+    }
+
+    @Override
+    protected void writeSpeed(double speed) {
+        this.speed = compensate(speed);
+    }
+
+    @Override
+    protected void writeVoltage(double outputVolts) {
+        this.voltage = outputVolts;
+        this.speed = outputVolts / 12;
+    }
+}
@@ -0,0 +1,29 @@
+package net.frc5183.librobot.input;
+
+import net.frc5183.librobot.AllocationExtension;
+import net.frc5183.librobot.AllocationMeter;
+import net.frc5183.librobot.math.curve.ExponentialCurve;
+import net.frc5183.librobot.math.curve.LimitedCurve;
+import net.frc5183.librobot.math.curve.QuadraticCurve;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.function.DoubleSupplier;
+
+@ExtendWith(AllocationExtension.class)
+class InputAllocationTest {
+    private double stick;
+
+    @Test
+    void update(AllocationMeter meter) {
+        InputStage stage = new InputStage();
+        DoubleSupplier forward = stage.addAxis(() -> stick, 0.08, new ExponentialCurve(2.5));
+        DoubleSupplier turn = stage.addAxis(() -> -stick, 0.1, new QuadraticCurve(1, 0, 0), new LimitedCurve(new QuadraticCurve(0, 1, 0), -0.5, 0.5));
+
+        meter.assertNoAllocation("InputStage.update", x -> {
+            stick = x;
+            stage.update();
+            return forward.getAsDouble() + turn.getAsDouble();
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package net.frc5183.librobot.math.curve;
+
+import edu.wpi.first.hal.HAL;
+import net.frc5183.librobot.AllocationExtension;
+import net.frc5183.librobot.AllocationMeter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Map;
+
+@ExtendWith(AllocationExtension.class)
+class CurveAllocationTest {
+    private static final double[] KNOTS = {-1, -0.5, 0, 0.5, 1};
+    private static final double[] VALUES = {-1, -0.3, 0, 0.3, 1};
+
+    @BeforeAll
+    static void initialize() {
+        HAL.initialize(500, 0);
+    }
+
+    @Test
+    void linear(AllocationMeter meter) {
+        assertCurve(meter, new LinearCurve(0.5, 0.1));
+    }
+
+    @Test
+    void quadratic(AllocationMeter meter) {
+        assertCurve(meter, new QuadraticCurve(1, 0, 0));
+    }
+
+    @Test
+    void exponential(AllocationMeter meter) {
+        assertCurve(meter, new ExponentialCurve(2.5));
+    }
+
+    @Test
+    void radical(AllocationMeter meter) {
+        assertCurve(meter, new RadicalCurve(2, -1, 1));
+    }
+
+    @Test
+    void limited(AllocationMeter meter) {
+        assertCurve(meter, new LimitedCurve(new QuadraticCurve(1, 0, 0), -0.5, 0.5));
+    }
+
+    @Test
+    void piecewise(AllocationMeter meter) {
+        assertCurve(meter, new PiecewiseCurve(Map.of(
+                (PiecewiseCurve.Condition) x -> x < 0, new LinearCurve(0.5, 0),
+                (PiecewiseCurve.Condition) x -> x >= 0, new QuadraticCurve(1, 0, 0)
+        )));
+    }
+
+    @Test
+    void hermiteSpline(AllocationMeter meter) {
+        assertCurve(meter, new HermiteSplineCurve(KNOTS, VALUES));
+    }
+
+    @Test
+    void monotoneSpline(AllocationMeter meter) {
+        assertCurve(meter, new MonotoneSplineCurve(KNOTS, VALUES));
+    }
+
+    @Test
+    void bezier(AllocationMeter meter) {
+        assertCurve(meter, new BezierCurve(new double[] {-1, 0, 1}, -1, -0.6, -0.2, 0, 0.2, 0.6, 1));
+    }
+
+    @Test
+    void normalTimed(AllocationMeter meter) {
+        assertCurve(meter, new NormalTimedCurve(new LinearCurve(1, 0), 0.1, 0.1));
+    }
+
+    @Test
+    void zeroTimed(AllocationMeter meter) {
+        assertCurve(meter, new ZeroTimedCurve(new LinearCurve(1, 0), 0.1, 0.1));
+    }
+
+    @Test
+    void doubleTimed(AllocationMeter meter) {
+        assertCurve(meter, new DoubleTimedCurve(new LinearCurve(1, 0), new QuadraticCurve(1, 0, 0), 0.1, 0.1));
+    }
+
+    private static void assertCurve(AllocationMeter meter, Curve curve) {
+        String name = curve.getClass().getSimpleName();
+        meter.assertNoAllocation(name + ".curve", curve::curve);
+        meter.assertNoAllocation(name + ".derivative", curve::derivative);
+        meter.assertNoAllocation(name + ".inverse", curve::inverse);
+    }
+}
@@ -0,0 +1,124 @@
+package net.frc5183.librobot.math.curve;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recovers known curves from synthetic samples.
+ */
+class CurveFitterTest {
+    private static final int SAMPLES = 201;
+
+    @Test
+    void linear() throws IOException {
+        CurveFit fit = CurveFitter.fitLinear(sample(-1, 1, x -> 0.8 * x - 0.1));
+        LinearCurve curve = (LinearCurve) fit.getCurve();
+
+        assertEquals(0.8, curve.getSlope(), 1e-9);
+        assertEquals(-0.1, curve.getYIntercept(), 1e-9);
+        assertEquals(0, fit.getRmsError(), 1e-9);
+        assertEquals(SAMPLES, fit.getSamples());
+    }
+
+    @Test
+    void quadratic() throws IOException {
+        CurveFit fit = CurveFitter.fitQuadratic(sample(-1, 1, x -> 0.5 * x * x + 0.3 * x - 0.2));
+        QuadraticCurve curve = (QuadraticCurve) fit.getCurve();
+
+        assertEquals(0.5, curve.getA(), 1e-9);
+        assertEquals(0.3, curve.getB(), 1e-9);
+        assertEquals(-0.2, curve.getC(), 1e-9);
+    }
+
+    @Test
+    void exponential() throws IOException {
+        ExponentialCurve truth = new ExponentialCurve(3.5);
+        CurveFit fit = CurveFitter.fitExponential(sample(-1, 1, truth::curve));
+
+        assertEquals(3.5, ((ExponentialCurve) fit.getCurve()).getExaggeration(), 1e-4);
+        assertEquals(0, fit.getRmsError(), 1e-6);
+    }
+
+    @Test
+    void radical() throws IOException {
+        RadicalCurve truth = new RadicalCurve(3, -1, 1);
+        CurveFit fit = CurveFitter.fitRadical(sample(-0.5, 1, truth::curve));
+        RadicalCurve curve = (RadicalCurve) fit.getCurve();
+
+        assertEquals(3, curve.getA(), 1e-3);
+        assertEquals(-1, curve.getB(), 1e-3);
+        assertEquals(1, curve.getC(), 1e-3);
+        assertEquals(0, fit.getRmsError(), 1e-6);
+    }
+
+    @Test
+    void splineAcrossEmptyKnots() throws IOException {
+        // No samples between 0.3 and 0.7, so the knots at 0.375, 0.5 and 0.625 have no samples near them.
+        CurveFitter.SampleSource source = gap(x -> 2 * x - 1);
+        CurveFit fit = CurveFitter.fitSpline(source, 9);
+
+        assertEquals(0, fit.getRmsError(), 1e-6);
+        for (double x = 0; x <= 1; x += 0.05) assertEquals(2 * x - 1, fit.getCurve().curve(x), 1e-6, "x = " + x);
+    }
+
+    @Test
+    void splineBridgesEmptyKnots() throws IOException {
+        CurveFit fit = CurveFitter.fitSpline(gap(x -> x * x), 9);
+        Curve curve = fit.getCurve();
+
+        assertTrue(fit.getRmsError() < 0.01, "The spline should follow the samples, error " + fit.getRmsError());
+        double previous = curve.curve(0.3);
+        for (double x = 0.35; x <= 0.7; x += 0.05) {
+            double y = curve.curve(x);
+            assertTrue(Double.isFinite(y) && y >= previous - 1e-6, "The gap should rise between its neighbours at x = " + x);
+            previous = y;
+        }
+    }
+
+    @Test
+    void fitAllRanksBestFirst() throws IOException {
+        List<CurveFit> fits = CurveFitter.fitAll(sample(-1, 1, x -> 0.5 * x * x + 0.3 * x - 0.2));
+
+        assertTrue(fits.size() >= 3);
+        for (int i = 1; i < fits.size(); i++) assertTrue(fits.get(i - 1).getRmsError() <= fits.get(i).getRmsError());
+        assertTrue(fits.get(0).getRmsError() < 1e-6, "A quadratic or spline should fit exactly.");
+    }
+
+    @Test
+    void undetermined() {
+        CurveFitter.SampleSource single = CurveFitter.of(new double[] {0.5}, new double[] {1});
+        assertThrows(IllegalStateException.class, () -> CurveFitter.fitLinear(single));
+        assertThrows(IllegalStateException.class, () -> CurveFitter.fitSpline(single, 5));
+        assertThrows(IllegalArgumentException.class, () -> CurveFitter.fitSpline(single, 1));
+    }
+
+    private static CurveFitter.SampleSource sample(double from, double to, DoubleUnaryOperator f) {
+        double[] x = new double[SAMPLES];
+        double[] y = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            x[i] = from + (to - from) * i / (SAMPLES - 1);
+            y[i] = f.applyAsDouble(x[i]);
+        }
+        return CurveFitter.of(x, y);
+    }
+
+    /**
+     * Samples a function over 0 to 1 except between 0.3 and 0.7.
+     */
+    private static CurveFitter.SampleSource gap(DoubleUnaryOperator f) {
+        return consumer -> {
+            for (int i = 0; i <= 100; i++) {
+                double x = i / 100.0;
+                if (x > 0.3 && x < 0.7) continue;
+                consumer.accept(x, f.applyAsDouble(x));
+            }
+        };
+    }
+}
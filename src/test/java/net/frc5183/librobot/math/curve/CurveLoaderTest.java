@@ -0,0 +1,139 @@
+package net.frc5183.librobot.math.curve;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CurveLoaderTest {
+    private static final double EPSILON = 1e-12;
+
+    private static final String SOURCE = String.join("\n",
+            "# Driver curves",
+            "drive = exponential(2.5)",
+            "turn = limited(quadratic(1, 0, 0), -0.5, 0.5)  # capped",
+            "line = linear(0.5, -0.25)",
+            "root = radical(2, 0, 1)",
+            "shooter = monotone([0, 0.5, 1], [0, 0.7, 1])",
+            "intake = hermite([-1, 0, 1], [-1, 0, 1], [1, 1, 1])",
+            "arm = piecewise([-1, 0, 1], linear(0.5, 0), quadratic(1, 0, 0))",
+            ""
+    );
+
+    private static final double[] XS = {-1, -0.75, -0.3, 0, 0.2, 0.5, 0.9, 1};
+
+    @Test
+    void roundTripsThroughBinary() throws IOException {
+        byte[] compiled = CurveLoader.compile(SOURCE);
+        assertEquals("LRCV", new String(compiled, 0, 4, StandardCharsets.US_ASCII));
+
+        Path text = Files.createTempFile("curves", ".txt");
+        Path binary = Files.createTempFile("curves", ".lrcv");
+        try {
+            Files.writeString(text, SOURCE);
+            CurveLoader.compile(text, binary);
+
+            Map<String, Curve> fromText = CurveLoader.load(text);
+            Map<String, Curve> fromBinary = CurveLoader.load(binary);
+            assertEquals(List.of("drive", "turn", "line", "root", "shooter", "intake", "arm"), List.copyOf(fromText.keySet()));
+            assertEquals(List.copyOf(fromText.keySet()), List.copyOf(fromBinary.keySet()));
+
+            for (String name : fromText.keySet()) {
+                for (double x : XS) {
+                    assertEquals(fromText.get(name).curve(x), fromBinary.get(name).curve(x), 0, name + " at " + x);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(binary);
+        }
+    }
+
+    @Test
+    void evaluatesLikeConstructedCurves() {
+        Map<String, Curve> curves = CurveLoader.parse(SOURCE);
+        Curve drive = new ExponentialCurve(2.5);
+        Curve turn = new LimitedCurve(new QuadraticCurve(1, 0, 0), -0.5, 0.5);
+        Curve line = new LinearCurve(0.5, -0.25);
+        Curve root = new RadicalCurve(2, 0, 1);
+        Curve shooter = new MonotoneSplineCurve(new double[] {0, 0.5, 1}, new double[] {0, 0.7, 1});
+
+        for (double x : XS) {
+            assertEquals(drive.curve(x), curves.get("drive").curve(x), EPSILON);
+            assertEquals(turn.curve(x), curves.get("turn").curve(x), EPSILON);
+            assertEquals(line.curve(x), curves.get("line").curve(x), EPSILON);
+            assertEquals(root.curve(x), curves.get("root").curve(x), EPSILON);
+            assertEquals(x, curves.get("intake").curve(x), EPSILON);
+            assertEquals(x < 0 ? 0.5 * x : x * x, curves.get("arm").curve(x), EPSILON);
+            if (x >= 0) assertEquals(shooter.curve(x), curves.get("shooter").curve(x), EPSILON);
+        }
+    }
+
+    @Test
+    void rejectsMalformedText() {
+        assertSyntaxError("drive = spiral(1)", "Line 1: unknown curve type \"spiral\".");
+        assertSyntaxError("drive exponential(1)", "Line 1: expected '='.");
+        assertSyntaxError("drive = exponential(1", "Line 1: unexpected end of file.");
+        assertSyntaxError("\ndrive = exponential(x)", "Line 2: expected a number.");
+        assertSyntaxError("drive = linear(1)", "Line 1: too few arguments to linear.");
+        assertSyntaxError("drive = exponential(1, 2)", "Line 1: too many arguments to exponential.");
+        assertSyntaxError("drive = monotone([0, 1 [0, 1])", "Line 1: expected ','.");
+        assertSyntaxError("= linear(1, 0)", "Line 1: expected a name.");
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> CurveLoader.parse("arm = piecewise([0, 1, 2], linear(1, 0))"));
+        assertTrue(e.getMessage().startsWith("Invalid curve \"arm\""), e.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> CurveLoader.parse("drive = exponential(-1)"));
+        assertThrows(IllegalArgumentException.class, () -> CurveLoader.parse("shooter = monotone([0, 0], [0, 1])"));
+    }
+
+    @Test
+    void rejectsMalformedBinary() throws IOException {
+        byte[] compiled = CurveLoader.compile("shooter = monotone([0, 0.5, 1], [0, 0.7, 1])");
+
+        byte[] version = compiled.clone();
+        version[4] = 99;
+        assertBinaryError(version);
+
+        // The type of the first curve follows the header, the count and the two-byte length and bytes of its name.
+        int typeIndex = 4 + 1 + 4 + 2 + "shooter".length();
+        byte[] type = compiled.clone();
+        type[typeIndex] = 99;
+        assertBinaryError(type);
+
+        // The length of the first array follows the type and the argument count.
+        byte[] length = compiled.clone();
+        length[typeIndex + 2] = 0x7F;
+        assertBinaryError(length);
+
+        assertBinaryError(Arrays.copyOf(compiled, compiled.length - 3));
+    }
+
+    private static void assertSyntaxError(String source, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> CurveLoader.parse(source));
+        assertEquals(message, e.getMessage());
+    }
+
+    private static void assertBinaryError(byte[] bytes) throws IOException {
+        Path file = Files.createTempFile("curves", ".lrcv");
+        try {
+            Files.write(file, bytes);
+            assertThrows(IOException.class, () -> CurveLoader.load(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package net.frc5183.librobot.math.curve;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Tunes curves through a local NetworkTables server, publishing edits from a second, client instance
+ * so they arrive at the tuner as remote values.
+ */
+class CurveTunerTest {
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private NetworkTableInstance server;
+    private NetworkTableInstance client;
+    private Path persistFile;
+
+    @BeforeAll
+    static void initialize() {
+        HAL.initialize(500, 0);
+    }
+
+    @BeforeEach
+    void connect() throws IOException, InterruptedException {
+        persistFile = Files.createTempFile("curve-tuner", ".json");
+        int port3 = freePort();
+        int port4 = freePort();
+
+        server = NetworkTableInstance.create();
+        server.startServer(persistFile.toString(), "127.0.0.1", port3, port4);
+
+        client = NetworkTableInstance.create();
+        client.startClient4("curve-tuner-test");
+        client.setServer("127.0.0.1", port4);
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!client.isConnected()) {
+            if (System.currentTimeMillis() > deadline) fail("Client did not connect to the local server.");
+            Thread.sleep(10);
+        }
+    }
+
+    @AfterEach
+    void disconnect() throws IOException {
+        client.close();
+        server.close();
+        Files.deleteIfExists(persistFile);
+    }
+
+    @Test
+    void appliesRemoteEditsOnlyInApplyChanges() throws InterruptedException {
+        ExponentialCurve curve = new ExponentialCurve(2.5);
+        try (CurveTuner tuner = new CurveTuner(server.getTable("tuning"))) {
+            tuner.bind("drive", curve);
+            assertEquals(0, tuner.applyChanges());
+
+            DoublePublisher remote = client.getTable("tuning").getDoubleTopic("drive/exaggeration").publish();
+            remote.set(3.5);
+            client.flush();
+
+            assertEquals(1, awaitChanges(tuner, () -> assertEquals(2.5, curve.getExaggeration(), 0,
+                    "The curve must not change before applyChanges.")));
+            assertEquals(3.5, curve.getExaggeration(), 0);
+            assertEquals(0, tuner.applyChanges());
+            remote.close();
+        }
+    }
+
+    /**
+     * Calls applyChanges until it applies an edit, checking the given assertion before each call.
+     * @return The number of edits applied.
+     */
+    private static int awaitChanges(CurveTuner tuner, Runnable before) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (true) {
+            before.run();
+            int applied = tuner.applyChanges();
+            if (applied > 0) return applied;
+            if (System.currentTimeMillis() > deadline) fail("Remote edit was not received.");
+            Thread.sleep(10);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
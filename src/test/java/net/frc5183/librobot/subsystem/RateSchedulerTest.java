@@ -0,0 +1,111 @@
+package net.frc5183.librobot.subsystem;
+
+import edu.wpi.first.hal.HAL;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateSchedulerTest {
+    private static final double BASE_PERIOD = 0.01;
+
+    @BeforeAll
+    static void initialize() {
+        HAL.initialize(500, 0);
+    }
+
+    @Test
+    void groupsByPeriod() {
+        RateScheduler scheduler = new RateScheduler(BASE_PERIOD);
+        int fast = scheduler.add(() -> {}, 0.01);
+        int slow = scheduler.add(() -> {}, 0.1);
+
+        assertEquals(fast, scheduler.add(() -> {}, 0.011));
+        assertEquals(slow, scheduler.add(() -> {}, 0.1));
+        assertEquals(2, scheduler.getGroupCount());
+        assertEquals(0.1, scheduler.getGroupPeriod(slow), 1e-12);
+        assertEquals(2, scheduler.getGroupSize(slow));
+    }
+
+    @Test
+    void staggersSlowTasks() {
+        RateScheduler scheduler = new RateScheduler(BASE_PERIOD);
+        int[] runs = new int[4];
+        int[] ranThisTick = new int[1];
+        for (int i = 0; i < runs.length; i++) {
+            int task = i;
+            scheduler.add(() -> {
+                runs[task]++;
+                ranThisTick[0]++;
+            }, 0.04);
+        }
+
+        for (int tick = 0; tick < 8; tick++) {
+            ranThisTick[0] = 0;
+            scheduler.tick();
+            assertEquals(1, ranThisTick[0], "Tick " + tick + " should run exactly one of the staggered tasks.");
+        }
+        for (int run : runs) assertEquals(2, run);
+    }
+
+    @Test
+    void staggersAroundFasterTasks() {
+        RateScheduler scheduler = new RateScheduler(BASE_PERIOD);
+        int[] ranThisTick = new int[1];
+        Runnable task = () -> ranThisTick[0]++;
+        scheduler.add(task, 0.02);
+        scheduler.add(task, 0.04);
+        scheduler.add(task, 0.04);
+
+        int total = 0;
+        for (int tick = 0; tick < 8; tick++) {
+            ranThisTick[0] = 0;
+            scheduler.tick();
+            assertEquals(1, ranThisTick[0], "Tick " + tick + " should run exactly one task.");
+            total += ranThisTick[0];
+        }
+        assertEquals(8, total);
+    }
+
+    @Test
+    void countsGroupOverruns() {
+        RateScheduler scheduler = new RateScheduler(BASE_PERIOD);
+        int slow = scheduler.add(() -> busy(0.015), 0.01);
+        int fast = scheduler.add(() -> {}, 0.02);
+
+        for (int tick = 0; tick < 3; tick++) scheduler.tick();
+
+        assertEquals(3, scheduler.getOverruns(slow));
+        assertEquals(0, scheduler.getOverruns(fast));
+        assertEquals(3, scheduler.getTickOverruns());
+        assertTrue(scheduler.getMaxDuration(slow) >= 0.015);
+
+        scheduler.resetStatistics();
+        assertEquals(0, scheduler.getOverruns(slow));
+        assertEquals(0, scheduler.getTickOverruns());
+        assertEquals(0, scheduler.getMaxDuration(slow), 0);
+    }
+
+    @Test
+    void countsTickOverrunsAcrossGroups() {
+        RateScheduler scheduler = new RateScheduler(BASE_PERIOD);
+        int every = scheduler.add(() -> busy(0.006), 0.01);
+        int other = scheduler.add(() -> busy(0.006), 0.02);
+
+        scheduler.tick();
+        scheduler.tick();
+
+        assertEquals(0, scheduler.getOverruns(every));
+        assertEquals(0, scheduler.getOverruns(other));
+        assertEquals(1, scheduler.getTickOverruns(), "Only the tick running both groups should overrun.");
+    }
+
+    /**
+     * Spins for at least the given time.
+     */
+    private static void busy(double seconds) {
+        long end = System.nanoTime() + (long) (seconds * 1e9);
+        while (System.nanoTime() < end) Thread.onSpinWait();
+    }
+}
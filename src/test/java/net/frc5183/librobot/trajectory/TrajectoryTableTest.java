@@ -0,0 +1,81 @@
+package net.frc5183.librobot.trajectory;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TrajectoryTableTest {
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * A straight line at 1 m/s ending at 0.25 s, sampled every 0.1 s, so the last row is half a step after the one
+     * before it.
+     */
+    private static TrajectoryTable line() {
+        double[] xs = {0, 0.1, 0.2, 0.25};
+        double[] zeros = new double[4];
+        double[] ones = {1, 1, 1, 1};
+        return new TrajectoryTable(0.1, 0.25, xs, zeros, zeros, ones, zeros, zeros, zeros);
+    }
+
+    @Test
+    void samplesShortLastStep() {
+        TrajectoryTable table = line();
+        TrajectorySample sample = new TrajectorySample();
+
+        assertEquals(0.25, table.getTotalTime(), EPSILON);
+        assertEquals(0.225, table.sample(0.225, sample).x, EPSILON);
+        assertEquals(0.25, table.sample(0.25, sample).x, EPSILON);
+        assertEquals(0.25, table.sample(1, sample).x, EPSILON);
+        assertEquals(0.25, sample.time, EPSILON);
+        assertEquals(0.15, table.sample(0.15, sample).x, EPSILON);
+    }
+
+    @Test
+    void roundTrips() throws IOException {
+        TrajectoryTable table = line();
+        byte[] bytes = write(table);
+        TrajectoryTable read = TrajectoryTable.read(new DataInputStream(new ByteArrayInputStream(bytes)), bytes.length);
+
+        assertEquals(table.size(), read.size());
+        assertEquals(table.getTotalTime(), read.getTotalTime(), 0);
+        assertEquals(0.225, read.sample(0.225, new TrajectorySample()).x, EPSILON);
+    }
+
+    @Test
+    void rejectsLengthLargerThanFile() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeDouble(0.01);
+        out.writeDouble(1);
+        out.writeInt(Integer.MAX_VALUE);
+        out.flush();
+
+        assertThrows(IOException.class, () -> TrajectoryTable.read(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), bytes.size()));
+    }
+
+    @Test
+    void rejectsTotalTimeOutsideLastStep() {
+        double[] column = new double[4];
+        assertThrows(IllegalArgumentException.class,
+                () -> new TrajectoryTable(0.1, 0.35, column, column, column, column, column, column, column));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TrajectoryTable(0.1, 0.2, column, column, column, column, column, column, column));
+    }
+
+    private static byte[] write(TrajectoryTable table) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            table.write(out);
+        }
+        return bytes.toByteArray();
+    }
+}